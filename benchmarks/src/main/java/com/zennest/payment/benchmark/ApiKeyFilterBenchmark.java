@@ -0,0 +1,88 @@
+package com.zennest.payment.benchmark;
+
+import com.zennest.payment.Filters.ApiKeyFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link ApiKeyFilter} on an authenticated call, compared with
+ * the previous implementation (plain {@code String.equals} plus a fresh authentication
+ * token per request).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiKeyFilterBenchmark {
+
+    private static final String KEY = "svc_live_7f3a9c2e41b84d0fa6e1c5b2d9e07a13";
+
+    private ApiKeyFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest invalidRequest;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        filter = new ApiKeyFilter(KEY, "booking:svc_live_booking_0c9d1e,property:svc_live_property_55aa01",
+                new SimpleMeterRegistry());
+        validRequest = request("Bearer " + KEY);
+        invalidRequest = request("Bearer svc_live_7f3a9c2e41b84d0fa6e1c5b2d9e07a14");
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public void validKey() throws Exception {
+        // The success path never touches the response, so one instance is reused
+        filter.doFilter(validRequest, response, chain);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse invalidKey() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(invalidRequest, rejected, chain);
+        return rejected;
+    }
+
+    /**
+     * The pre-fast-path comparison: non-constant-time equals and a new token per request.
+     */
+    @Benchmark
+    public void legacyValidKey(Blackhole blackhole) {
+        String header = validRequest.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ") && KEY.equals(header.substring(7))) {
+            var auth = new UsernamePasswordAuthenticationToken("apiKeyUser", null, Collections.emptyList());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            blackhole.consume(auth);
+        }
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/graphql");
+        request.setRemoteAddr("10.0.0.12");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.zennest.payment.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) against a recorded baseline and exits
+ * non-zero when any benchmark regressed by more than the allowed fraction.
+ * <p>
+ * Usage: {@code BaselineComparator <baseline.json> <result.json> [threshold]}, where the
+ * threshold defaults to {@code 0.10}. Time-per-op modes regress when the score grows,
+ * throughput regresses when it shrinks. Benchmarks missing from either side are reported
+ * but never fail the comparison. A missing baseline file fails it too (exit 2), so the gate
+ * cannot pass without anything to compare against.
+ */
+public final class BaselineComparator {
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparator <baseline.json> <result.json> [threshold]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        if (!baselineFile.isFile()) {
+            System.err.printf("No baseline at %s; record one with: cp %s %s%n", baselineFile, resultFile, baselineFile);
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> current = read(resultFile);
+
+        int regressions = 0;
+        System.out.printf("%-55s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-55s %14s %14.3f %9s  (new)%n", entry.getKey(), "-", now.value(), "-");
+                continue;
+            }
+            double change = (now.value() - before.value()) / before.value();
+            boolean regressed = now.higherIsBetter() ? change < -threshold : change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-55s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.value(), now.value(),
+                    change * 100, now.unit(), regressed ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-55s (not run)%n", missing);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.0f%%%n", threshold * 100);
+    }
+
+    private static Map<String, Score> read(File file) throws Exception {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String mode = run.path("mode").asText();
+            String benchmark = run.path("benchmark").asText();
+            StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1)).append(" [").append(mode);
+            run.path("params").fields().forEachRemaining(p ->
+                    key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            key.append(']');
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+                    metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private record Score(double value, String unit, boolean higherIsBetter) {
+    }
+}
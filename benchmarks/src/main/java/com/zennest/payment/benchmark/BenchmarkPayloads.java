@@ -0,0 +1,38 @@
+package com.zennest.payment.benchmark;
+
+/**
+ * Representative Paystack payloads, shaped like the documented {@code charge.success}
+ * event and {@code /transaction/verify} response.
+ */
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    static String chargeSuccessWebhook() {
+        return "{\"event\":\"charge.success\",\"data\":" + transaction("T4c1f9a2b7e0d") + "}";
+    }
+
+    static String verifyResponse() {
+        return "{\"status\":true,\"message\":\"Verification successful\",\"data\":" + transaction("T4c1f9a2b7e0d") + "}";
+    }
+
+    private static String transaction(String reference) {
+        return "{\"id\":4099260516,\"domain\":\"test\",\"status\":\"success\",\"reference\":\"" + reference + "\","
+                + "\"amount\":2500000,\"message\":null,\"gateway_response\":\"Successful\","
+                + "\"paid_at\":\"2024-08-22T09:15:02.000Z\",\"created_at\":\"2024-08-22T09:14:24.000Z\","
+                + "\"channel\":\"card\",\"currency\":\"NGN\",\"ip_address\":\"197.210.54.33\","
+                + "\"metadata\":{\"property_id\":\"b2f6d1c4-7a3e-4f0b-9c2d-5e8a1f3b6c70\",\"custom_fields\":[]},"
+                + "\"log\":{\"start_time\":1724318064,\"time_spent\":38,\"attempts\":1,\"errors\":0,\"success\":true,"
+                + "\"mobile\":false,\"input\":[],\"history\":[{\"type\":\"action\",\"message\":\"Attempted to pay with card\",\"time\":37},"
+                + "{\"type\":\"success\",\"message\":\"Successfully paid with card\",\"time\":38}]},"
+                + "\"fees\":47500,\"fees_split\":null,"
+                + "\"authorization\":{\"authorization_code\":\"AUTH_8dfhjjdt\",\"bin\":\"408408\",\"last4\":\"4081\","
+                + "\"exp_month\":\"12\",\"exp_year\":\"2030\",\"channel\":\"card\",\"card_type\":\"visa \","
+                + "\"bank\":\"TEST BANK\",\"country_code\":\"NG\",\"brand\":\"visa\",\"reusable\":true,"
+                + "\"signature\":\"SIG_yEXu7dLBeqG0kU7g95Ke\",\"account_name\":null},"
+                + "\"customer\":{\"id\":181873746,\"first_name\":null,\"last_name\":null,\"email\":\"tenant@example.com\","
+                + "\"customer_code\":\"CUS_1rkzaqsv4rrhqo6\",\"phone\":null,\"metadata\":null,\"risk_action\":\"default\"},"
+                + "\"plan\":null,\"split\":{},\"order_id\":null,\"requested_amount\":2500000}";
+    }
+}
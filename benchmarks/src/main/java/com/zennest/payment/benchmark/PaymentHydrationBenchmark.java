@@ -0,0 +1,105 @@
+package com.zennest.payment.benchmark;
+
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materialising {@link Payment} entities through Hibernate against an in-memory H2
+ * database, configured with the same naming strategy Spring Boot applies. Covers a
+ * lookup by reference (the webhook path) and a page of rows (history and export-style
+ * reads), so mapping changes to the entity show up here before they show up in latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate's query plan and entity initializers need longer than the other suites to settle
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentHydrationBenchmark {
+
+    private static final int ROWS = 2_000;
+    private static final int PAGE_SIZE = 100;
+
+    private SessionFactory sessionFactory;
+    private List<String> references;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Payment.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:hydration;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+                .buildSessionFactory();
+
+        references = new ArrayList<>(ROWS);
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ROWS; i++) {
+                Payment payment = new Payment("tenant" + i + "@example.com", 250_000 + i, PaymentStatus.SUCCESS,
+                        UUID.randomUUID(), PaymentType.RENT, UUID.randomUUID());
+                String reference = "ref-" + i;
+                payment.setReference(reference);
+                payment.setChannel("card");
+                payment.setCurrency("NGN");
+                payment.setFees(3_750);
+                payment.setGatewayResponse("Successful");
+                payment.setPaystackTransactionId(String.valueOf(4_000_000_000L + i));
+                session.persist(payment);
+                references.add(reference);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Payment findByReference() {
+        String reference = references.get(ThreadLocalRandom.current().nextInt(ROWS));
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("from Payment p where p.reference = :reference", Payment.class)
+                    .setParameter("reference", reference)
+                    .getSingleResult();
+        }
+    }
+
+    @Benchmark
+    public List<Payment> loadPage() {
+        int offset = ThreadLocalRandom.current().nextInt(ROWS / PAGE_SIZE) * PAGE_SIZE;
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("from Payment p order by p.createdAt", Payment.class)
+                    .setFirstResult(offset)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.zennest.payment.benchmark;
+
+import com.zennest.payment.id.PaymentReferences;
+import com.zennest.payment.id.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput into a payments-shaped table that already holds {@code prefill} rows,
+ * with random version 4 ids and Paystack-style random references ({@code random}) against
+ * {@link UuidV7} ids and {@link PaymentReferences} ({@code v7}). Both the primary key and the
+ * reference index are B-trees, so random keys touch a different leaf page on nearly every
+ * insert while time-ordered keys keep appending to the same right-most pages.
+ * <p>
+ * Each invocation inserts and commits {@value #BATCH} rows; the score is rows per second. Runs
+ * against a file-backed H2 database by default, or PostgreSQL with {@code -p url=jdbc:postgresql://...}
+ * (and {@code -Djdbc.user}/{@code -Djdbc.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentInsertBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"random", "v7"})
+    public String ids;
+
+    @Param({"300000"})
+    public int prefill;
+
+    // Empty for a temporary file-backed H2 database
+    @Param({""})
+    public String url;
+
+    private Path directory;
+    private Connection connection;
+    private String table;
+    private PreparedStatement insert;
+    private boolean timeOrdered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (url.isEmpty()) {
+            directory = Files.createTempDirectory("payment-insert");
+            connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("payments"), "sa", "");
+        } else {
+            connection = DriverManager.getConnection(url,
+                    System.getProperty("jdbc.user"), System.getProperty("jdbc.password"));
+        }
+        timeOrdered = "v7".equals(ids);
+        table = "payments_insert_" + ids;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " (id uuid primary key, reference varchar(64) not null, "
+                    + "email varchar(255) not null, amount integer not null, created_at timestamp not null)");
+            statement.execute("create index idx_" + table + "_reference on " + table + " (reference)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("insert into " + table + " values (?, ?, ?, ?, ?)");
+        for (int i = 0; i < prefill; i += BATCH) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table " + table);
+        }
+        connection.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH; i++) {
+            if (timeOrdered) {
+                insert.setObject(1, UuidV7.next());
+                insert.setString(2, PaymentReferences.next());
+            } else {
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, "T" + UUID.randomUUID().toString().replace("-", "").substring(0, 14));
+            }
+            insert.setString(3, "tenant@example.com");
+            insert.setInt(4, 250_000);
+            insert.setTimestamp(5, now);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
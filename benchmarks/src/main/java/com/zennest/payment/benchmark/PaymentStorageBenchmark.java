@@ -0,0 +1,206 @@
+package com.zennest.payment.benchmark;
+
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The payments table in the original layout ({@code string}: enum names and unbounded
+ * currency/channel in {@code varchar}) against the compact one ({@code compact}: smallint
+ * enum codes, {@code char(3)} currency, {@code varchar(32)} channel), with the same rows and
+ * the same {@code (payment_status, created_at)} index.
+ * <p>
+ * Setup prints each layout's size on disk, tables plus indexes, which is the number of pages
+ * a scan has to bring through the buffer cache. The benchmarks time a full-table aggregate
+ * (dashboards, backfills) and an index range scan over the recent window (reconciliation,
+ * metrics). By default the tables live in a file-backed H2 database under the temp directory;
+ * pass {@code -p url=jdbc:postgresql://...} (with {@code -Djdbc.user}/{@code -Djdbc.password})
+ * to measure PostgreSQL instead, where the size comes from {@code pg_total_relation_size}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentStorageBenchmark {
+
+    private static final String[] CHANNELS = {"card", "bank", "ussd", "bank_transfer"};
+
+    @Param({"string", "compact"})
+    public String layout;
+
+    @Param({"200000"})
+    public int rows;
+
+    // Empty for a temporary file-backed H2 database
+    @Param({""})
+    public String url;
+
+    private Path directory;
+    private Connection connection;
+    private String table;
+    private PreparedStatement aggregate;
+    private PreparedStatement recentSettled;
+    private Timestamp recentSince;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (url.isEmpty()) {
+            directory = Files.createTempDirectory("payment-storage");
+            // H2 would otherwise serve repeated executions of an unchanged query from its result cache
+            connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("payments")
+                    + ";OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        } else {
+            connection = DriverManager.getConnection(url,
+                    System.getProperty("jdbc.user"), System.getProperty("jdbc.password"));
+        }
+        boolean compact = "compact".equals(layout);
+        table = "payments_" + layout;
+        String enumType = compact ? "smallint" : "varchar(255)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " ("
+                    + "id uuid primary key, email varchar(255) not null, amount integer not null, "
+                    + "payment_status " + enumType + " not null, payment_type " + enumType + " not null, "
+                    + "paystack_confirmation " + enumType + " not null, reference varchar(255), "
+                    + "channel " + (compact ? "varchar(32)" : "varchar(255)") + ", "
+                    + "currency " + (compact ? "char(3)" : "varchar(255)") + ", fees integer, "
+                    + "created_at timestamp not null, updated_at timestamp not null, version bigint not null)");
+            statement.execute("create index idx_" + table + "_status_created_at on " + table + " (payment_status, created_at)");
+        }
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        insertRows(compact, start);
+        recentSince = Timestamp.valueOf(start.plusMinutes((long) rows * 95 / 100));
+
+        System.out.printf("%n%s layout: %d rows, %d bytes on disk including indexes (%.1f bytes/row)%n",
+                layout, rows, sizeOnDisk(), (double) sizeOnDisk() / rows);
+
+        aggregate = connection.prepareStatement(
+                "select payment_status, count(*), sum(amount) from " + table + " group by payment_status");
+        recentSettled = connection.prepareStatement(
+                "select count(*), sum(amount) from " + table + " where payment_status = ? and created_at >= ?");
+        if (compact) {
+            recentSettled.setShort(1, PaymentStatus.SUCCESS.getCode());
+        } else {
+            recentSettled.setString(1, PaymentStatus.SUCCESS.name());
+        }
+        recentSettled.setTimestamp(2, recentSince);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table " + table);
+        }
+        connection.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public long aggregateByStatus() throws SQLException {
+        long total = 0;
+        try (ResultSet rs = aggregate.executeQuery()) {
+            while (rs.next()) {
+                total += rs.getLong(3);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long recentSettledRange() throws SQLException {
+        try (ResultSet rs = recentSettled.executeQuery()) {
+            rs.next();
+            return rs.getLong(2);
+        }
+    }
+
+    private void insertRows(boolean compact, LocalDateTime start) throws SQLException {
+        Random random = new Random(42);
+        PaymentType[] types = PaymentType.values();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + table
+                + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < rows; i++) {
+                // Mostly settled history with a pending tail, as in production
+                int roll = random.nextInt(10);
+                PaymentStatus status = roll < 7 ? PaymentStatus.SUCCESS : roll < 9 ? PaymentStatus.FAILED : PaymentStatus.PENDING;
+                PaymentType type = types[random.nextInt(types.length)];
+                PaystackConfirmationStatus confirmation = PaystackConfirmationStatus.forPaymentStatus(status);
+                Timestamp createdAt = Timestamp.valueOf(start.plusMinutes(i));
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, "tenant" + i + "@example.com");
+                insert.setInt(3, 50_000 + random.nextInt(1_000_000));
+                if (compact) {
+                    insert.setShort(4, status.getCode());
+                    insert.setShort(5, type.getCode());
+                    insert.setShort(6, confirmation.getCode());
+                } else {
+                    insert.setString(4, status.name());
+                    insert.setString(5, type.name());
+                    insert.setString(6, confirmation.name());
+                }
+                insert.setString(7, "ref-" + i);
+                insert.setString(8, CHANNELS[random.nextInt(CHANNELS.length)]);
+                insert.setString(9, "NGN");
+                insert.setInt(10, 1_500);
+                insert.setTimestamp(11, createdAt);
+                insert.setTimestamp(12, createdAt);
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(url.isEmpty() ? "checkpoint" : "vacuum analyze " + table);
+        }
+    }
+
+    private long sizeOnDisk() throws SQLException {
+        String query = url.isEmpty()
+                ? "select disk_space_used('" + table.toUpperCase() + "')"
+                : "select pg_total_relation_size('" + table + "')";
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.zennest.payment.benchmark;
+
+import com.zennest.payment.Config.PaystackConfig;
+import com.zennest.payment.service.PaystackService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a {@code /transaction/verify} response into the result map returned by
+ * {@link PaystackService#verifyPayment(String)}, without the HTTP round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaystackResponseBenchmark {
+
+    private PaystackService paystackService;
+    private String verifyResponse;
+
+    @Setup
+    public void setUp() {
+        paystackService = new PaystackService(new PaystackConfig());
+        verifyResponse = BenchmarkPayloads.verifyResponse();
+    }
+
+    @Benchmark
+    public Map<String, Object> interpretVerification() throws Exception {
+        return paystackService.interpretVerification(verifyResponse);
+    }
+}
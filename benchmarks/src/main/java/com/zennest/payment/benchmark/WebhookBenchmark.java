@@ -0,0 +1,90 @@
+package com.zennest.payment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import com.zennest.payment.service.PaystackSignatureVerifier;
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU-bound stages of {@code POST /api/payments/webhook}: signature verification,
+ * payload parsing and mapping the gateway status, each measured in isolation and as the
+ * combined pre-database path. The {@code legacy*} benchmarks reproduce the previous
+ * handler, which re-serialized the parsed map and keyed a new {@link Mac} per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookBenchmark {
+
+    private static final String SECRET = "sk_test_4b1f0e7d2c9a8e6f5d3c1b0a9e8d7c6b5a4f3e2d";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PaystackSignatureVerifier verifier;
+    private byte[] body;
+    private String signature;
+    private Map<String, Object> parsed;
+
+    @Setup
+    public void setUp() throws Exception {
+        verifier = new PaystackSignatureVerifier(SECRET);
+        body = BenchmarkPayloads.chargeSuccessWebhook().getBytes(StandardCharsets.UTF_8);
+        signature = Hex.encodeHexString(verifier.sign(body));
+        parsed = objectMapper.readValue(body, Map.class);
+    }
+
+    @Benchmark
+    public boolean verifySignature() {
+        return verifier.isValid(body, signature);
+    }
+
+    @Benchmark
+    public Map<String, Object> parsePayload() throws Exception {
+        return objectMapper.readValue(body, Map.class);
+    }
+
+    @Benchmark
+    public PaystackConfirmationStatus mapStatus() {
+        Map<String, Object> data = (Map<String, Object>) parsed.get("data");
+        PaymentStatus status = PaymentStatus.fromGatewayStatus((String) data.get("status"));
+        return PaystackConfirmationStatus.forPaymentStatus(status);
+    }
+
+    @Benchmark
+    public PaymentStatus verifyParseAndMap() throws Exception {
+        if (!verifier.isValid(body, signature)) {
+            throw new IllegalStateException("signature rejected");
+        }
+        Map<String, Object> payload = objectMapper.readValue(body, Map.class);
+        Map<String, Object> data = (Map<String, Object>) payload.get("data");
+        return PaymentStatus.fromGatewayStatus((String) data.get("status"));
+    }
+
+    @Benchmark
+    public boolean legacyVerifySignature() throws Exception {
+        String rawBody = objectMapper.writeValueAsString(parsed);
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return Hex.encodeHexString(mac.doFinal(rawBody.getBytes(StandardCharsets.UTF_8))).equals(signature);
+    }
+}
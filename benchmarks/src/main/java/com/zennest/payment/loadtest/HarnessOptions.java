@@ -0,0 +1,59 @@
+package com.zennest.payment.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * {@code key=value} command-line options shared by the simulator and the load driver.
+ */
+final class HarnessOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    HarnessOptions(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            values.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+    }
+
+    String string(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int integer(String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    double decimal(String key, double defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    /**
+     * @return the dotted ({@code a.b=c}) options accepted by the filter, e.g. Spring properties to forward
+     */
+    Map<String, String> dotted(Predicate<String> filter) {
+        Map<String, String> selected = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (key.indexOf('.') > 0 && filter.test(key)) {
+                selected.put(key, value);
+            }
+        });
+        return selected;
+    }
+
+    Duration millis(String key, long defaultMillis) {
+        return Duration.ofMillis(integer(key, (int) defaultMillis));
+    }
+
+    Duration seconds(String key, long defaultSeconds) {
+        return Duration.ofSeconds(integer(key, (int) defaultSeconds));
+    }
+}
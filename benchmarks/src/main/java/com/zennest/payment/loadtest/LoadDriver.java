@@ -0,0 +1,305 @@
+package com.zennest.payment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.PaymentApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives concurrent checkout → webhook → status-query flows against the payment service
+ * with {@link PaystackSimulator} standing in for Paystack, and reports throughput and
+ * latency percentiles per stage.
+ * <p>
+ * Each flow:
+ * <ol>
+ *   <li><b>checkout</b>: {@code createMemberDonation} over GraphQL, which initializes the transaction with the simulator</li>
+ *   <li><b>webhook</b>: opens the returned {@code authorization_url}; the simulator settles the charge and
+ *       delivers the signed webhook before answering, so this stage includes the service's webhook handling</li>
+ *   <li><b>status</b>: {@code getPaymentById} over GraphQL, checking the payment settled as the simulator decided</li>
+ * </ol>
+ * By default the service is booted in-process on a random port against in-memory H2.
+ * {@code db=postgres} uses {@code jdbc-url}/{@code jdbc-user}/{@code jdbc-password} instead, and
+ * {@code target=http://host:port} skips the boot and drives an already running instance (which must be
+ * configured with the simulator's base URL and secret, printed at startup).
+ * <p>
+ * Options ({@code key=value}): {@code concurrency} (32), {@code duration} seconds (30), {@code warmup} seconds (10),
+ * {@code api-key}, {@code sim.port} (0), plus the {@link SimulatorSettings} options
+ * {@code sim.latency-ms}, {@code sim.jitter-ms}, {@code sim.failure-rate}, {@code sim.decline-rate}, {@code sim.secret}.
+ * Any other dotted option, e.g. {@code payments.edge.concurrency.max-limit=800}, is passed to the booted service.
+ */
+public final class LoadDriver {
+
+    private static final String CHECKOUT = """
+            mutation($request: MemberDonationRequest!) {
+              createMemberDonation(request: $request) { paymentId authorizationUrl }
+            }""";
+
+    private static final String STATUS = """
+            query($id: ID!) { getPaymentById(id: $id) { status paystackConfirmation } }""";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String graphqlUrl;
+    private final String apiKey;
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final AtomicLong completedFlows = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LoadDriver(String baseUrl, String apiKey) {
+        this.graphqlUrl = baseUrl + "/graphql";
+        this.apiKey = apiKey;
+        for (String stage : List.of("checkout", "webhook", "status", "flow")) {
+            stages.put(stage, new Stage());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = new HarnessOptions(args);
+        String apiKey = options.string("api-key", "loadtest-service-key");
+        SimulatorSettings settings = SimulatorSettings.from(options);
+
+        try (PaystackSimulator simulator = new PaystackSimulator(settings, options.integer("sim.port", 0))) {
+            String target = options.string("target", null);
+            ConfigurableApplicationContext context = null;
+            if (target == null) {
+                context = boot(options, simulator, apiKey);
+                target = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            }
+            simulator.setWebhookUrl(target + "/api/payments/webhook");
+            System.out.printf("Service %s, Paystack simulator %s (secret %s)%n", target, simulator.baseUrl(), settings.secretKey());
+
+            try {
+                new LoadDriver(target, apiKey).run(options.integer("concurrency", 32),
+                        options.seconds("warmup", 10), options.seconds("duration", 30));
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext boot(HarnessOptions options, PaystackSimulator simulator, String apiKey) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("paystack.api.base.url", simulator.baseUrl());
+        properties.put("paystack.secret.key", options.string("sim.secret", SimulatorSettings.DEFAULT_SECRET));
+        properties.put("service.password", apiKey);
+        properties.put("spring.security.user.password", apiKey);
+        properties.put("userservice.api.key", "unused");
+        properties.put("logging.level.com.zennest.payment", "WARN");
+        // Every request comes from one address and one client; keep the limiters in the path but out of the way
+        properties.put("payments.edge.rate-limit.ip-limit", 1_000_000);
+        properties.put("payments.edge.rate-limit.client-limit", 1_000_000);
+        properties.putAll(options.dotted(key -> !key.startsWith("sim.")));
+        if ("postgres".equals(options.string("db", "h2"))) {
+            properties.put("spring.datasource.url", options.string("jdbc-url", "jdbc:postgresql://localhost:5432/payments_load"));
+            properties.put("spring.datasource.username", options.string("jdbc-user", "postgres"));
+            properties.put("spring.datasource.password", options.string("jdbc-password", "postgres"));
+            properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        } else {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.driverClassName", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        }
+        // Command-line arguments outrank application.properties, unlike SpringApplicationBuilder#properties
+        String[] arguments = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(PaymentApplication.class).main(PaymentApplication.class).run(arguments);
+    }
+
+    private void run(int concurrency, Duration warmup, Duration duration) throws Exception {
+        System.out.printf("Warming up for %ds with %d concurrent flows...%n", warmup.toSeconds(), concurrency);
+        drive(concurrency, warmup);
+        stages.values().forEach(Stage::reset);
+        completedFlows.set(0);
+
+        System.out.printf("Measuring for %ds...%n", duration.toSeconds());
+        long started = System.nanoTime();
+        drive(concurrency, duration);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        report(concurrency, elapsedSeconds);
+    }
+
+    private void drive(int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                running.add(workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        flow();
+                    }
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        }
+    }
+
+    private void flow() {
+        long flowStart = System.nanoTime();
+        long n = sequence.incrementAndGet();
+
+        JsonNode checkout = timed("checkout", () -> graphql(CHECKOUT, Map.of("request",
+                Map.of("email", "load" + n + "@example.com", "amount", 250_000 + (int) (n % 1000)))));
+        if (checkout == null) {
+            return;
+        }
+        JsonNode created = checkout.path("data").path("createMemberDonation");
+        String paymentId = created.path("paymentId").asText();
+
+        JsonNode paid = timed("webhook", () -> {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(URI.create(created.path("authorizationUrl").asText())).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode json = objectMapper.readTree(response.body());
+            if (response.statusCode() != 200) {
+                throw new StageFailure("webhook HTTP " + json.path("webhook_status").asText());
+            }
+            return json;
+        });
+        if (paid == null) {
+            return;
+        }
+        String expected = "success".equals(paid.path("status").asText()) ? "SUCCESS" : "FAILED";
+
+        JsonNode status = timed("status", () -> {
+            JsonNode result = graphql(STATUS, Map.of("id", paymentId));
+            String actual = result.path("data").path("getPaymentById").path("status").asText();
+            if (!expected.equals(actual)) {
+                throw new StageFailure("status " + actual + ", expected " + expected);
+            }
+            return result;
+        });
+        if (status == null) {
+            return;
+        }
+        stages.get("flow").record(System.nanoTime() - flowStart);
+        completedFlows.incrementAndGet();
+    }
+
+    private JsonNode graphql(String query, Map<String, Object> variables) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("query", query, "variables", variables));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(graphqlUrl))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + apiKey)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new StageFailure("HTTP " + response.statusCode());
+        }
+        JsonNode json = objectMapper.readTree(response.body());
+        if (json.hasNonNull("errors")) {
+            throw new StageFailure("GraphQL " + json.path("errors").path(0).path("extensions").path("classification").asText("error"));
+        }
+        return json;
+    }
+
+    private JsonNode timed(String stageName, Call call) {
+        Stage stage = stages.get(stageName);
+        long start = System.nanoTime();
+        try {
+            JsonNode result = call.execute();
+            stage.record(System.nanoTime() - start);
+            return result;
+        } catch (StageFailure e) {
+            stage.fail(e.getMessage());
+        } catch (Exception e) {
+            stage.fail(e.getClass().getSimpleName());
+        }
+        return null;
+    }
+
+    private void report(int concurrency, double elapsedSeconds) {
+        System.out.printf("%nConcurrency %d, %.1fs, %d flows, %.1f flows/s%n",
+                concurrency, elapsedSeconds, completedFlows.get(), completedFlows.get() / elapsedSeconds);
+        System.out.printf("%-9s %9s %7s %9s %9s %9s %9s %9s%n", "stage", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stages.forEach((name, stage) -> {
+            Histogram histogram = stage.latencies;
+            System.out.printf("%-9s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    histogram.getTotalCount(), stage.errors(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        });
+        stages.forEach((name, stage) -> stage.failures.forEach((reason, count) ->
+                System.out.printf("  %s failed %d x %s%n", name, count.sum(), reason)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        JsonNode execute() throws Exception;
+    }
+
+    /**
+     * A flow step that completed but not as expected; the message is the reason reported.
+     */
+    private static final class StageFailure extends Exception {
+
+        StageFailure(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    private static final class Stage {
+
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void record(long nanos) {
+            latencies.recordValue(Math.min(nanos, latencies.getHighestTrackableValue()));
+        }
+
+        void fail(String reason) {
+            failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+        }
+
+        long errors() {
+            return failures.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        void reset() {
+            latencies.reset();
+            failures.clear();
+        }
+    }
+}
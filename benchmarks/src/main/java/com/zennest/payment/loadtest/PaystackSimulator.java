@@ -0,0 +1,357 @@
+package com.zennest.payment.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process stand-in for the subset of the Paystack API the payment service calls:
+ * {@code /transaction/initialize}, {@code /transaction/verify/{reference}}, {@code /bank},
+ * {@code /bank/resolve} and {@code /transferrecipient}.
+ * <p>
+ * Initialized transactions stay {@code ongoing} until their {@code authorization_url}
+ * ({@code /checkout/{access_code}}, the hosted payment page) is requested. That request
+ * settles the charge and synchronously delivers a {@code charge.success} webhook, signed
+ * with HMAC-SHA512 like the real one, to {@link #setWebhookUrl(String) the webhook URL}.
+ * Latency, jitter, upstream failures and declined charges are injected according to
+ * {@link SimulatorSettings}.
+ * <p>
+ * Run standalone with {@code PaystackSimulator port=8089 webhook-url=http://localhost:6500/api/payments/webhook}
+ * and point {@code paystack.api.base.url} at it.
+ */
+public class PaystackSimulator implements AutoCloseable {
+
+    private static final List<Map<String, Object>> BANKS = List.of(
+            bank(1, "Access Bank", "044"),
+            bank(7, "First Bank of Nigeria", "011"),
+            bank(9, "Guaranty Trust Bank", "058"),
+            bank(21, "United Bank For Africa", "033"),
+            bank(23, "Zenith Bank", "057"));
+
+    private final SimulatorSettings settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient webhookClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadLocal<Mac> mac;
+
+    private final Map<String, Transaction> transactionsByReference = new ConcurrentHashMap<>();
+    private final Map<String, Transaction> transactionsByAccessCode = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong(4_099_260_000L);
+
+    private volatile String webhookUrl;
+
+    public PaystackSimulator(SimulatorSettings settings, int port) throws IOException {
+        this.settings = settings;
+        this.mac = ThreadLocal.withInitial(() -> newMac(settings.secretKey()));
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        server.setExecutor(executor);
+        server.createContext("/transaction/initialize", api(this::initialize));
+        server.createContext("/transaction/verify/", api(this::verify));
+        server.createContext("/bank/resolve", api(this::resolveAccount));
+        server.createContext("/bank", api(exchange -> ok("Banks retrieved", BANKS)));
+        server.createContext("/transferrecipient", api(this::createRecipient));
+        server.createContext("/checkout/", this::checkout);
+        server.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = new HarnessOptions(args);
+        PaystackSimulator simulator = new PaystackSimulator(SimulatorSettings.from(options), options.integer("port", 8089));
+        simulator.setWebhookUrl(options.string("webhook-url", "http://localhost:6500/api/payments/webhook"));
+        System.out.printf("Paystack simulator listening on %s, delivering webhooks to %s%n",
+                simulator.baseUrl(), simulator.webhookUrl);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setWebhookUrl(String webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Reply initialize(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        Object email = body.get("email");
+        Object amount = body.get("amount");
+        if (email == null || !(amount instanceof Number number) || number.longValue() <= 0) {
+            return new Reply(400, Map.of("status", false, "message", "Email and a positive amount are required"));
+        }
+        long id = ids.incrementAndGet();
+        String reference = body.get("reference") != null ? body.get("reference").toString() : "sim_" + Long.toString(id, 36);
+        String accessCode = "ac_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        Transaction transaction = new Transaction(id, reference, email.toString(), number.longValue(),
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS));
+        if (transactionsByReference.putIfAbsent(reference, transaction) != null) {
+            return new Reply(400, Map.of("status", false, "message", "Duplicate Transaction Reference"));
+        }
+        transactionsByAccessCode.put(accessCode, transaction);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("authorization_url", baseUrl() + "/checkout/" + accessCode);
+        data.put("access_code", accessCode);
+        data.put("reference", reference);
+        return ok("Authorization URL created", data);
+    }
+
+    private Reply verify(HttpExchange exchange) {
+        String reference = exchange.getRequestURI().getPath().substring("/transaction/verify/".length());
+        Transaction transaction = transactionsByReference.get(reference);
+        if (transaction == null) {
+            return new Reply(400, Map.of("status", false, "message", "Transaction reference not found"));
+        }
+        return ok("Verification successful", transaction.toJson());
+    }
+
+    private Reply resolveAccount(HttpExchange exchange) {
+        Map<String, String> query = query(exchange.getRequestURI());
+        String accountNumber = query.get("account_number");
+        String bankCode = query.get("bank_code");
+        if (accountNumber == null || !accountNumber.matches("\\d{10}") || bankCode == null) {
+            return new Reply(422, Map.of("status", false, "message", "Could not resolve account name. Check parameters or try again."));
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("account_number", accountNumber);
+        data.put("account_name", "SIMULATED ACCOUNT " + accountNumber.substring(6));
+        data.put("bank_id", bankCode.hashCode() & 0x3FF);
+        return ok("Account number resolved", data);
+    }
+
+    private Reply createRecipient(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        long id = ids.incrementAndGet();
+        String now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS).toString();
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("authorization_code", null);
+        details.put("account_number", body.get("account_number"));
+        details.put("account_name", body.get("name"));
+        details.put("bank_code", body.get("bank_code"));
+        details.put("bank_name", BANKS.stream()
+                .filter(bank -> bank.get("code").equals(body.get("bank_code")))
+                .map(bank -> bank.get("name"))
+                .findFirst().orElse("Simulated Bank"));
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("active", true);
+        data.put("createdAt", now);
+        data.put("currency", body.getOrDefault("currency", "NGN"));
+        data.put("domain", "test");
+        data.put("id", id);
+        data.put("name", body.get("name"));
+        data.put("recipient_code", "RCP_" + Long.toString(id, 36));
+        data.put("type", body.getOrDefault("type", "nuban"));
+        data.put("updatedAt", now);
+        data.put("is_deleted", false);
+        data.put("details", details);
+        return new Reply(201, Map.of("status", true, "message", "Transfer recipient created successfully", "data", data));
+    }
+
+    /**
+     * The hosted payment page: settles the charge and delivers its webhook before answering,
+     * so the caller observes the service's webhook handling time.
+     */
+    private void checkout(HttpExchange exchange) throws IOException {
+        String accessCode = exchange.getRequestURI().getPath().substring("/checkout/".length());
+        Transaction transaction = transactionsByAccessCode.get(accessCode);
+        if (transaction == null) {
+            send(exchange, new Reply(404, Map.of("status", false, "message", "Unknown access code")));
+            return;
+        }
+        boolean declined = ThreadLocalRandom.current().nextDouble() < settings.declineRate();
+        transaction.settle(declined ? "failed" : "success");
+
+        int webhookStatus;
+        try {
+            webhookStatus = deliverWebhook(transaction);
+        } catch (Exception e) {
+            webhookStatus = -1;
+        }
+        send(exchange, new Reply(webhookStatus >= 200 && webhookStatus < 300 ? 200 : 502,
+                Map.of("status", transaction.status, "reference", transaction.reference, "webhook_status", webhookStatus)));
+    }
+
+    private int deliverWebhook(Transaction transaction) throws Exception {
+        String target = webhookUrl;
+        if (target == null) {
+            return 0;
+        }
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                "event", "success".equals(transaction.status) ? "charge.success" : "charge.failed",
+                "data", transaction.toJson()));
+        Mac instance = mac.get();
+        instance.reset();
+        String signature = HexFormat.of().formatHex(instance.doFinal(body));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target))
+                .header("Content-Type", "application/json")
+                .header("x-paystack-signature", signature)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return webhookClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpHandler api(ApiHandler handler) {
+        return exchange -> {
+            try {
+                injectLatency();
+                String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                if (!("Bearer " + settings.secretKey()).equals(authorization)) {
+                    send(exchange, new Reply(401, Map.of("status", false, "message", "Invalid key")));
+                } else if (ThreadLocalRandom.current().nextDouble() < settings.failureRate()) {
+                    send(exchange, new Reply(500, Map.of("status", false, "message", "Simulated upstream failure")));
+                } else {
+                    send(exchange, handler.handle(exchange));
+                }
+            } catch (Exception e) {
+                send(exchange, new Reply(500, Map.of("status", false, "message", String.valueOf(e.getMessage()))));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void injectLatency() throws InterruptedException {
+        long delay = settings.latency().toMillis();
+        long jitter = settings.jitter().toMillis();
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private void send(HttpExchange exchange, Reply reply) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(reply.body());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Reply ok(String message, Object data) {
+        return new Reply(200, Map.of("status", true, "message", message, "data", data));
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, Object> bank(int id, String name, String code) {
+        Map<String, Object> bank = new LinkedHashMap<>();
+        bank.put("id", id);
+        bank.put("name", name);
+        bank.put("slug", name.toLowerCase().replace(' ', '-'));
+        bank.put("code", code);
+        bank.put("country", "Nigeria");
+        bank.put("currency", "NGN");
+        bank.put("type", "nuban");
+        bank.put("active", true);
+        return bank;
+    }
+
+    private static Mac newMac(String secretKey) {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA512");
+            instance.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            return instance;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to initialise HmacSHA512", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ApiHandler {
+        Reply handle(HttpExchange exchange) throws Exception;
+    }
+
+    private record Reply(int status, Object body) {
+    }
+
+    private static final class Transaction {
+
+        private final long id;
+        private final String reference;
+        private final String email;
+        private final long amount;
+        private final OffsetDateTime createdAt;
+        private volatile String status = "ongoing";
+        private volatile OffsetDateTime paidAt;
+
+        Transaction(long id, String reference, String email, long amount, OffsetDateTime createdAt) {
+            this.id = id;
+            this.reference = reference;
+            this.email = email;
+            this.amount = amount;
+            this.createdAt = createdAt;
+        }
+
+        void settle(String outcome) {
+            paidAt = "success".equals(outcome) ? OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS) : null;
+            status = outcome;
+        }
+
+        Map<String, Object> toJson() {
+            boolean success = "success".equals(status);
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("domain", "test");
+            json.put("status", status);
+            json.put("reference", reference);
+            json.put("amount", amount);
+            json.put("gateway_response", success ? "Successful" : "ongoing".equals(status) ? null : "Declined");
+            json.put("paid_at", paidAt != null ? paidAt.toString() : null);
+            json.put("created_at", createdAt.toString());
+            json.put("channel", "card");
+            json.put("currency", "NGN");
+            // Local card pricing: 1.5% plus NGN 100 above NGN 2,500, capped at NGN 2,000
+            json.put("fees", success ? Math.min(amount * 15 / 1000 + (amount >= 250_000 ? 10_000 : 0), 200_000) : 0);
+            json.put("customer", Map.of("email", email, "customer_code", "CUS_" + Long.toString(id, 36)));
+            return json;
+        }
+    }
+}
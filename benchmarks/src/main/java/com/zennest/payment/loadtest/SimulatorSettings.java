@@ -0,0 +1,27 @@
+package com.zennest.payment.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of the {@link PaystackSimulator}.
+ *
+ * @param secretKey   key expected in {@code Authorization: Bearer} and used to sign webhooks
+ * @param latency     fixed delay added to every API response
+ * @param jitter      upper bound of an extra, uniformly random delay
+ * @param failureRate fraction of API calls answered with HTTP 500
+ * @param declineRate fraction of checkouts that end in a {@code failed} charge instead of {@code success}
+ */
+public record SimulatorSettings(String secretKey, Duration latency, Duration jitter,
+                                double failureRate, double declineRate) {
+
+    public static final String DEFAULT_SECRET = "sk_test_simulator";
+
+    static SimulatorSettings from(HarnessOptions options) {
+        return new SimulatorSettings(
+                options.string("sim.secret", DEFAULT_SECRET),
+                options.millis("sim.latency-ms", 0),
+                options.millis("sim.jitter-ms", 0),
+                options.decimal("sim.failure-rate", 0),
+                options.decimal("sim.decline-rate", 0));
+    }
+}
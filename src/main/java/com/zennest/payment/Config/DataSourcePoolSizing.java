@@ -0,0 +1,65 @@
+package com.zennest.payment.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes the Hikari pool from the CPUs the container is allowed to use, unless
+ * {@code payments.datasource.pool.size} (positive) or {@code spring.datasource.hikari.maximum-pool-size}
+ * is set explicitly.
+ * <p>
+ * The pool gets {@code cpus * connections-per-cpu + 1} connections (the PostgreSQL guideline
+ * of twice the cores plus one for I/O waits), never fewer than {@code payments.datasource.pool.min-size}.
+ * A database only runs as many queries at once as it has cores, so a larger pool adds queueing
+ * and context switches on the server instead of throughput. Unless {@code minimum-idle} is set,
+ * the pool is fixed-size, so no request pays for opening a connection under a burst.
+ * {@link Runtime#availableProcessors()} honours container CPU limits;
+ * {@code payments.datasource.pool.cpus} overrides it.
+ */
+@Component
+public class DataSourcePoolSizing implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePoolSizing.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            size(dataSource);
+        }
+        return bean;
+    }
+
+    private void size(HikariDataSource dataSource) {
+        int cpus = environment.getProperty("payments.datasource.pool.cpus", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        int size = environment.getProperty("payments.datasource.pool.size", Integer.class, 0);
+        if (size > 0) {
+            dataSource.setMaximumPoolSize(size);
+        } else if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            dataSource.setMaximumPoolSize(poolSize(cpus,
+                    environment.getProperty("payments.datasource.pool.connections-per-cpu", Integer.class, 2),
+                    environment.getProperty("payments.datasource.pool.min-size", Integer.class, 4)));
+        }
+        if (!environment.containsProperty("spring.datasource.hikari.minimum-idle")) {
+            dataSource.setMinimumIdle(dataSource.getMaximumPoolSize());
+        }
+        logger.info("Database pool sized to {} connection(s) ({} idle minimum) for {} CPU(s)",
+                dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle(), cpus);
+    }
+
+    static int poolSize(int cpus, int connectionsPerCpu, int minSize) {
+        return Math.max(minSize, Math.max(1, cpus) * connectionsPerCpu + 1);
+    }
+}
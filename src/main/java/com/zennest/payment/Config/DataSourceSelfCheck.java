@@ -0,0 +1,172 @@
+package com.zennest.payment.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes pool saturation and, once the application is ready, warns about datasource
+ * settings that will bottleneck under load: a pool that is oversized for the CPUs or larger
+ * than the connections PostgreSQL accepts, a pool that grows on demand, a long connection
+ * timeout, JDBC batching turned off, and, on PostgreSQL, disabled statement caching or
+ * unrewritten batch inserts. Each finding is logged once at WARN; nothing is changed.
+ * <p>
+ * Metrics: {@code payments.datasource.pool.utilization} (active connections over the pool
+ * size). Hikari's own {@code hikaricp.connections.*} meters, including {@code pending}
+ * (threads waiting for a connection) and the {@code acquire} timer, are registered by Spring Boot.
+ */
+@Component
+public class DataSourceSelfCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceSelfCheck.class);
+
+    private static final long MAX_CONNECTION_TIMEOUT_MS = 10_000;
+
+    private final HikariDataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int cpus;
+
+    public DataSourceSelfCheck(DataSource dataSource,
+                               EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry,
+                               @Value("${payments.datasource.pool.cpus:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int cpus) throws SQLException {
+        this.dataSource = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cpus = cpus;
+
+        if (this.dataSource != null) {
+            Gauge.builder("payments.datasource.pool.utilization", this, DataSourceSelfCheck::utilization)
+                    .description("Active database connections as a fraction of the pool size")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (dataSource == null) {
+            return;
+        }
+        String product;
+        int serverConnections;
+        try (Connection connection = dataSource.getConnection()) {
+            product = connection.getMetaData().getDatabaseProductName();
+            serverConnections = "PostgreSQL".equals(product) ? availableServerConnections(connection) : -1;
+        } catch (SQLException e) {
+            logger.warn("Skipping the datasource self-check: {}", e.toString());
+            return;
+        }
+        List<String> findings = findings(dataSource, entityManagerFactory.getProperties(), product, serverConnections, cpus);
+        for (String finding : findings) {
+            logger.warn("Datasource self-check: {}", finding);
+        }
+        if (findings.isEmpty()) {
+            logger.info("Datasource self-check passed: {} connection(s), JDBC batch size {}",
+                    dataSource.getMaximumPoolSize(), entityManagerFactory.getProperties().get("hibernate.jdbc.batch_size"));
+        }
+    }
+
+    static List<String> findings(HikariDataSource dataSource, Map<String, Object> jpaProperties,
+                                 String product, int serverConnections, int cpus) {
+        List<String> findings = new ArrayList<>();
+        int poolSize = dataSource.getMaximumPoolSize();
+        if (poolSize > Math.max(1, cpus) * 4 + 1) {
+            findings.add("pool of " + poolSize + " connections for " + cpus + " CPU(s); connections beyond "
+                    + "about twice the cores queue inside the database instead of adding throughput");
+        }
+        if (serverConnections >= 0 && poolSize > serverConnections) {
+            findings.add("pool of " + poolSize + " connections exceeds the " + serverConnections
+                    + " the database accepts; the pool will fail to fill and requests will time out");
+        }
+        if (dataSource.getMinimumIdle() < poolSize) {
+            findings.add("minimum-idle " + dataSource.getMinimumIdle() + " is below the pool size " + poolSize
+                    + "; bursts wait for new connections to be opened");
+        }
+        if (dataSource.getConnectionTimeout() > MAX_CONNECTION_TIMEOUT_MS) {
+            findings.add("connection-timeout of " + dataSource.getConnectionTimeout() + " ms; a saturated pool "
+                    + "holds requests that long before failing them");
+        }
+        int batchSize = intProperty(jpaProperties.get("hibernate.jdbc.batch_size"));
+        if (batchSize <= 1) {
+            findings.add("hibernate.jdbc.batch_size is not set; saveAll and webhook updates run one statement per row");
+        } else if (!booleanProperty(jpaProperties.get("hibernate.order_inserts"))
+                || !booleanProperty(jpaProperties.get("hibernate.order_updates"))) {
+            findings.add("hibernate.order_inserts/order_updates are off; interleaved entity writes break JDBC batches");
+        }
+        if ("PostgreSQL".equals(product)) {
+            String prepareThreshold = driverProperty(dataSource, "prepareThreshold");
+            if (prepareThreshold != null && intProperty(prepareThreshold) <= 0) {
+                findings.add("prepareThreshold=" + prepareThreshold + " disables server-side prepared statements; "
+                        + "every query is parsed and planned again");
+            }
+            if (!"true".equalsIgnoreCase(driverProperty(dataSource, "reWriteBatchedInserts"))) {
+                findings.add("reWriteBatchedInserts is not enabled; batched inserts are sent as separate statements");
+            }
+        }
+        return findings;
+    }
+
+    private double utilization() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getActiveConnections() / dataSource.getMaximumPoolSize();
+    }
+
+    private static int availableServerConnections(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select current_setting('max_connections')::int "
+                     + "- current_setting('superuser_reserved_connections')::int")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Driver settings can come from spring.datasource.hikari.data-source-properties or the JDBC URL
+    private static String driverProperty(HikariDataSource dataSource, String name) {
+        String value = dataSource.getDataSourceProperties().getProperty(name);
+        if (value != null || dataSource.getJdbcUrl() == null) {
+            return value;
+        }
+        int query = dataSource.getJdbcUrl().indexOf('?');
+        if (query < 0) {
+            return null;
+        }
+        for (String parameter : dataSource.getJdbcUrl().substring(query + 1).split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                return parameter.substring(separator + 1);
+            }
+        }
+        return null;
+    }
+
+    private static int intProperty(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        try {
+            return value == null ? 0 : Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean booleanProperty(Object value) {
+        return value != null && Boolean.parseBoolean(value.toString().trim());
+    }
+}
@@ -1,6 +1,7 @@
 package com.zennest.payment.Config;
 
 import com.zennest.payment.Filters.ApiKeyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,8 +19,8 @@ public class DisabledApiKeyFilterConfig {
 
     @Bean
     @Primary
-    public ApiKeyFilter apiKeyFilter() {
-        return new ApiKeyFilter() {
+    public ApiKeyFilter apiKeyFilter(MeterRegistry meterRegistry) {
+        return new ApiKeyFilter("", "", meterRegistry) {
             @Override
             protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                     throws ServletException, IOException {
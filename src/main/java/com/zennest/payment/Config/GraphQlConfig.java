@@ -0,0 +1,42 @@
+package com.zennest.payment.Config;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.scalars.ExtendedScalars;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+@Configuration
+public class GraphQlConfig {
+
+    // 64-bit integers for monetary totals that overflow GraphQL's 32-bit Int
+    @Bean
+    public RuntimeWiringConfigurer extendedScalarsConfigurer() {
+        return wiring -> wiring.scalar(ExtendedScalars.GraphQLLong);
+    }
+
+    // Parsed and validated documents are reused across requests; see GraphQlDocumentCache
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(GraphQlDocumentCache documentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentCache));
+    }
+
+    // Queries nested deeper than this are rejected before execution (GraphiQL's introspection
+    // query is about 13 levels deep)
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${payments.graphql.max-depth:15}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    // Queries that could return too much (see GraphQlQueryComplexity) are rejected before execution
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${payments.graphql.max-complexity:20000}") int maxComplexity,
+            @Value("${payments.graphql.max-results:500}") int maxResults) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, new GraphQlQueryComplexity(maxResults));
+    }
+}
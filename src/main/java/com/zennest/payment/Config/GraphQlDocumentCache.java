@@ -0,0 +1,174 @@
+package com.zennest.payment.Config;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Keeps parsed and validated GraphQL documents, so a query the server has seen before is
+ * neither parsed nor validated again, and supports persisted queries.
+ * <p>
+ * Persisted queries follow Apollo's protocol: the client sends
+ * {@code extensions.persistedQuery.sha256Hash} (the hex SHA-256 of the document) instead of
+ * the document. Documents under {@code classpath:graphql/persisted/*.graphql} are registered at
+ * startup; others are registered by the first request that sends both hash and document, if
+ * the hash matches the document ({@code PersistedQueryIdInvalid} otherwise). An unknown hash is
+ * answered with {@code PersistedQueryNotFound}, after which the client retries with the document.
+ * <p>
+ * Documents are cached by their text, at most {@code payments.graphql.document-cache.size}
+ * of them, least recently used first out; documents that fail validation are not cached.
+ * Query depth and complexity limits are checked per execution, so cached documents are still
+ * subject to them.
+ * <p>
+ * Metrics: {@code payments.graphql.document.cache} (by {@code result}: hit or miss) and
+ * {@code payments.graphql.document.cache.size}; parse and validation time are recorded by
+ * {@link GraphQlDocumentMetrics}.
+ */
+@Component
+public class GraphQlDocumentCache implements PreparsedDocumentProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphQlDocumentCache.class);
+
+    private final Map<String, String> registered = new LinkedHashMap<>();
+    private final Map<String, String> persisted;
+    private final Map<String, PreparsedDocumentEntry> documents;
+    private final PersistedQuerySupport persistedQuerySupport;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GraphQlDocumentCache(MeterRegistry meterRegistry,
+                                @Value("${payments.graphql.document-cache.size:500}") int maxDocuments) {
+        this.documents = lru(maxDocuments);
+        this.persisted = lru(maxDocuments);
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport(new PersistedDocuments());
+        loadRegisteredQueries();
+
+        this.hits = Counter.builder("payments.graphql.document.cache")
+                .description("GraphQL document lookups, by whether the parsed document was cached")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("payments.graphql.document.cache")
+                .description("GraphQL document lookups, by whether the parsed document was cached")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("payments.graphql.document.cache.size", documents, Map::size)
+                .description("Parsed GraphQL documents held in the cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        if (executionInput.getExtensions().containsKey("persistedQuery")) {
+            return persistedQuerySupport.getDocumentAsync(executionInput, parseAndValidate);
+        }
+        return CompletableFuture.completedFuture(document(executionInput.getQuery(),
+                query -> parseAndValidate.apply(executionInput)));
+    }
+
+    private PreparsedDocumentEntry document(String query, Function<String, PreparsedDocumentEntry> parseAndValidate) {
+        PreparsedDocumentEntry entry = documents.get(query);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        entry = parseAndValidate.apply(query);
+        if (!entry.hasErrors()) {
+            documents.put(query, entry);
+        }
+        return entry;
+    }
+
+    // Resolves persisted-query hashes to documents for ApolloPersistedQuerySupport. A document
+    // sent with a hash is checked against it here, before the document cache is consulted: the
+    // cache returns documents already seen without calling onCacheMiss, which would otherwise be
+    // the only hash check, and let any caller register a cached document under another hash.
+    private class PersistedDocuments implements PersistedQueryCache {
+
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(
+                Object persistedQueryId, ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss) {
+            String hash = persistedQueryId.toString();
+            String query = registered.get(hash);
+            if (query == null) {
+                query = persisted.get(hash);
+            }
+            if (query != null) {
+                return CompletableFuture.completedFuture(document(query, onCacheMiss));
+            }
+            String sent = executionInput.getQuery();
+            if (sent == null || sent.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(sent)) {
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+            if (!sha256(sent).equalsIgnoreCase(hash)) {
+                throw new PersistedQueryIdInvalid(persistedQueryId);
+            }
+            PreparsedDocumentEntry entry = document(sent, onCacheMiss);
+            if (!entry.hasErrors()) {
+                persisted.put(hash, sent);
+            }
+            return CompletableFuture.completedFuture(entry);
+        }
+    }
+
+    private void loadRegisteredQueries() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:graphql/persisted/*.graphql");
+            for (Resource resource : resources) {
+                String query = resource.getContentAsString(StandardCharsets.UTF_8);
+                String hash = sha256(query);
+                registered.put(hash, query);
+                logger.info("Registered persisted GraphQL query {} as {}", resource.getFilename(), hash);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load persisted GraphQL queries", e);
+        }
+    }
+
+    static String sha256(String query) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.zennest.payment.Config;
+
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Times parsing and validation of GraphQL documents, which only happen for documents that
+ * {@link GraphQlDocumentCache} does not hold yet.
+ * <p>
+ * Metrics: {@code payments.graphql.document} timer, by {@code phase} (parse or validate).
+ */
+@Component
+public class GraphQlDocumentMetrics extends SimplePerformantInstrumentation {
+
+    private final Timer parse;
+    private final Timer validate;
+
+    public GraphQlDocumentMetrics(MeterRegistry meterRegistry) {
+        this.parse = phaseTimer(meterRegistry, "parse");
+        this.validate = phaseTimer(meterRegistry, "validate");
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters,
+                                                       InstrumentationState state) {
+        return timed(parse);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters,
+                                                                         InstrumentationState state) {
+        return timed(validate);
+    }
+
+    private static <T> InstrumentationContext<T> timed(Timer timer) {
+        Timer.Sample sample = Timer.start();
+        return SimpleInstrumentationContext.whenCompleted((result, error) -> sample.stop(timer));
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("payments.graphql.document")
+                .description("Time spent parsing and validating GraphQL documents that were not cached")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.zennest.payment.Config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+
+import java.util.Collection;
+
+/**
+ * Estimates the cost of a GraphQL field from the number of items it can return: a field
+ * costs 1 plus its selection, multiplied by its page size ({@code first}), by ids times
+ * {@code limitPerProperty}, or by {@code payments.graphql.max-results} for the unpaged lists.
+ * {@code Payment.user} adds the cost of a user-service lookup.
+ */
+class GraphQlQueryComplexity implements FieldComplexityCalculator {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int USER_LOOKUP_COST = 10;
+
+    private final int maxResults;
+
+    GraphQlQueryComplexity(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        String field = environment.getField().getName();
+        int cost = 1 + childComplexity;
+        return switch (field) {
+            case "getAllPayments", "getPaymentsByStatus" -> cost * maxResults;
+            case "paymentsByUser", "paymentsByProperty", "paymentsByEmail" -> cost * intArgument(environment, "first");
+            case "paymentsByPropertyIds" -> {
+                Object ids = environment.getArguments().get("propertyIds");
+                int keys = ids instanceof Collection<?> collection ? collection.size() : 1;
+                yield cost * keys * intArgument(environment, "limitPerProperty");
+            }
+            case "user" -> cost + USER_LOOKUP_COST;
+            default -> cost;
+        };
+    }
+
+    private static int intArgument(FieldComplexityEnvironment environment, String name) {
+        Object value = environment.getArguments().get(name);
+        return value instanceof Number number ? Math.max(1, number.intValue()) : DEFAULT_PAGE_SIZE;
+    }
+}
@@ -0,0 +1,77 @@
+package com.zennest.payment.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.zennest.payment.routing.RecentWrites;
+import com.zennest.payment.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to read replicas when
+ * {@code payments.datasource.replica.urls} lists any; everything else, including writes and
+ * reads outside a read-only transaction, stays on the primary.
+ * <p>
+ * The application {@link DataSource} becomes a {@link LazyConnectionDataSourceProxy} over the
+ * primary pool: it only fetches a physical connection at the first statement, after the
+ * transaction manager has marked the connection read-only, and takes read-only ones from a
+ * {@link ReplicaRoutingDataSource}. Replica pools copy the primary's Hikari settings and use
+ * the primary's credentials unless {@code payments.datasource.replica.username}/{@code password}
+ * are set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 RecentWrites recentWrites,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payments.datasource.replica.urls}") List<String> urls,
+                                 @Value("${payments.datasource.replica.username:}") String username,
+                                 @Value("${payments.datasource.replica.password:}") String password) {
+        String poolName = primaryDataSource.getPoolName() != null ? primaryDataSource.getPoolName() : "payments-db";
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName(poolName + "-replica-" + replicas.size());
+            replica.setReadOnly(true);
+            if (!username.isBlank()) {
+                replica.setUsername(username);
+                replica.setPassword(password);
+            }
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicas, recentWrites, meterRegistry));
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,15 @@
+package com.zennest.payment.Config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs (outbox relay and cleanup). Turn them off on an instance
+ * with {@code payments.scheduling.enabled=false}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "payments.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
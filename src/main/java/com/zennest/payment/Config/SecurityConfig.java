@@ -1,6 +1,8 @@
 package com.zennest.payment.Config;
 
 import com.zennest.payment.Filters.ApiKeyFilter;
+import com.zennest.payment.Filters.ConcurrencyLimitFilter;
+import com.zennest.payment.Filters.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +26,12 @@ public class SecurityConfig {
     @Autowired
     private ApiKeyFilter apiKeyFilter;
 
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -62,7 +70,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // public endpoints
                         .requestMatchers(
-                                "/actuator/health",
+                                "/actuator/health/**",
                                 "/actuator/prometheus",
                                 "/api/payments/health",
                                 "/api/payments/**"
@@ -70,7 +78,11 @@ public class SecurityConfig {
                         // everything else needs a valid API key
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(apiKeyFilter, UsernamePasswordAuthenticationFilter.class);
+                // edge protection: shed on concurrency first, then authenticate, then rate limit
+                // per client/IP (filters added at the same position keep this order)
+                .addFilterBefore(concurrencyLimitFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(apiKeyFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,56 @@
+package com.zennest.payment.Config;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how long the instance took to become ready, from JVM start (so class loading
+ * before {@code main} counts, which is what a class-data-sharing archive saves) and from
+ * {@code SpringApplication.run}, together with whether AOT-generated initialization and a CDS
+ * archive were in use.
+ * <p>
+ * Metrics: {@code payments.startup.ready.seconds} (JVM start to ready). Spring Boot also
+ * publishes {@code application.started.time} and {@code application.ready.time}.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReport.class);
+
+    private final AtomicLong readyMillis = new AtomicLong();
+
+    public StartupReport(MeterRegistry meterRegistry) {
+        Gauge.builder("payments.startup.ready.seconds", readyMillis, millis -> millis.get() / 1000.0)
+                .description("Time from JVM start until the application was ready to serve")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void ready(ApplicationReadyEvent event) {
+        long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+        readyMillis.set(sinceJvmStart);
+        logger.info("Ready in {} ms since JVM start ({} ms in SpringApplication.run), AOT {}, CDS archive {}",
+                sinceJvmStart, event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis(),
+                AotDetector.useGeneratedArtifacts() ? "on" : "off", sharedArchive());
+    }
+
+    private static String sharedArchive() {
+        try {
+            String archive = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                    .getVMOption("SharedArchiveFile").getValue();
+            return archive == null || archive.isEmpty() ? "default" : archive;
+        } catch (RuntimeException e) {
+            return "unknown";
+        }
+    }
+}
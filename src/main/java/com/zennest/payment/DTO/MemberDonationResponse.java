@@ -0,0 +1,12 @@
+package com.zennest.payment.DTO;
+
+import java.util.UUID;
+
+/**
+ * Result of starting a checkout: the pending payment and the Paystack page the payer is sent to.
+ *
+ * @param paymentId        id of the {@code PENDING} payment created for the checkout
+ * @param authorizationUrl Paystack hosted payment page returned by {@code /transaction/initialize}
+ */
+public record MemberDonationResponse(UUID paymentId, String authorizationUrl) {
+}
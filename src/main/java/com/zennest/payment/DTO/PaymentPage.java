@@ -0,0 +1,14 @@
+package com.zennest.payment.DTO;
+
+import com.zennest.payment.model.Payment;
+
+import java.util.List;
+
+/**
+ * One page of a payment history, newest first.
+ *
+ * @param payments   the payments on this page
+ * @param nextCursor pass as {@code after} to get the next page; {@code null} on the last page
+ */
+public record PaymentPage(List<Payment> payments, String nextCursor) {
+}
@@ -0,0 +1,30 @@
+package com.zennest.payment.DTO;
+
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload of the {@code payment.status.changed} outbox event. It is a snapshot of the
+ * payment after the change, so consumers do not need to query the payment service.
+ */
+public record PaymentStatusChangedEvent(UUID paymentId,
+                                        String reference,
+                                        PaymentStatus previousStatus,
+                                        PaymentStatus status,
+                                        PaystackConfirmationStatus confirmation,
+                                        PaymentType paymentType,
+                                        Integer amount,
+                                        Integer fees,
+                                        String currency,
+                                        String channel,
+                                        UUID userId,
+                                        UUID propertyId,
+                                        LocalDateTime paidAt,
+                                        LocalDateTime occurredAt) {
+
+    public static final String TYPE = "payment.status.changed";
+}
@@ -0,0 +1,10 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Body of {@code PUT /api/payouts/recipients/{propertyId}}.
+ *
+ * @param recipientCode Paystack transfer recipient code ({@code RCP_...}), as returned by
+ *                      {@code POST /api/payment/payout-profile/resolve}
+ */
+public record PayoutRecipientRequest(String recipientCode) {
+}
@@ -0,0 +1,14 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Outcome of a payout run.
+ *
+ * @param payouts        payouts created from settled payments
+ * @param payments       payments covered by those payouts
+ * @param submitted      payouts accepted by Paystack, including ones left pending by earlier runs
+ * @param bulkCalls      calls made to Paystack's bulk transfer endpoint
+ * @param errors         payouts left pending after a failed call or refused by Paystack; pending ones are retried on the next run
+ * @param durationMillis wall-clock duration of the run
+ */
+public record PayoutRunResult(int payouts, int payments, int submitted, int bulkCalls, int errors, long durationMillis) {
+}
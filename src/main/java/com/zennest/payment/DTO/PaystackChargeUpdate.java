@@ -0,0 +1,65 @@
+package com.zennest.payment.DTO;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * The fields of a Paystack charge notification that are applied to a payment.
+ *
+ * @param reference       transaction reference the payment was initialized with
+ * @param gatewayStatus   Paystack transaction status, e.g. {@code success}, {@code failed}, {@code abandoned}
+ * @param transactionId   Paystack's numeric transaction id
+ * @param gatewayResponse human-readable gateway outcome, e.g. {@code Approved}
+ * @param channel         payment channel, e.g. {@code card}
+ * @param currency        ISO currency code
+ * @param fees            Paystack fees in the smallest currency unit
+ * @param paidAt          settlement time, or {@code null} if not paid
+ * @param authorizationCode code of the card authorization, if Paystack reports it reusable for
+ *                          later charges; otherwise {@code null}
+ */
+public record PaystackChargeUpdate(String reference, String gatewayStatus, String transactionId,
+                                   String gatewayResponse, String channel, String currency,
+                                   Integer fees, LocalDateTime paidAt, String authorizationCode) {
+
+    public PaystackChargeUpdate(String reference, String gatewayStatus, String transactionId,
+                                String gatewayResponse, String channel, String currency,
+                                Integer fees, LocalDateTime paidAt) {
+        this(reference, gatewayStatus, transactionId, gatewayResponse, channel, currency, fees, paidAt, null);
+    }
+
+    /**
+     * Reads a transaction object as found in the {@code data} field of both charge webhooks
+     * and {@code /transaction/verify} responses.
+     *
+     * @throws DateTimeParseException if {@code paid_at} is present but not an ISO offset date-time
+     */
+    public static PaystackChargeUpdate fromTransactionData(Map<String, Object> data) {
+        Object fees = data.get("fees");
+        String paidAt = (String) data.get("paid_at");
+        return new PaystackChargeUpdate(
+                (String) data.get("reference"),
+                (String) data.get("status"),
+                String.valueOf(data.get("id")), // Numeric transaction id as string
+                (String) data.get("gateway_response"),
+                (String) data.get("channel"),
+                (String) data.get("currency"),
+                fees instanceof Number ? ((Number) fees).intValue() : null,
+                paidAt != null ? OffsetDateTime.parse(paidAt).toLocalDateTime() : null,
+                reusableAuthorization(data));
+    }
+
+    /**
+     * @return the {@code authorization.authorization_code} of a transaction object if the
+     * authorization is marked {@code reusable}, otherwise {@code null}
+     */
+    public static String reusableAuthorization(Map<String, Object> data) {
+        if (data.get("authorization") instanceof Map<?, ?> authorization
+                && Boolean.TRUE.equals(authorization.get("reusable"))
+                && authorization.get("authorization_code") instanceof String code) {
+            return code;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.zennest.payment.DTO;
+
+import java.util.Map;
+
+/**
+ * The fields of a Paystack transfer, from a bulk transfer response or a transfer webhook,
+ * that are applied to a payout.
+ *
+ * @param reference      transfer reference the payout was submitted with
+ * @param transferStatus Paystack transfer status, e.g. {@code pending}, {@code success}, {@code failed}, {@code reversed}
+ * @param transferCode   Paystack's transfer code, e.g. {@code TRF_...}
+ * @param reason         Paystack's explanation of a failure, or {@code null}
+ */
+public record PaystackTransferUpdate(String reference, String transferStatus, String transferCode, String reason) {
+
+    /**
+     * Reads a transfer object as found in the {@code data} field of transfer webhooks and in
+     * the {@code data} list of {@code /transfer/bulk} responses.
+     */
+    public static PaystackTransferUpdate fromTransferData(Map<String, Object> data) {
+        Object reason = data.get("gateway_response") != null ? data.get("gateway_response") : data.get("reason");
+        return new PaystackTransferUpdate(
+                (String) data.get("reference"),
+                (String) data.get("status"),
+                (String) data.get("transfer_code"),
+                reason != null ? reason.toString() : null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.zennest.payment.DTO;
+
+import com.zennest.payment.model.Payment;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The most recent payments of one property, newest first.
+ */
+public record PropertyPayments(UUID propertyId, List<Payment> payments) {
+}
@@ -0,0 +1,12 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Outcome of a reconciliation sweep over stale pending payments.
+ *
+ * @param checked        payments verified with Paystack
+ * @param settled        payments moved to a final status
+ * @param errors         verifications that failed and will be retried on a later sweep
+ * @param durationMillis wall-clock duration of the sweep
+ */
+public record ReconciliationResult(int checked, int settled, int errors, long durationMillis) {
+}
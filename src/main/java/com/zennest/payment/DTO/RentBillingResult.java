@@ -0,0 +1,15 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Outcome of a rent billing sweep.
+ *
+ * @param schedules      due schedules looked at
+ * @param succeeded      periods paid
+ * @param failed         charges that failed (retried with backoff, or the schedule suspended)
+ * @param pending        charges whose outcome is not known yet; looked at again later
+ * @param deferred       charges not sent because Paystack was unavailable; tried again later
+ * @param errors         schedules that could not be processed and are retried on a later sweep
+ * @param durationMillis wall-clock duration of the sweep
+ */
+public record RentBillingResult(int schedules, int succeeded, int failed, int pending, int deferred, int errors, long durationMillis) {
+}
@@ -0,0 +1,18 @@
+package com.zennest.payment.DTO;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Body of {@code POST /api/rent-schedules}.
+ *
+ * @param email      tenant email; must match the email of the tenant's card payments
+ * @param userId     tenant user id, if registered
+ * @param propertyId property the rent is for
+ * @param amount     monthly rent in the smallest currency unit
+ * @param currency   ISO currency code; NGN if omitted
+ * @param firstDueOn first due date; later periods fall due monthly from it
+ */
+public record RentScheduleRequest(String email, UUID userId, UUID propertyId, Integer amount,
+                                  String currency, LocalDate firstDueOn) {
+}
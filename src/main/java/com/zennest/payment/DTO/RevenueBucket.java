@@ -0,0 +1,12 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Revenue aggregated over one value of a {@link RevenueDimension}.
+ *
+ * @param key          the dimension value, e.g. {@code 2024-05-01}, {@code RENT}, {@code card} or {@code NGN}
+ * @param paymentCount number of successful payments
+ * @param amount       total amount in the smallest currency unit
+ * @param fees         total Paystack fees in the smallest currency unit
+ */
+public record RevenueBucket(String key, long paymentCount, long amount, long fees) {
+}
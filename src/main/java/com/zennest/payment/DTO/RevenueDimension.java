@@ -0,0 +1,11 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Dimension along which revenue rollups are grouped by the analytics API.
+ */
+public enum RevenueDimension {
+    DAY,
+    PAYMENT_TYPE,
+    CHANNEL,
+    CURRENCY
+}
@@ -0,0 +1,11 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Outcome of a rollup backfill run.
+ *
+ * @param days          number of day buckets rebuilt
+ * @param rollupRows    number of rollup rows written
+ * @param durationMillis wall-clock duration of the run
+ */
+public record RollupBackfillResult(int days, long rollupRows, long durationMillis) {
+}
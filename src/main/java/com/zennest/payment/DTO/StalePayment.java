@@ -0,0 +1,10 @@
+package com.zennest.payment.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of a pending payment needed to reconcile it and to page past it.
+ */
+public record StalePayment(UUID id, String reference, LocalDateTime createdAt) {
+}
@@ -0,0 +1,11 @@
+package com.zennest.payment.DTO;
+
+/**
+ * Outcome of the startup warm-up.
+ *
+ * @param iterations     rounds of synthetic traffic completed
+ * @param errors         rounds that failed
+ * @param durationMillis wall-clock duration of the warm-up
+ */
+public record WarmupResult(int iterations, int errors, long durationMillis) {
+}
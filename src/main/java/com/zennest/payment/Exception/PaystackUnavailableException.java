@@ -0,0 +1,11 @@
+package com.zennest.payment.Exception;
+
+/**
+ * Thrown when a Paystack call is not sent because {@code PaystackCircuitBreaker} is open, so
+ * Paystack has certainly not acted on it.
+ */
+public class PaystackUnavailableException extends IllegalStateException {
+    public PaystackUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 // File: src/main/java/dev/dolu/payment/Filters/ApiKeyFilter.java
 package com.zennest.payment.Filters;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,21 +10,76 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
+/**
+ * Authenticates service-to-service calls carrying {@code Authorization: Bearer <key>}.
+ * <p>
+ * Accepted keys are hashed with SHA-256 once at startup. On each request the presented
+ * key is hashed and compared against every configured digest with
+ * {@link MessageDigest#isEqual(byte[], byte[])}, so neither the comparison nor the number
+ * of keys checked leaks how close a guess was. Several keys can be active at once
+ * ({@code service.api-keys=booking:key1,property:key2}) to allow rotation without downtime;
+ * the legacy {@code service.password} stays valid as client {@code default}.
+ * <p>
+ * Each client gets one pre-built {@link Authentication} that is shared by all of its
+ * requests. It is a {@link ClientAuthentication} rather than a Spring token, which has
+ * setters ({@code setDetails}, {@code eraseCredentials}) that would leak changes from one
+ * request into every other request of the client. A {@code payments.auth.requests} counter
+ * tagged with the client id replaces the per-request INFO log.
+ */
 @Component
 public class ApiKeyFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiKeyFilter.class);
 
-    @Value("${service.password}")
-    private String apiKey;
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(ApiKeyFilter::newDigest);
+
+    private static final ThreadLocal<byte[]> KEY_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final ApiClient[] clients;
+    private final Counter missingHeaderCounter;
+    private final Counter invalidKeyCounter;
+
+    public ApiKeyFilter(@Value("${service.password}") String apiKey,
+                        @Value("${service.api-keys:}") String rotatingKeys,
+                        MeterRegistry meterRegistry) {
+        List<ApiClient> configured = new ArrayList<>();
+        addClient(configured, "default", apiKey, meterRegistry);
+        int index = 0;
+        for (String entry : rotatingKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator > 0) {
+                addClient(configured, trimmed.substring(0, separator), trimmed.substring(separator + 1), meterRegistry);
+            } else {
+                addClient(configured, "key-" + index, trimmed, meterRegistry);
+            }
+            index++;
+        }
+        this.clients = configured.toArray(new ApiClient[0]);
+        this.missingHeaderCounter = authCounter(meterRegistry, "unknown", "missing_header");
+        this.invalidKeyCounter = authCounter(meterRegistry, "unknown", "invalid_key");
+        logger.info("API key filter initialised with {} active key(s)", clients.length);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,15 +89,16 @@ public class ApiKeyFilter extends OncePerRequestFilter {
 
         String uri = request.getRequestURI();
 
-        // Bypass API key filter for all actuator endpoints and the payments health check
-        if (uri.startsWith("/actuator") || "/api/payments/health".equals(uri)) {
-            logger.info("Bypassing API key filter for endpoint: {}", uri);
+        // Bypass API key filter for all actuator endpoints and the payments health check.
+        // Paystack webhooks carry no API key; they are authenticated by their HMAC signature.
+        if (uri.startsWith("/actuator") || "/api/payments/health".equals(uri) || "/api/payments/webhook".equals(uri)) {
             filterChain.doFilter(request, response);
             return;
         }
 
         String header = request.getHeader("Authorization");
-        if (header == null || !header.startsWith("Bearer ")) {
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            missingHeaderCounter.increment();
             logger.warn("Unauthorized request – Missing or invalid Authorization header from IP: {}",
                     request.getRemoteAddr());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -48,8 +106,9 @@ public class ApiKeyFilter extends OncePerRequestFilter {
             return;
         }
 
-        String providedApiKey = header.substring(7);
-        if (!apiKey.equals(providedApiKey)) {
+        ApiClient client = match(header);
+        if (client == null) {
+            invalidKeyCounter.increment();
             logger.warn("Unauthorized request – Invalid API Key from IP: {}",
                     request.getRemoteAddr());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -57,13 +116,130 @@ public class ApiKeyFilter extends OncePerRequestFilter {
             return;
         }
 
-        logger.info("Successful authentication via API Key from IP: {}",
-                request.getRemoteAddr());
-
-        var auth = new UsernamePasswordAuthenticationToken(
-                "apiKeyUser", null, Collections.emptyList());
-        SecurityContextHolder.getContext().setAuthentication(auth);
+        client.requests.increment();
+        SecurityContextHolder.getContext().setAuthentication(client.authentication);
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Hashes the key in the given Bearer header and compares it against every configured
+     * digest without short-circuiting.
+     *
+     * @param header the full {@code Authorization} header value
+     * @return the matching client, or {@code null} if the key is not recognised
+     */
+    ApiClient match(String header) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        // Keys are short ASCII in practice; copy them into a reused buffer instead of
+        // allocating a substring and its UTF-8 encoding on every request
+        byte[] buffer = KEY_BUFFER.get();
+        int length = header.length() - BEARER_PREFIX.length();
+        boolean ascii = length <= buffer.length;
+        for (int i = 0; ascii && i < length; i++) {
+            char c = header.charAt(BEARER_PREFIX.length() + i);
+            ascii = c < 0x80;
+            buffer[i] = (byte) c;
+        }
+        if (ascii) {
+            digest.update(buffer, 0, length);
+        } else {
+            digest.update(header.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] presented = digest.digest();
+
+        ApiClient matched = null;
+        for (ApiClient client : clients) {
+            if (MessageDigest.isEqual(client.digest, presented) && matched == null) {
+                matched = client;
+            }
+        }
+        return matched;
+    }
+
+    private static void addClient(List<ApiClient> clients, String clientId, String key, MeterRegistry meterRegistry) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        byte[] digest = newDigest().digest(key.getBytes(StandardCharsets.UTF_8));
+        clients.add(new ApiClient(clientId, digest, new ClientAuthentication(clientId),
+                authCounter(meterRegistry, clientId, "success")));
+    }
+
+    private static Counter authCounter(MeterRegistry meterRegistry, String clientId, String outcome) {
+        return Counter.builder("payments.auth.requests")
+                .description("API key authentication attempts by client and outcome")
+                .tag("client", clientId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A configured API key: its digest, the shared authentication handed to the security
+     * context and the client's request counter.
+     */
+    record ApiClient(String clientId, byte[] digest, Authentication authentication, Counter requests) {
+    }
+
+    /**
+     * An authenticated API client with no credentials, details or authorities. It has no
+     * mutable state, so one instance can safely be shared across requests and threads.
+     */
+    static final class ClientAuthentication implements Authentication {
+
+        private final String clientId;
+
+        ClientAuthentication(String clientId) {
+            this.clientId = clientId;
+        }
+
+        @Override
+        public String getName() {
+            return clientId;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Object getCredentials() {
+            return null;
+        }
+
+        @Override
+        public Object getDetails() {
+            return null;
+        }
+
+        @Override
+        public Object getPrincipal() {
+            return clientId;
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return true;
+        }
+
+        @Override
+        public void setAuthenticated(boolean authenticated) {
+            throw new IllegalArgumentException("API client authentication is immutable");
+        }
+
+        @Override
+        public String toString() {
+            return "ClientAuthentication[" + clientId + "]";
+        }
+    }
+}
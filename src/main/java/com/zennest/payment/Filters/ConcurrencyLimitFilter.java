@@ -0,0 +1,102 @@
+package com.zennest.payment.Filters;
+
+import com.zennest.payment.ratelimit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * First filter in the security chain: sheds load with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header once the adaptive concurrency limit is reached, before any
+ * authentication or database work is done for the request.
+ * <p>
+ * The limit itself is maintained by {@link AdaptiveConcurrencyLimiter} from the latency of
+ * completed requests, and is exported as {@code payments.edge.concurrency.limit} alongside
+ * the current {@code payments.edge.concurrency.inflight}. Streaming and batch endpoints (CSV
+ * exports, the Paystack webhook, charge/payout/backfill runs) still take a slot but do not feed
+ * their latency back: they are slow by design, and counting them as congestion would shed
+ * ordinary checkouts.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter allowedCounter;
+    private final Counter shedCounter;
+
+    public ConcurrencyLimitFilter(@Value("${payments.edge.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${payments.edge.concurrency.initial-limit:50}") int initialLimit,
+                                  @Value("${payments.edge.concurrency.min-limit:5}") int minLimit,
+                                  @Value("${payments.edge.concurrency.max-limit:400}") int maxLimit,
+                                  @Value("${payments.edge.concurrency.latency-threshold:500ms}") Duration latencyThreshold,
+                                  @Value("${payments.edge.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${payments.edge.concurrency.backoff-window:1s}") Duration backoffWindow,
+                                  @Value("${payments.edge.retry-after-seconds:1}") int retryAfterSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                latencyThreshold.toNanos(), backoffRatio, backoffWindow.toNanos());
+        this.allowedCounter = EdgeMetrics.decisionCounter(meterRegistry, "concurrency", "all", "allowed");
+        this.shedCounter = EdgeMetrics.decisionCounter(meterRegistry, "concurrency", "all", "rejected");
+        Gauge.builder("payments.edge.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("payments.edge.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a concurrency slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || EdgeMetrics.isProbe(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            shedCounter.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.getWriter().write("Service overloaded, retry later");
+            return;
+        }
+        allowedCounter.increment();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (isLongRunning(request)) {
+                limiter.releaseWithoutFeedback();
+            } else {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static boolean isLongRunning(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/export/") || "/api/payments/webhook".equals(uri)) {
+            return true;
+        }
+        return "POST".equals(request.getMethod())
+                && ("/api/rent-schedules/charge".equals(uri)
+                || "/api/payouts/run".equals(uri)
+                || "/api/analytics/rollups/backfill".equals(uri));
+    }
+}
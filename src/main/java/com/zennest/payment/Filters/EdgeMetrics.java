@@ -0,0 +1,32 @@
+package com.zennest.payment.Filters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Helpers shared by the edge protection filters.
+ */
+final class EdgeMetrics {
+
+    private EdgeMetrics() {
+    }
+
+    static Counter decisionCounter(MeterRegistry meterRegistry, String limiter, String scope, String outcome) {
+        return Counter.builder("payments.edge.decisions")
+                .description("Admission decisions taken by the edge limiters")
+                .tag("limiter", limiter)
+                .tag("scope", scope)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Health and metrics probes are never limited, so an overloaded instance still reports
+     * its state instead of looking dead.
+     */
+    static boolean isProbe(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/actuator") || "/api/payments/health".equals(uri);
+    }
+}
@@ -0,0 +1,99 @@
+package com.zennest.payment.Filters;
+
+import com.zennest.payment.ratelimit.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Per-source-IP and per-API-client rate limiting, applied right after {@link ApiKeyFilter}.
+ * <p>
+ * Requests authenticated by an API key are counted against their client id, so one noisy
+ * service cannot starve the others. Unauthenticated requests, such as webhooks, are counted
+ * against their source address instead: service clients often share one (a proxy or load
+ * balancer), so they are never held to the per-IP limit. The source address is the TCP peer's,
+ * or, when the service is deployed behind a known proxy ({@code server.forward-headers-strategy=native}
+ * with {@code server.tomcat.remoteip.internal-proxies} pinned to that proxy), the client's as
+ * that proxy reports it in {@code X-Forwarded-For}. Rejected requests get
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header, and every decision is
+ * exported as {@code payments.edge.decisions}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final SlidingWindowRateLimiter ipLimiter;
+    private final SlidingWindowRateLimiter clientLimiter;
+    private final Counter ipAllowed;
+    private final Counter ipRejected;
+    private final Counter clientAllowed;
+    private final Counter clientRejected;
+
+    public RateLimitFilter(@Value("${payments.edge.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${payments.edge.rate-limit.window:1s}") Duration window,
+                           @Value("${payments.edge.rate-limit.ip-limit:100}") int ipLimit,
+                           @Value("${payments.edge.rate-limit.client-limit:500}") int clientLimit,
+                           @Value("${payments.edge.rate-limit.max-tracked-keys:100000}") int maxTrackedKeys,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ipLimiter = new SlidingWindowRateLimiter(window.toMillis(), ipLimit, maxTrackedKeys);
+        this.clientLimiter = new SlidingWindowRateLimiter(window.toMillis(), clientLimit, maxTrackedKeys);
+        this.ipAllowed = EdgeMetrics.decisionCounter(meterRegistry, "rate", "ip", "allowed");
+        this.ipRejected = EdgeMetrics.decisionCounter(meterRegistry, "rate", "ip", "rejected");
+        this.clientAllowed = EdgeMetrics.decisionCounter(meterRegistry, "rate", "client", "allowed");
+        this.clientRejected = EdgeMetrics.decisionCounter(meterRegistry, "rate", "client", "rejected");
+        Gauge.builder("payments.edge.rate.tracked.keys", ipLimiter, SlidingWindowRateLimiter::trackedKeys)
+                .description("Source addresses currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || EdgeMetrics.isProbe(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            if (!clientLimiter.tryAcquire(authentication.getName())) {
+                clientRejected.increment();
+                reject(response, clientLimiter);
+                return;
+            }
+            clientAllowed.increment();
+        } else {
+            // The servlet container resolves the client address behind trusted proxies
+            if (!ipLimiter.tryAcquire(request.getRemoteAddr())) {
+                ipRejected.increment();
+                reject(response, ipLimiter);
+                return;
+            }
+            ipAllowed.increment();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, SlidingWindowRateLimiter limiter) throws IOException {
+        long retryAfterSeconds = Math.max(1, (limiter.millisUntilNextWindow() + 999) / 1000);
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.getWriter().write("Rate limit exceeded");
+    }
+}
@@ -3,9 +3,17 @@ package com.zennest.payment.client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.client.ClientGraphQlResponse;
 import org.springframework.graphql.client.HttpGraphQlClient;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -61,8 +69,8 @@ public class UserGraphQLClient {
                     .retrieve("getUserByEmail")
                     .toEntity(Map.class)
                     .block();
-            logger.info("GraphQL response for email {}: {}", email, userMap);
             if (userMap == null || userMap.get("id") == null) {
+                logger.debug("No user returned by user service for email {}", email);
                 return null;
             }
             String idStr = (String) userMap.get("id");
@@ -72,4 +80,64 @@ public class UserGraphQLClient {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Looks up the user ids of several email addresses with one request to the user service:
+     * the {@code getUserByEmail} query is repeated under an alias per email.
+     *
+     * @return the ids found, by email; emails without a user (or all of them, if the call
+     * fails) are missing from the map
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<Map<String, UUID>> getUserUUIDsByEmail(Collection<String> emails) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(emails));
+        if (distinct.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        StringBuilder document = new StringBuilder("query getUsersByEmail(");
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            document.append(i == 0 ? "" : ", ").append("$e").append(i).append(": String!");
+            variables.put("e" + i, distinct.get(i));
+        }
+        document.append(") {");
+        for (int i = 0; i < distinct.size(); i++) {
+            document.append(" u").append(i).append(": getUserByEmail(email: $e").append(i).append(") { id }");
+        }
+        document.append(" }");
+
+        return graphQlClient.document(document.toString())
+                .variables(variables)
+                .execute()
+                .map(response -> {
+                    Map<String, Object> data = response.getData();
+                    Map<String, UUID> ids = new HashMap<>();
+                    for (int i = 0; data != null && i < distinct.size(); i++) {
+                        Map<String, Object> user = (Map<String, Object>) data.get("u" + i);
+                        if (user != null && user.get("id") != null) {
+                            ids.put(distinct.get(i), UUID.fromString((String) user.get("id")));
+                        }
+                    }
+                    return ids;
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error retrieving {} user(s) by email", distinct.size(), e);
+                    return Mono.just(Map.of());
+                });
+    }
+
+    /**
+     * Sends a trivial query to check that the user service is reachable and answering.
+     *
+     * @return whether a valid response arrived within {@code timeout}
+     */
+    public boolean ping(Duration timeout) {
+        try {
+            ClientGraphQlResponse response = graphQlClient.document("{ __typename }").execute().block(timeout);
+            return response != null && response.isValid();
+        } catch (Exception e) {
+            logger.debug("User service ping failed", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.RevenueBucket;
+import com.zennest.payment.DTO.RevenueDimension;
+import com.zennest.payment.DTO.RollupBackfillResult;
+import com.zennest.payment.model.PaymentRollup;
+import com.zennest.payment.service.PaymentAnalyticsService;
+import com.zennest.payment.service.PaymentRollupBackfillService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Revenue analytics for finance dashboards, served from the pre-computed
+ * {@code payment_rollups} instead of the payments table.
+ * <ul>
+ *   <li><code>GET /api/analytics/revenue</code> – totals grouped by day, payment type, channel or currency</li>
+ *   <li><code>GET /api/analytics/rollups</code> – the raw daily rollup rows</li>
+ *   <li><code>POST /api/analytics/rollups/backfill</code> – rebuilds the rollups of a day range</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final PaymentAnalyticsService analyticsService;
+    private final PaymentRollupBackfillService backfillService;
+
+    // The backfill service is only created when a backfill is first requested
+    public AnalyticsController(PaymentAnalyticsService analyticsService,
+                               @Lazy PaymentRollupBackfillService backfillService) {
+        this.analyticsService = analyticsService;
+        this.backfillService = backfillService;
+    }
+
+    @GetMapping("/revenue")
+    public List<RevenueBucket> revenue(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(defaultValue = "DAY") RevenueDimension groupBy) {
+        return analyticsService.getRevenue(from, to, groupBy);
+    }
+
+    @GetMapping("/rollups")
+    public List<PaymentRollup> rollups(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getRollups(from, to);
+    }
+
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<RollupBackfillResult> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(backfillService.backfill(from, to));
+    }
+}
@@ -0,0 +1,35 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.RevenueBucket;
+import com.zennest.payment.DTO.RevenueDimension;
+import com.zennest.payment.model.PaymentRollup;
+import com.zennest.payment.service.PaymentAnalyticsService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Controller
+public class AnalyticsGraphqlController {
+
+    private final PaymentAnalyticsService analyticsService;
+
+    public AnalyticsGraphqlController(PaymentAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    // Revenue totals for a day range, grouped along one dimension.
+    @QueryMapping
+    public List<RevenueBucket> revenue(@Argument LocalDate from, @Argument LocalDate to,
+                                       @Argument RevenueDimension groupBy) {
+        return analyticsService.getRevenue(from, to, groupBy);
+    }
+
+    // Raw daily rollup rows for a day range.
+    @QueryMapping
+    public List<PaymentRollup> revenueRollups(@Argument LocalDate from, @Argument LocalDate to) {
+        return analyticsService.getRollups(from, to);
+    }
+}
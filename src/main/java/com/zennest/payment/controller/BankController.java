@@ -3,6 +3,7 @@ package com.zennest.payment.controller;
 import com.zennest.payment.DTO.ResolveAccountRequest;
 import com.zennest.payment.DTO.ResolveAccountResponse;
 import com.zennest.payment.service.PaystackService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +14,8 @@ import org.springframework.web.bind.annotation.RestController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// Not on the payment hot path: created on first use to keep startup short
+@Lazy
 @RestController
 @RequestMapping("/api/payment")
 public class BankController {
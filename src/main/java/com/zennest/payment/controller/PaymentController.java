@@ -5,6 +5,7 @@ import com.zennest.payment.repo.PaymentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -58,6 +59,7 @@ public class PaymentController {
      * or a 500 status if an error occurs
      */
     @GetMapping("/count")
+    @Transactional(readOnly = true)
     public ResponseEntity<Long> countByStatus(@RequestParam PaymentStatus status) {
         try {
             long count = paymentRepository.countByPaymentStatus(status);
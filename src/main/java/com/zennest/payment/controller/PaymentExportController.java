@@ -0,0 +1,75 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.ExportFormat;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.service.PaymentExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming export of payments for reconciliation against Paystack settlement reports.
+ * <p>
+ * <code>GET /api/export/payments?from=2024-05-01&amp;to=2024-05-31&amp;status=SUCCESS&amp;format=CSV&amp;gzip=true</code>
+ * writes every payment created between {@code from} and {@code to} (inclusive days) straight
+ * to the response as it is read from the database, optionally gzip-compressed.
+ */
+// Not on the payment hot path: created on first use to keep startup short
+@Lazy
+@RestController
+@RequestMapping("/api/export")
+public class PaymentExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExportController.class);
+
+    private final PaymentExportService exportService;
+
+    public PaymentExportController(PaymentExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/payments")
+    public void exportPayments(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) PaymentStatus status,
+                               @RequestParam(required = false) PaymentType type,
+                               @RequestParam(defaultValue = "CSV") ExportFormat format,
+                               @RequestParam(defaultValue = "false") boolean gzip,
+                               HttpServletResponse response) throws IOException {
+        if (to.isBefore(from)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "'to' must not be before 'from'");
+            return;
+        }
+        String filename = "payments-" + from + "-" + to + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        OutputStream out = response.getOutputStream();
+        try {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 65536);
+                exportService.export(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), status, type, format, compressed);
+                compressed.finish();
+            } else {
+                exportService.export(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), status, type, format, out);
+            }
+        } catch (RuntimeException e) {
+            // the status line is already sent once streaming starts; the truncated body signals the failure
+            logger.error("Payment export from {} to {} failed", from, to, e);
+            throw e;
+        }
+    }
+}
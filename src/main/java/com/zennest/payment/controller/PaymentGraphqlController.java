@@ -1,59 +1,152 @@
 package com.zennest.payment.controller;
 
+import com.zennest.payment.DTO.MemberDonationResponse;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.User;
+import com.zennest.payment.DTO.VerificationResponseDTO;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.id.PaymentReferences;
 import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentRequest;
 import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
 import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.routing.RecentWrites;
+import com.zennest.payment.service.PaymentStatusService;
+import com.zennest.payment.service.PaystackService;
+import org.dataloader.DataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class PaymentGraphqlController {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentGraphqlController.class);
 
+    // Newest first, with the id breaking ties so that the capped lists are stable
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     private final PaymentRepository paymentRepository;
+    private final PaystackService paystackService;
+    private final PaymentStatusService paymentStatusService;
+    private final RecentWrites recentWrites;
+    private final UserGraphQLClient userGraphQLClient;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxResults;
 
-    public PaymentGraphqlController(PaymentRepository paymentRepository) {
+    public PaymentGraphqlController(PaymentRepository paymentRepository, PaystackService paystackService,
+                                    PaymentStatusService paymentStatusService, RecentWrites recentWrites, UserGraphQLClient userGraphQLClient,
+                                    PlatformTransactionManager transactionManager, BatchLoaderRegistry batchLoaders,
+                                    @Value("${payments.graphql.max-results:500}") int maxResults) {
         this.paymentRepository = paymentRepository;
+        this.paystackService = paystackService;
+        this.paymentStatusService = paymentStatusService;
+        this.recentWrites = recentWrites;
+        this.userGraphQLClient = userGraphQLClient;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxResults = maxResults;
+
+        // Lookups by id or reference within one request (e.g. aliased root fields) are
+        // collected and loaded with one query per kind
+        batchLoaders.<UUID, Payment>forName("paymentById")
+                .registerMappedBatchLoader((ids, env) -> Mono.fromSupplier(() -> loadByIds(ids)));
+        batchLoaders.<String, Payment>forName("paymentByReference")
+                .registerMappedBatchLoader((references, env) -> Mono.fromSupplier(() -> loadByReferences(references)));
+    }
+
+    // The schema exposes the entity's paymentStatus as "status".
+    @SchemaMapping(typeName = "Payment", field = "status")
+    public PaymentStatus status(Payment payment) {
+        return payment.getPaymentStatus();
+    }
+
+    // The payer, for all payments of a response at once. Payments without a stored user id
+    // are looked up by email with a single request to the user service.
+    @BatchMapping(typeName = "Payment", field = "user")
+    public Mono<Map<Payment, User>> user(List<Payment> payments) {
+        List<String> unknownEmails = payments.stream()
+                .filter(payment -> payment.getUserId() == null)
+                .map(Payment::getEmail)
+                .toList();
+        return userGraphQLClient.getUserUUIDsByEmail(unknownEmails).map(idsByEmail -> {
+            Map<Payment, User> users = new HashMap<>();
+            for (Payment payment : payments) {
+                UUID userId = payment.getUserId() != null ? payment.getUserId() : idsByEmail.get(payment.getEmail());
+                if (userId != null) {
+                    users.put(payment, new User(userId, payment.getEmail()));
+                }
+            }
+            return users;
+        });
     }
 
-    // Query to retrieve a payment by its unique ID.
+    // Queries run in read-only transactions, which are served by a read replica when one is
+    // configured. Lookups of a payment this instance just wrote go to the primary instead.
+
+    // Query to retrieve a payment by its unique ID, including archived payments.
     @QueryMapping
-    public Payment getPaymentById(@Argument UUID id) {
-        return paymentRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found with id: " + id));
+    public CompletableFuture<Payment> getPaymentById(@Argument UUID id, DataLoader<UUID, Payment> paymentById) {
+        return paymentById.load(id).thenApply(payment -> {
+            if (payment == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found with id: " + id);
+            }
+            return payment;
+        });
     }
 
-    // Query to retrieve a payment using its Paystack reference.
+    // Query to retrieve a payment using its Paystack reference, including archived payments.
     @QueryMapping
-    public Payment getPaymentByReference(@Argument String reference) {
-        return paymentRepository.findByReference(reference)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found with reference: " + reference));
+    public CompletableFuture<Payment> getPaymentByReference(@Argument String reference,
+                                                            DataLoader<String, Payment> paymentByReference) {
+        return paymentByReference.load(reference).thenApply(payment -> {
+            if (payment == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found with reference: " + reference);
+            }
+            return payment;
+        });
     }
 
-    // Query to list all payments.
+    // Query to list the newest payments, at most payments.graphql.max-results of them; the paged
+    // queries return the rest.
     @QueryMapping
+    @Transactional(readOnly = true)
     public List<Payment> getAllPayments() {
-        List<Payment> payments = paymentRepository.findAll();
+        List<Payment> payments = paymentRepository.findAll(PageRequest.of(0, maxResults, NEWEST_FIRST)).getContent();
         if (payments.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No payments found.");
         }
         return payments;
     }
 
-    // Query to list payments filtered by status.
+    // Query to list the newest payments with a status, at most payments.graphql.max-results of them.
     @QueryMapping
+    @Transactional(readOnly = true)
     public List<Payment> getPaymentsByStatus(@Argument PaymentStatus status) {
-        List<Payment> payments = paymentRepository.findByPaymentStatus(status);
+        List<Payment> payments = paymentRepository.findByPaymentStatus(status, PageRequest.of(0, maxResults, NEWEST_FIRST));
         if (payments.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No payments found with status: " + status);
         }
@@ -62,7 +155,79 @@ public class PaymentGraphqlController {
 
     // Query to count the payments with a specific status.
     @QueryMapping
+    @Transactional(readOnly = true)
     public int countPaymentsByStatus(@Argument PaymentStatus status) {
         return (int) paymentRepository.countByPaymentStatus(status);
     }
-}
\ No newline at end of file
+
+    // Starts a checkout: records a pending payment under a locally generated reference and
+    // initializes the Paystack transaction with it. The payment is settled later by the webhook;
+    // if initialization fails it is settled as failed here, through the same transition table
+    // and outbox as any other outcome.
+    @MutationMapping
+    public MemberDonationResponse createMemberDonation(@Argument PaymentRequest request) {
+        Payment pending = new Payment(request.getEmail(), request.getAmount(), PaymentStatus.PENDING, PaymentType.MEMBERSHIP);
+        pending.setReference(PaymentReferences.next());
+        Payment payment = paymentRepository.save(pending);
+
+        Map<String, Object> data = null;
+        String failure = "Initialization failed";
+        try {
+            Map<String, Object> response = paystackService.initializePayment(request, payment.getReference());
+            if (Boolean.TRUE.equals(response.get("status"))) {
+                data = (Map<String, Object>) response.get("data");
+            } else {
+                logger.warn("Paystack rejected initialization for payment {}: {}", payment.getId(), response.get("message"));
+                failure = String.valueOf(response.get("message"));
+            }
+        } catch (Exception e) {
+            logger.error("Error initializing Paystack transaction for payment {}", payment.getId(), e);
+        }
+
+        if (data == null || data.get("reference") == null) {
+            paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate(payment.getReference(), "failed", null,
+                    failure, null, payment.getCurrency(), null, null));
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unable to initialize payment with Paystack");
+        }
+
+        if (!payment.getReference().equals(data.get("reference"))) {
+            logger.warn("Paystack assigned reference {} instead of {} for payment {}",
+                    data.get("reference"), payment.getReference(), payment.getId());
+            payment.setReference((String) data.get("reference"));
+            paymentRepository.save(payment);
+        }
+        return new MemberDonationResponse(payment.getId(), (String) data.get("authorization_url"));
+    }
+
+    // Asks Paystack for the outcome of a transaction, e.g. when the payer returns from the payment page.
+    @MutationMapping
+    public VerificationResponseDTO verifyDonationPayment(@Argument String reference) {
+        try {
+            Map<String, Object> result = paystackService.verifyPayment(reference);
+            boolean verified = Boolean.TRUE.equals(result.get("status"));
+            return new VerificationResponseDTO(verified ? "SUCCESS" : "FAILED", (String) result.get("message"));
+        } catch (Exception e) {
+            logger.error("Error verifying payment {}", reference, e);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unable to verify payment with Paystack");
+        }
+    }
+
+    private Map<UUID, Payment> loadByIds(Set<UUID> ids) {
+        String recent = ids.stream().map(UUID::toString).filter(recentWrites::isRecent).findFirst().orElse(null);
+        return recentWrites.readYourWrites(recent, () -> readOnlyTransaction.execute(status -> {
+            Map<UUID, Payment> payments = new HashMap<>();
+            paymentRepository.findAllByIdIncludingArchive(ids).forEach(payment -> payments.put(payment.getId(), payment));
+            return payments;
+        }));
+    }
+
+    private Map<String, Payment> loadByReferences(Set<String> references) {
+        String recent = references.stream().filter(recentWrites::isRecent).findFirst().orElse(null);
+        return recentWrites.readYourWrites(recent, () -> readOnlyTransaction.execute(status -> {
+            Map<String, Payment> payments = new HashMap<>();
+            paymentRepository.findAllByReferenceIncludingArchive(references)
+                    .forEach(payment -> payments.putIfAbsent(payment.getReference(), payment));
+            return payments;
+        }));
+    }
+}
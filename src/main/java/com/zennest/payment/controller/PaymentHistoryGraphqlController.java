@@ -0,0 +1,45 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.PaymentPage;
+import com.zennest.payment.DTO.PropertyPayments;
+import com.zennest.payment.service.PaymentHistoryService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+import java.util.UUID;
+
+@Controller
+public class PaymentHistoryGraphqlController {
+
+    private final PaymentHistoryService historyService;
+
+    public PaymentHistoryGraphqlController(PaymentHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    // A user's payments, newest first; pass the returned nextCursor as "after" for the next page.
+    @QueryMapping
+    public PaymentPage paymentsByUser(@Argument UUID userId, @Argument int first, @Argument String after) {
+        return historyService.byUser(userId, first, after);
+    }
+
+    // A property's payments, newest first.
+    @QueryMapping
+    public PaymentPage paymentsByProperty(@Argument UUID propertyId, @Argument int first, @Argument String after) {
+        return historyService.byProperty(propertyId, first, after);
+    }
+
+    // Payments made with an email address, newest first.
+    @QueryMapping
+    public PaymentPage paymentsByEmail(@Argument String email, @Argument int first, @Argument String after) {
+        return historyService.byEmail(email, first, after);
+    }
+
+    // The latest payments of many properties at once (e.g. a listing page), loaded with one query.
+    @QueryMapping
+    public List<PropertyPayments> paymentsByPropertyIds(@Argument List<UUID> propertyIds, @Argument int limitPerProperty) {
+        return historyService.latestByProperties(propertyIds, limitPerProperty);
+    }
+}
@@ -1,23 +1,33 @@
 package com.zennest.payment.controller;
 
-import com.zennest.payment.Config.PaystackConfig;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.PaystackTransferUpdate;
+import com.zennest.payment.logging.LogMarkers;
 import com.zennest.payment.metrics.PaymentMetricService;
 import com.zennest.payment.model.Payment;
-import com.zennest.payment.model.PaymentStatus;
-import com.zennest.payment.model.PaystackConfirmationStatus;
+import com.zennest.payment.model.Payout;
 import com.zennest.payment.model.Status;
-import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.service.PaymentStatusService;
+import com.zennest.payment.service.PaystackSignatureVerifier;
+import com.zennest.payment.service.PayoutService;
+import com.zennest.payment.webhook.WebhookLanes;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Controller that handles Paystack webhook notifications for payment status updates.
@@ -27,12 +37,22 @@ import java.util.Optional;
  *   <li>Receives webhook notifications from Paystack payment gateway</li>
  *   <li>Verifies the authenticity of each webhook using HMAC SHA512 signatures</li>
  *   <li>Processes payment status updates (success, failed, abandoned)</li>
- *   <li>Updates the corresponding payment records in the database</li>
+ *   <li>Processes transfer outcomes of landlord payouts (transfer.success, transfer.failed, transfer.reversed)</li>
+ *   <li>Updates the corresponding payment records in the database, on the
+ *       {@link WebhookLanes} lane of the payment's reference</li>
  *   <li>Collects metrics on webhook processing for monitoring</li>
  * </ul>
  * <p>
  * The webhook endpoint is secured by validating the signature provided in the
- * x-paystack-signature header against a computed signature using the Paystack secret key.
+ * x-paystack-signature header against the HMAC of the raw request body, computed with the
+ * Paystack secret key before the body is parsed.
+ * <p>
+ * A verified webhook is acknowledged only once its update has been applied on the lane, which
+ * keeps updates for the same reference in arrival order. Paystack does not resend a webhook it
+ * got a {@code 200} for, so anything short of an applied update is answered with an error and
+ * delivered again later: {@code 503} with a {@code Retry-After} header when the lane is full, or
+ * the update is not applied within {@code payments.webhook.apply-timeout}; {@code 500} when
+ * applying it failed.
  */
 @RestController
 @RequestMapping("/api/payments")
@@ -44,20 +64,22 @@ public class PaymentWebhookController {
     private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookController.class);
 
     /**
-     * Repository for accessing and manipulating Payment entities in the database.
-     * Used to find and update payment records based on webhook data.
+     * Service applying the webhook outcome to the payment, its rollups and the outbox.
+     */
+    private final PaymentStatusService paymentStatusService;
+
+    /**
+     * Service applying transfer outcomes to payouts.
      */
-    private final PaymentRepository paymentRepository;
+    private final PayoutService payoutService;
 
     /**
-     * Configuration containing Paystack API credentials and settings.
-     * Provides the secret key used for webhook signature verification.
+     * Verifies the webhook signature against the raw request body.
      */
-    private final PaystackConfig paystackConfig;
+    private final PaystackSignatureVerifier signatureVerifier;
 
     /**
-     * JSON object mapper for serializing and deserializing webhook payload data.
-     * Used to convert the webhook payload to a JSON string for signature verification.
+     * JSON object mapper used to parse the webhook payload once its signature is verified.
      */
     private final ObjectMapper objectMapper;
 
@@ -67,22 +89,49 @@ public class PaymentWebhookController {
      */
     private final PaymentMetricService metricService;
 
+    /**
+     * Lanes applying the updates off the request thread, in order per reference.
+     */
+    private final WebhookLanes webhookLanes;
+
+    /**
+     * Seconds sent in the Retry-After header when a lane is full.
+     */
+    private final int retryAfterSeconds;
+
+    /**
+     * How long a webhook waits for its update to be applied before it is answered with 503.
+     */
+    private final Duration applyTimeout;
+
     /**
      * Constructs a new PaymentWebhookController with the required dependencies.
      *
-     * @param paymentRepository repository for accessing and updating payment records
-     * @param paystackConfig configuration containing Paystack API credentials and settings
-     * @param objectMapper JSON object mapper for serializing and deserializing webhook payload data
+     * @param paymentStatusService service applying charge outcomes to payments
+     * @param payoutService service applying transfer outcomes to payouts
+     * @param signatureVerifier verifier for the x-paystack-signature header
+     * @param objectMapper JSON object mapper for parsing the webhook payload
      * @param metricService service for recording metrics related to payment processing
+     * @param webhookLanes lanes the updates are applied on
+     * @param retryAfterSeconds seconds the sender should wait before retrying a refused webhook
+     * @param applyTimeout how long to wait for the update to be applied before answering 503
      */
-    public PaymentWebhookController(PaymentRepository paymentRepository,
-                                    PaystackConfig paystackConfig,
+    public PaymentWebhookController(PaymentStatusService paymentStatusService,
+                                    PayoutService payoutService,
+                                    PaystackSignatureVerifier signatureVerifier,
                                     ObjectMapper objectMapper,
-                                    PaymentMetricService metricService) {
-        this.paymentRepository = paymentRepository;
-        this.paystackConfig = paystackConfig;
+                                    PaymentMetricService metricService,
+                                    WebhookLanes webhookLanes,
+                                    @Value("${payments.edge.retry-after-seconds:1}") int retryAfterSeconds,
+                                    @Value("${payments.webhook.apply-timeout:10s}") Duration applyTimeout) {
+        this.paymentStatusService = paymentStatusService;
+        this.payoutService = payoutService;
+        this.signatureVerifier = signatureVerifier;
         this.objectMapper = objectMapper;
         this.metricService = metricService;
+        this.webhookLanes = webhookLanes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.applyTimeout = applyTimeout;
     }
 
     /**
@@ -93,40 +142,40 @@ public class PaymentWebhookController {
      *   <li>Records metrics about webhook processing</li>
      *   <li>Verifies the webhook signature to ensure it came from Paystack</li>
      *   <li>Extracts payment details from the webhook payload</li>
-     *   <li>Updates the corresponding payment record in the database</li>
-     *   <li>Records processing time and returns a success response</li>
+     *   <li>Queues the update of the corresponding payment record and waits for it to be applied</li>
+     *   <li>Records processing time, including time queued, and returns a success response</li>
      * </ol>
      * <p>
      * If signature verification fails or the payload is invalid, appropriate error
-     * responses are returned and metrics are updated to track these failures.
+     * responses are returned and metrics are updated to track these failures. If the
+     * update cannot be queued or is not applied in time, {@code 503} is returned, and if applying
+     * it fails, {@code 500}, so that Paystack retries.
      *
      * @param signature the HMAC SHA512 signature from the x-paystack-signature header
-     * @param payload the webhook payload containing payment details
+     * @param rawBody the webhook payload exactly as sent by Paystack
      * @return a ResponseEntity with appropriate status code and message
      */
     @PostMapping("/webhook")
     public ResponseEntity<?> handleWebhook(@RequestHeader("x-paystack-signature") String signature,
-                                           @RequestBody Map<String, Object> payload) {
+                                           @RequestBody byte[] rawBody) {
         // Start timer and increment webhook counter
         long startTime = System.currentTimeMillis();
         metricService.incrementWebhookCounter();
 
-        // Convert payload to JSON string
-        String rawBody;
-        try {
-            rawBody = objectMapper.writeValueAsString(payload);
-        } catch (Exception e) {
-            logger.error("Error converting payload to JSON", e);
+        // Paystack signs the body it sent, so verify before parsing rather than re-serializing
+        if (!signatureVerifier.isValid(rawBody, signature)) {
+            logger.error("Invalid webhook signature received: {}", signature);
             metricService.incrementWebhookErrorCounter();
-            return ResponseEntity.status(500).body("Error processing webhook payload");
+            return ResponseEntity.status(400).body("Invalid signature");
         }
 
-        // Compute HMAC SHA512 of the raw payload using the Paystack secret key
-        String computedSignature = computeHmacSHA512(rawBody, paystackConfig.getSecretKey());
-        if (!computedSignature.equals(signature)) {
-            logger.error("Invalid webhook signature: computed {} but received {}", computedSignature, signature);
+        Map<String, Object> payload;
+        try {
+            payload = objectMapper.readValue(rawBody, Map.class);
+        } catch (Exception e) {
+            logger.error("Error parsing webhook payload", e);
             metricService.incrementWebhookErrorCounter();
-            return ResponseEntity.status(400).body("Invalid signature");
+            return ResponseEntity.badRequest().body("Invalid payload");
         }
 
         // Process the webhook payload after signature verification
@@ -137,9 +186,17 @@ public class PaymentWebhookController {
             return ResponseEntity.badRequest().body("Invalid payload: no data field");
         }
 
+        // Transfer events settle payouts; they carry the payout reference
+        Object event = payload.get("event");
+        if (event instanceof String eventName && eventName.startsWith("transfer.")) {
+            PaystackTransferUpdate transfer = PaystackTransferUpdate.fromTransferData(data);
+            logger.info(LogMarkers.SAMPLED, "Received {} webhook for payout: {}", eventName, transfer.reference());
+            return queue(transfer.reference(), () -> applyTransfer(transfer, startTime));
+        }
+
         String reference = (String) data.get("reference");
         String statusStr = (String) data.get("status");
-        logger.info("Received webhook for reference: {} with status: {}", reference, statusStr);
+        logger.info(LogMarkers.SAMPLED, "Received webhook for reference: {} with status: {}", reference, statusStr);
 
         // Extract additional details from the payload
         String paystackTransactionId = String.valueOf(data.get("id")); // Numeric transaction id as string
@@ -148,70 +205,83 @@ public class PaymentWebhookController {
         String currency = (String) data.get("currency");
         Integer fees = data.get("fees") instanceof Number ? ((Number) data.get("fees")).intValue() : null;
         String paidAtStr = (String) data.get("paid_at");
-
-        // Retrieve the corresponding Payment record
-        Optional<Payment> optionalPayment = paymentRepository.findByReference(reference);
-        if (optionalPayment.isPresent()) {
-            Payment payment = optionalPayment.get();
-            if ("success".equalsIgnoreCase(statusStr)) {
-                payment.setPaymentStatus(PaymentStatus.SUCCESS);
-                payment.setPaystackConfirmation(PaystackConfirmationStatus.CONFIRMED);
-            } else if ("failed".equalsIgnoreCase(statusStr) || "abandoned".equalsIgnoreCase(statusStr)) {
-                payment.setPaymentStatus(PaymentStatus.FAILED);
-                payment.setPaystackConfirmation(PaystackConfirmationStatus.FAILED);
+        LocalDateTime paidAt = null;
+        if (paidAtStr != null) {
+            try {
+                paidAt = OffsetDateTime.parse(paidAtStr).toLocalDateTime();
+            } catch (Exception e) {
+                logger.error("Error parsing paid_at: {}", paidAtStr, e);
             }
-            payment.setPaystackTransactionId(paystackTransactionId);
-            payment.setGatewayResponse(gatewayResponse);
-            payment.setChannel(channel);
-            payment.setCurrency(currency);
-            payment.setFees(fees);
-            if (paidAtStr != null) {
-                try {
-                    payment.setPaidAt(java.time.OffsetDateTime.parse(paidAtStr).toLocalDateTime());
-                } catch (Exception e) {
-                    logger.error("Error parsing paid_at: {}", paidAtStr, e);
-                }
+        }
+
+        PaystackChargeUpdate update = new PaystackChargeUpdate(reference, statusStr, paystackTransactionId,
+                gatewayResponse, channel, currency, fees, paidAt, PaystackChargeUpdate.reusableAuthorization(data));
+        return queue(reference, () -> apply(update, startTime));
+    }
+
+    // Applies the update on the reference's lane and acknowledges it only once applied; otherwise
+    // asks Paystack to deliver it again. Updates are idempotent, so a redelivery of an update that
+    // was applied after its timeout is harmless.
+    private ResponseEntity<?> queue(String reference, Runnable update) {
+        try {
+            webhookLanes.submit(reference, update).get(applyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return ResponseEntity.ok("Webhook received");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                logger.warn("Webhook queue full, asking Paystack to retry reference: {}", reference);
+                return retryLater("Webhook queue full, retry later");
             }
-            paymentRepository.save(payment);
-            logger.info("Updated payment {} with new status: {} and additional details", reference, payment.getPaymentStatus());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Webhook processing failed");
+        } catch (TimeoutException | CancellationException e) {
+            logger.warn("Webhook for reference {} not applied within {}, asking Paystack to retry", reference, applyTimeout);
+            metricService.incrementWebhookErrorCounter();
+            return retryLater("Webhook not processed, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return retryLater("Webhook not processed, retry later");
+        }
+    }
+
+    private ResponseEntity<?> retryLater(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(retryAfterSeconds))
+                .body(message);
+    }
+
+    // Runs on the reference's lane: updates the payment, its rollups and its outbox event in one transaction
+    private void apply(PaystackChargeUpdate update, long startTime) {
+        Optional<Payment> updated;
+        try {
+            updated = paymentStatusService.applyChargeUpdate(update);
+        } catch (RuntimeException e) {
+            metricService.incrementWebhookErrorCounter();
+            throw e;
+        }
+        if (updated.isPresent()) {
+            logger.info(LogMarkers.SAMPLED, "Updated payment {} with new status: {} and additional details", update.reference(), updated.get().getPaymentStatus());
         } else {
-            logger.warn("No payment found with reference: {}", reference);
+            logger.warn("No payment found with reference: {}", update.reference());
         }
 
         long duration = System.currentTimeMillis() - startTime;
         metricService.recordWebhookProcessingTime(duration);
-        return ResponseEntity.ok("Webhook processed");
     }
 
-    /**
-     * Computes the HMAC SHA512 signature for webhook verification.
-     * <p>
-     * This method:
-     * <ol>
-     *   <li>Creates an HMAC SHA512 instance</li>
-     *   <li>Initializes it with the Paystack secret key</li>
-     *   <li>Computes the hash of the webhook payload</li>
-     *   <li>Returns the hash as a hexadecimal string</li>
-     * </ol>
-     * <p>
-     * The computed signature is compared with the signature provided in the
-     * webhook request header to verify the authenticity of the webhook.
-     *
-     * @param data the webhook payload as a JSON string
-     * @param secret the Paystack secret key used for signature verification
-     * @return the computed HMAC SHA512 signature as a hexadecimal string
-     * @throws RuntimeException if an error occurs during signature computation
-     */
-    private String computeHmacSHA512(String data, String secret) {
+    // Runs on the reference's lane: updates the payout, releasing its payments if the transfer failed
+    private void applyTransfer(PaystackTransferUpdate transfer, long startTime) {
+        Optional<Payout> updated;
         try {
-            Mac mac = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            mac.init(secretKeySpec);
-            byte[] hash = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Hex.encodeHexString(hash);
-        } catch (Exception e) {
-            logger.error("Error computing HMAC SHA512", e);
-            throw new RuntimeException("Error computing HMAC", e);
+            updated = payoutService.applyTransferUpdate(transfer);
+        } catch (RuntimeException e) {
+            metricService.incrementWebhookErrorCounter();
+            throw e;
         }
+        if (updated.isPresent()) {
+            logger.info(LogMarkers.SAMPLED, "Updated payout {} with new status: {}", transfer.reference(), updated.get().getStatus());
+        } else {
+            logger.warn("No payout found with reference: {}", transfer.reference());
+        }
+
+        metricService.recordWebhookProcessingTime(System.currentTimeMillis() - startTime);
     }
 }
@@ -0,0 +1,49 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.PayoutRecipientRequest;
+import com.zennest.payment.DTO.PayoutRunResult;
+import com.zennest.payment.model.PayoutRecipient;
+import com.zennest.payment.service.PayoutService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+/**
+ * Landlord payouts.
+ * <ul>
+ *   <li><code>PUT /api/payouts/recipients/{propertyId}</code> – sets the transfer recipient a property's payments are paid out to</li>
+ *   <li><code>POST /api/payouts/run</code> – runs a payout now, outside the monthly schedule</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/payouts")
+public class PayoutController {
+
+    private final PayoutService payoutService;
+
+    public PayoutController(PayoutService payoutService) {
+        this.payoutService = payoutService;
+    }
+
+    @PutMapping("/recipients/{propertyId}")
+    public PayoutRecipient registerRecipient(@PathVariable UUID propertyId, @RequestBody PayoutRecipientRequest request) {
+        try {
+            return payoutService.registerRecipient(propertyId, request.recipientCode());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<PayoutRunResult> run() {
+        return ResponseEntity.ok(payoutService.runPayouts());
+    }
+}
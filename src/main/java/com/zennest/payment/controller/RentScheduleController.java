@@ -0,0 +1,57 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.DTO.RentBillingResult;
+import com.zennest.payment.DTO.RentScheduleRequest;
+import com.zennest.payment.model.RentSchedule;
+import com.zennest.payment.service.RentBillingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Recurring rent.
+ * <ul>
+ *   <li><code>POST /api/rent-schedules</code> – enrolls a tenant's monthly rent for a property</li>
+ *   <li><code>DELETE /api/rent-schedules/{id}</code> – cancels a schedule</li>
+ *   <li><code>POST /api/rent-schedules/charge</code> – charges due schedules now, outside the regular sweep</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/rent-schedules")
+public class RentScheduleController {
+
+    private final RentBillingService rentBillingService;
+
+    public RentScheduleController(RentBillingService rentBillingService) {
+        this.rentBillingService = rentBillingService;
+    }
+
+    @PostMapping
+    public ResponseEntity<RentSchedule> enroll(@RequestBody RentScheduleRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(rentBillingService.enroll(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public RentSchedule cancel(@PathVariable UUID id) {
+        return rentBillingService.cancel(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rent schedule not found"));
+    }
+
+    @PostMapping("/charge")
+    public ResponseEntity<RentBillingResult> charge() {
+        return ResponseEntity.ok(rentBillingService.chargeDueAt(LocalDateTime.now()));
+    }
+}
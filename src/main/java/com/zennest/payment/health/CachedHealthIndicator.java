@@ -0,0 +1,66 @@
+package com.zennest.payment.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Health indicator that answers from the result of its last check. Checks are run in the
+ * background by {@link HealthRefresher}, so a probe or scrape only reads a field and never
+ * waits on a database connection or a remote call.
+ * <p>
+ * A result older than the refresher's maximum age (the refresher is stuck, or a check hangs)
+ * is reported as {@code DOWN}.
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+
+    private volatile Health cached = Health.unknown().withDetail("reason", "Not checked yet").build();
+    private volatile long checkedAtNanos = System.nanoTime();
+    private volatile Duration maxAge = Duration.ofMinutes(1);
+
+    /**
+     * Runs the actual check.
+     *
+     * @return the current health, or {@code null} to keep the previous result
+     * @throws Exception if the check fails, which is reported as {@code DOWN}
+     */
+    protected abstract Health check() throws Exception;
+
+    @Override
+    public Health health() {
+        Health health = cached;
+        if (System.nanoTime() - checkedAtNanos > maxAge.toNanos()) {
+            return Health.down()
+                    .withDetail("reason", "Last check is older than " + maxAge)
+                    .withDetails(health.getDetails())
+                    .build();
+        }
+        return health;
+    }
+
+    void refresh() {
+        Health health;
+        try {
+            health = check();
+        } catch (Exception e) {
+            health = Health.down(e).build();
+        }
+        if (health == null) {
+            health = cached;
+        } else {
+            health = Health.status(health.getStatus())
+                    .withDetails(health.getDetails())
+                    .withDetail("checkedAt", Instant.now().toString())
+                    .build();
+        }
+        cached = health;
+        checkedAtNanos = System.nanoTime();
+    }
+
+    void expireAfter(Duration maxAge) {
+        this.maxAge = maxAge;
+        this.checkedAtNanos = System.nanoTime();
+    }
+}
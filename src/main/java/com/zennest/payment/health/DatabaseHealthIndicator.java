@@ -0,0 +1,64 @@
+package com.zennest.payment.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Validates a connection to the primary database. Replaces Spring Boot's {@code db} indicator
+ * (same bean name), which queried the database on every probe.
+ * <p>
+ * When requests are already waiting for a pooled connection the check is skipped and the
+ * previous result kept: the database is evidently serving queries, and the check should not
+ * take a connection ahead of them.
+ */
+@Component("dbHealthIndicator")
+public class DatabaseHealthIndicator extends CachedHealthIndicator {
+
+    private final DataSource dataSource;
+    private final int timeoutSeconds;
+
+    public DatabaseHealthIndicator(DataSource dataSource,
+                                   @Value("${payments.health.db.timeout:2s}") Duration timeout) {
+        this.dataSource = dataSource;
+        this.timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+    }
+
+    @Override
+    protected Health check() throws SQLException {
+        HikariPoolMXBean pool = pool();
+        if (pool != null && pool.getThreadsAwaitingConnection() > 0) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(timeoutSeconds);
+            Health.Builder health = valid ? Health.up() : Health.down().withDetail("reason", "Connection is not valid");
+            health.withDetail("database", connection.getMetaData().getDatabaseProductName())
+                    .withDetail("validationMillis", Duration.ofNanos(System.nanoTime() - start).toMillis());
+            if (pool != null) {
+                health.withDetail("activeConnections", pool.getActiveConnections())
+                        .withDetail("idleConnections", pool.getIdleConnections())
+                        .withDetail("totalConnections", pool.getTotalConnections());
+            }
+            return health.build();
+        }
+    }
+
+    private HikariPoolMXBean pool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean()
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.zennest.payment.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link CachedHealthIndicator} checks one after another on a dedicated thread,
+ * every {@code payments.health.refresh-interval}. It does not use the scheduler shared with
+ * the outbox relay and reconciliation, so a long sweep cannot delay health checks (and
+ * {@code payments.scheduling.enabled=false} does not turn them off).
+ * <p>
+ * Metrics: {@code payments.health.check} timer, by {@code indicator}.
+ */
+@Component
+public class HealthRefresher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthRefresher.class);
+
+    private final List<CachedHealthIndicator> indicators;
+    private final List<Timer> timers;
+    private final Duration interval;
+    private ScheduledExecutorService executor;
+
+    public HealthRefresher(List<CachedHealthIndicator> indicators,
+                           MeterRegistry meterRegistry,
+                           @Value("${payments.health.refresh-interval:10s}") Duration interval,
+                           @Value("${payments.health.max-age:60s}") Duration maxAge) {
+        this.indicators = indicators;
+        this.interval = interval;
+        this.timers = indicators.stream()
+                .map(indicator -> Timer.builder("payments.health.check")
+                        .description("Duration of background health checks")
+                        .tag("indicator", indicator.getClass().getSimpleName())
+                        .register(meterRegistry))
+                .toList();
+        indicators.forEach(indicator -> indicator.expireAfter(maxAge));
+    }
+
+    void refreshAll() {
+        for (int i = 0; i < indicators.size(); i++) {
+            try {
+                timers.get(i).record(indicators.get(i)::refresh);
+            } catch (RuntimeException e) {
+                logger.warn("Health check {} failed", indicators.get(i).getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
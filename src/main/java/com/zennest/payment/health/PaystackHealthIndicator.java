@@ -0,0 +1,28 @@
+package com.zennest.payment.health;
+
+import com.zennest.payment.service.PaystackCircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports Paystack as {@code DOWN} while its circuit breaker is open. Paystack is not called
+ * for this; the breaker already tracks the outcome of every real call.
+ */
+@Component
+public class PaystackHealthIndicator extends CachedHealthIndicator {
+
+    private final PaystackCircuitBreaker circuitBreaker;
+
+    public PaystackHealthIndicator(PaystackCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    protected Health check() {
+        PaystackCircuitBreaker.State state = circuitBreaker.state();
+        return (state == PaystackCircuitBreaker.State.OPEN ? Health.down() : Health.up())
+                .withDetail("breaker", state)
+                .withDetail("consecutiveFailures", circuitBreaker.consecutiveFailures())
+                .build();
+    }
+}
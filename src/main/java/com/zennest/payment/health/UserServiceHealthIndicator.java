@@ -0,0 +1,31 @@
+package com.zennest.payment.health;
+
+import com.zennest.payment.client.UserGraphQLClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Checks that the user service answers a trivial GraphQL query.
+ */
+@Component
+public class UserServiceHealthIndicator extends CachedHealthIndicator {
+
+    private final UserGraphQLClient userGraphQLClient;
+    private final Duration timeout;
+
+    public UserServiceHealthIndicator(UserGraphQLClient userGraphQLClient,
+                                      @Value("${payments.health.user-service.timeout:2s}") Duration timeout) {
+        this.userGraphQLClient = userGraphQLClient;
+        this.timeout = timeout;
+    }
+
+    @Override
+    protected Health check() {
+        return userGraphQLClient.ping(timeout)
+                ? Health.up().build()
+                : Health.down().withDetail("reason", "No valid response within " + timeout).build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.zennest.payment.id;
+
+import java.util.UUID;
+
+/**
+ * Creates Paystack transaction references locally, so a payment has its reference before
+ * the gateway is called and is stored with it in a single insert.
+ * <p>
+ * A reference is {@code ZN-} followed by a {@link UuidV7} in Crockford base32: 29 characters
+ * from Paystack's allowed set (letters, digits and {@code -}), unique without coordination and
+ * sortable by creation time. Payout transfer references use the prefix {@code ZP-} instead.
+ */
+public final class PaymentReferences {
+
+    private static final String PREFIX = "ZN-";
+    private static final String PAYOUT_PREFIX = "ZP-";
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private PaymentReferences() {
+    }
+
+    public static String next() {
+        return of(UuidV7.next());
+    }
+
+    public static String nextPayout() {
+        return of(PAYOUT_PREFIX, UuidV7.next());
+    }
+
+    static String of(UUID uuid) {
+        return of(PREFIX, uuid);
+    }
+
+    private static String of(String prefix, UUID uuid) {
+        long high = uuid.getMostSignificantBits();
+        long low = uuid.getLeastSignificantBits();
+        char[] chars = new char[prefix.length() + 26];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        // 128 bits as 26 five-bit digits, most significant first; the first digit carries 3 bits
+        for (int i = 25; i >= 0; i--) {
+            chars[prefix.length() + i] = CROCKFORD[(int) (low & 0x1F)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+}
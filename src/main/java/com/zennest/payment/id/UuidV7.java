@@ -0,0 +1,48 @@
+package com.zennest.payment.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562) without a database round-trip.
+ * <p>
+ * The top 48 bits hold the Unix time in milliseconds and the 12 bits after the version hold
+ * a counter, so ids from one process are strictly increasing even within a millisecond; a
+ * counter overflow borrows the next millisecond rather than going backwards. The remaining
+ * 62 bits are random, which keeps ids from different instances apart. Because consecutive ids
+ * sort next to each other, inserts append to the right edge of a primary-key B-tree instead of
+ * splitting pages all over it.
+ */
+public final class UuidV7 {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    // (millis << 12) | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp = LAST.accumulateAndGet(now, (last, candidate) -> Math.max(last + 1, candidate));
+        long millis = stamp >>> 12;
+        long counter = stamp & 0xFFF;
+        long mostSignificant = (millis << 16) | VERSION | counter;
+        long leastSignificant = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * @return the creation time of a version 7 UUID in Unix milliseconds
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
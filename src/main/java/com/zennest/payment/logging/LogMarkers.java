@@ -0,0 +1,20 @@
+package com.zennest.payment.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Shared SLF4J markers used to classify log statements on hot paths.
+ */
+public final class LogMarkers {
+
+    /**
+     * Marks high-frequency success logs (one per request or per webhook event).
+     * Events carrying this marker are sampled by {@link SuccessLogSamplingFilter}
+     * instead of being written on every call.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
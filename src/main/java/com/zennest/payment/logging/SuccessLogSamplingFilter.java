@@ -0,0 +1,49 @@
+package com.zennest.payment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that lets through only one in every {@code sampleRate}
+ * log statements marked with {@link LogMarkers#SAMPLED}, counted per logger.
+ * <p>
+ * Turbo filters run before Logback builds a {@code LoggingEvent}, so a dropped
+ * statement costs a map lookup and an atomic increment instead of formatting,
+ * allocation and a trip through the appender queue. WARN and ERROR are never
+ * sampled, and unmarked statements are left to the normal level checks.
+ */
+public class SuccessLogSamplingFilter extends TurboFilter {
+
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private int sampleRate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (marker == null || sampleRate <= 1 || level.isGreaterOrEqual(Level.WARN)
+                || !marker.contains(LogMarkers.SAMPLED)) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong())
+                .getAndIncrement();
+        return seen % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampleRate keep one marked statement out of this many; values of 1 or less disable sampling
+     */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
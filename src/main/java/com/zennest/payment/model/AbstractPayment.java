@@ -0,0 +1,165 @@
+package com.zennest.payment.model;
+
+import com.zennest.payment.id.TimeOrderedId;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Columns shared by live payments ({@link Payment}, table {@code payments}) and archived
+ * ones ({@link ArchivedPayment}, table {@code payments_archive}), so both tables always
+ * have the same shape and rows can be moved between them with a plain INSERT ... SELECT.
+ */
+@MappedSuperclass
+public abstract class AbstractPayment {
+
+        // Time-ordered UUIDv7 assigned in the JVM, so inserts append to the primary-key index
+        @Id
+        @TimeOrderedId
+        private UUID id;
+
+        @NotEmpty
+        @Column(nullable = false)
+        private String email;
+
+        @Positive
+        @Column(nullable = false)
+        private Integer amount;
+
+        // Enums are stored as smallint codes (see CodedEnum) rather than their names, in *_code
+        // columns so that tables from the original layout migrate alongside the name columns
+        // (src/main/resources/db/migration)
+        @Convert(converter = PaymentStatusConverter.class)
+        @Column(name = "payment_status_code", nullable = false)
+        private PaymentStatus paymentStatus;
+
+        @Convert(converter = PaymentTypeConverter.class)
+        @Column(name = "payment_type_code", nullable = false)
+        private PaymentType paymentType;
+
+        // Stores the user's UUID if the donor is a registered member
+        @Column(name = "user_id")
+        private UUID userId;
+
+        // Stores the Paystack transaction reference (returned during initialization)
+        @Column(name = "reference")
+        private String reference;
+
+        // Stores the Paystack transaction ID (returned during verification)
+        @Column(name = "paystack_transaction_id")
+        private String paystackTransactionId;
+
+        // Additional verification details
+        @Column(name = "gateway_response")
+        private String gatewayResponse;  // e.g., "[Test] Approved"
+
+        @Column(name = "paid_at")
+        private LocalDateTime paidAt;  // When the payment was processed
+
+        @Column(name = "channel", length = 32)
+        private String channel;  // e.g., "card"
+
+        @Column(name = "currency", columnDefinition = "char(3)")
+        private String currency;  // ISO 4217 code, e.g., "NGN"
+
+        @Column(name = "fees")
+        private Integer fees;  // The fees charged by Paystack
+
+        // New field: Stores the definitive confirmation status from Paystack
+        @Convert(converter = PaystackConfirmationStatusConverter.class)
+        @Column(name = "paystack_confirmation_code", nullable = false)
+        private PaystackConfirmationStatus paystackConfirmation = PaystackConfirmationStatus.UNCONFIRMED;
+
+        @Column(nullable = false)
+        private LocalDateTime createdAt;
+
+        @Column(nullable = false)
+        private LocalDateTime updatedAt;
+
+        // Stores the property ID for which the payment is made (e.g., for bookings, sales)
+        @Column(name = "property_id")
+        private UUID propertyId;
+
+        // The payout that pays this payment out to the property's recipient; null until one does
+        @Column(name = "payout_id")
+        private UUID payoutId;
+
+        // Optimistic lock: every UPDATE is conditional on the version that was read, so
+        // concurrent webhook, verification and reconciliation writes cannot overwrite each other
+        @Version
+        @Column(nullable = false, columnDefinition = "bigint default 0")
+        private Long version;
+
+        protected AbstractPayment() {
+                // Required by JPA
+        }
+
+        protected AbstractPayment(String email, Integer amount, PaymentStatus paymentStatus, UUID userId, PaymentType paymentType, UUID propertyId) {
+                if (amount <= 0) {
+                        throw new IllegalArgumentException("Amount must be positive");
+                }
+                this.email = email;
+                this.amount = amount;
+                this.paymentStatus = paymentStatus;
+                this.userId = userId;
+                this.paymentType = paymentType;
+                this.propertyId = propertyId;
+                this.paystackConfirmation = PaystackConfirmationStatus.UNCONFIRMED;
+        }
+
+        // Getters and setters for all fields
+
+        public UUID getId() { return id; }
+        public String getEmail() { return email; }
+        public Integer getAmount() { return amount; }
+        public PaymentStatus getPaymentStatus() { return paymentStatus; }
+        public UUID getUserId() { return userId; }
+        public String getReference() { return reference; }
+        public String getPaystackTransactionId() { return paystackTransactionId; }
+        public String getGatewayResponse() { return gatewayResponse; }
+        public LocalDateTime getPaidAt() { return paidAt; }
+        public String getChannel() { return channel; }
+        public String getCurrency() { return currency; }
+        public Integer getFees() { return fees; }
+        public PaystackConfirmationStatus getPaystackConfirmation() { return paystackConfirmation; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public PaymentType getPaymentType() { return paymentType; }
+        public UUID getPropertyId() { return propertyId; }
+        public UUID getPayoutId() { return payoutId; }
+        public Long getVersion() { return version; }
+
+        public void setEmail(String email) { this.email = email; }
+        public void setAmount(Integer amount) {
+                if (amount <= 0) {
+                        throw new IllegalArgumentException("Amount must be positive");
+                }
+                this.amount = amount;
+        }
+        public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+        public void setUserId(UUID userId) { this.userId = userId; }
+        public void setReference(String reference) { this.reference = reference; }
+        public void setPaystackTransactionId(String paystackTransactionId) { this.paystackTransactionId = paystackTransactionId; }
+        public void setGatewayResponse(String gatewayResponse) { this.gatewayResponse = gatewayResponse; }
+        public void setPaidAt(LocalDateTime paidAt) { this.paidAt = paidAt; }
+        public void setChannel(String channel) { this.channel = channel; }
+        public void setCurrency(String currency) { this.currency = currency; }
+        public void setFees(Integer fees) { this.fees = fees; }
+        public void setPaystackConfirmation(PaystackConfirmationStatus paystackConfirmation) { this.paystackConfirmation = paystackConfirmation; }
+        public void setPaymentType(PaymentType paymentType) { this.paymentType = paymentType; }
+        public void setPropertyId(UUID propertyId) { this.propertyId = propertyId; }
+        public void setPayoutId(UUID payoutId) { this.payoutId = payoutId; }
+
+        @PrePersist
+        protected void onCreate() {
+                createdAt = LocalDateTime.now();
+                updatedAt = createdAt;
+        }
+
+        @PreUpdate
+        protected void onUpdate() {
+                updatedAt = LocalDateTime.now();
+        }
+}
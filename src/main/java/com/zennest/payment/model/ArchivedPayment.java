@@ -0,0 +1,29 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+/**
+ * A settled payment moved out of {@code payments} by the archiver. Rows are only ever
+ * written by the archiver's INSERT ... SELECT and are read back as {@link Payment}s through
+ * {@code PaymentRepository}; this entity exists so the table and its indexes follow the
+ * payment columns.
+ */
+@Entity
+@Immutable
+@Table(name = "payments_archive", indexes = {
+        @Index(name = "idx_payments_archive_created_at", columnList = "created_at"),
+        @Index(name = "idx_payments_archive_reference", columnList = "reference")
+})
+public class ArchivedPayment extends AbstractPayment {
+
+        @Column(name = "archived_at", nullable = false)
+        private LocalDateTime archivedAt;
+
+        protected ArchivedPayment() {
+                // Required by JPA
+        }
+
+        public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,10 @@
+package com.zennest.payment.model;
+
+/**
+ * An enum persisted as a fixed {@code smallint} code instead of its name. Codes are part of
+ * the stored data: never reuse or renumber one, only add new ones.
+ */
+public interface CodedEnum {
+
+    short getCode();
+}
@@ -0,0 +1,49 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.lang.reflect.Array;
+
+/**
+ * Maps a {@link CodedEnum} to its {@code smallint} code and back.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Short> {
+
+    private final Class<E> type;
+    private final E[] byCode;
+
+    @SuppressWarnings("unchecked")
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+        E[] constants = type.getEnumConstants();
+        int maxCode = 0;
+        for (E constant : constants) {
+            maxCode = Math.max(maxCode, constant.getCode());
+        }
+        this.byCode = (E[]) Array.newInstance(type, maxCode + 1);
+        for (E constant : constants) {
+            if (byCode[constant.getCode()] != null) {
+                throw new IllegalStateException(type.getSimpleName() + " reuses code " + constant.getCode());
+            }
+            byCode[constant.getCode()] = constant;
+        }
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(E value) {
+        return value == null ? null : value.getCode();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Short code) {
+        return code == null ? null : fromCode(code);
+    }
+
+    public E fromCode(int code) {
+        E value = code >= 0 && code < byCode.length ? byCode[code] : null;
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " code " + code);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A payment event waiting to be published to downstream services.
+ * <p>
+ * Rows are inserted in the same transaction as the payment change they describe, so an
+ * event exists if and only if the change committed. The relay publishes unpublished rows
+ * in {@code id} order, claiming each batch while it is sent, and stamps {@code published_at}; the payload carries everything a
+ * consumer needs, so fan-out never reads the {@code payments} table.
+ */
+@Entity
+@Table(name = "payment_outbox", indexes = {
+        @Index(name = "idx_payment_outbox_unpublished", columnList = "published_at, id")
+})
+public class PaymentOutboxEvent {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "payment_id", nullable = false)
+        private UUID paymentId;
+
+        @Column(name = "reference")
+        private String reference;
+
+        @Column(name = "event_type", nullable = false, length = 64)
+        private String eventType;
+
+        // JSON document, see PaymentStatusChangedEvent
+        @Column(name = "payload", nullable = false, length = 4000)
+        private String payload;
+
+        @Column(name = "created_at", nullable = false)
+        private LocalDateTime createdAt;
+
+        @Column(name = "published_at")
+        private LocalDateTime publishedAt;
+
+        // Failed relay attempts while this event was at the head of the queue
+        @Column(name = "attempts", nullable = false)
+        private int attempts;
+
+        @Column(name = "last_error", length = 500)
+        private String lastError;
+
+        // Set while a relay publishes the batch holding this event; expires so a crashed relay's
+        // claim is taken over
+        @Column(name = "claimed_by", length = 36)
+        private String claimedBy;
+
+        @Column(name = "claimed_until")
+        private LocalDateTime claimedUntil;
+
+        protected PaymentOutboxEvent() {
+                // Required by JPA
+        }
+
+        public PaymentOutboxEvent(UUID paymentId, String reference, String eventType, String payload) {
+                this.paymentId = paymentId;
+                this.reference = reference;
+                this.eventType = eventType;
+                this.payload = payload;
+                this.createdAt = LocalDateTime.now();
+        }
+
+        public Long getId() { return id; }
+        public UUID getPaymentId() { return paymentId; }
+        public String getReference() { return reference; }
+        public String getEventType() { return eventType; }
+        public String getPayload() { return payload; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getPublishedAt() { return publishedAt; }
+        public int getAttempts() { return attempts; }
+        public String getLastError() { return lastError; }
+        public String getClaimedBy() { return claimedBy; }
+        public LocalDateTime getClaimedUntil() { return claimedUntil; }
+}
@@ -0,0 +1,91 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One pre-aggregated revenue bucket: successful payments of a given type, channel and
+ * currency settled on a given day.
+ * <p>
+ * Rows are maintained incrementally when a payment enters or leaves
+ * {@link PaymentStatus#SUCCESS}, and can be rebuilt from {@code payments} by the backfill
+ * job, so analytics queries never have to scan the payments table.
+ */
+@Entity
+@Table(name = "payment_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_rollups_bucket",
+                columnNames = {"bucket_date", "payment_type", "channel", "currency"}))
+public class PaymentRollup {
+
+        /** Channel recorded when Paystack did not report one. */
+        public static final String UNKNOWN_CHANNEL = "unknown";
+
+        /** Currency recorded when Paystack did not report one (the integration default). */
+        public static final String DEFAULT_CURRENCY = "NGN";
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "bucket_date", nullable = false)
+        private LocalDate bucketDate;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "payment_type", nullable = false)
+        private PaymentType paymentType;
+
+        @Column(name = "channel", nullable = false)
+        private String channel;
+
+        @Column(name = "currency", nullable = false)
+        private String currency;
+
+        @Column(name = "payment_count", nullable = false)
+        private long paymentCount;
+
+        // Sum of Payment.amount in the smallest currency unit (kobo)
+        @Column(name = "amount_total", nullable = false)
+        private long amountTotal;
+
+        // Sum of Payment.fees charged by Paystack
+        @Column(name = "fees_total", nullable = false)
+        private long feesTotal;
+
+        @Column(name = "updated_at", nullable = false)
+        private LocalDateTime updatedAt;
+
+        protected PaymentRollup() {
+                // Required by JPA
+        }
+
+        public PaymentRollup(LocalDate bucketDate, PaymentType paymentType, String channel, String currency,
+                             long paymentCount, long amountTotal, long feesTotal) {
+                this.bucketDate = bucketDate;
+                this.paymentType = paymentType;
+                this.channel = channel;
+                this.currency = currency;
+                this.paymentCount = paymentCount;
+                this.amountTotal = amountTotal;
+                this.feesTotal = feesTotal;
+                this.updatedAt = LocalDateTime.now();
+        }
+
+        public static String channelOf(String channel) {
+                return channel == null || channel.isBlank() ? UNKNOWN_CHANNEL : channel;
+        }
+
+        public static String currencyOf(String currency) {
+                return currency == null || currency.isBlank() ? DEFAULT_CURRENCY : currency;
+        }
+
+        public Long getId() { return id; }
+        public LocalDate getBucketDate() { return bucketDate; }
+        public PaymentType getPaymentType() { return paymentType; }
+        public String getChannel() { return channel; }
+        public String getCurrency() { return currency; }
+        public long getPaymentCount() { return paymentCount; }
+        public long getAmountTotal() { return amountTotal; }
+        public long getFeesTotal() { return feesTotal; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,8 +1,48 @@
 package com.zennest.payment.model;
 
-public enum PaymentStatus {
-    PENDING,
-    SUCCESS,
-    FAILED
-}
+public enum PaymentStatus implements CodedEnum {
+    PENDING(0),
+    SUCCESS(1),
+    FAILED(2);
+
+    private final short code;
+
+    PaymentStatus(int code) {
+        this.code = (short) code;
+    }
 
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Maps a Paystack transaction status ({@code success}, {@code failed}, {@code abandoned}, ...)
+     * to the payment status it settles on.
+     *
+     * @return the settled status, or {@code null} if the gateway status is not final
+     */
+    public static PaymentStatus fromGatewayStatus(String gatewayStatus) {
+        if ("success".equalsIgnoreCase(gatewayStatus)) {
+            return SUCCESS;
+        }
+        if ("failed".equalsIgnoreCase(gatewayStatus) || "abandoned".equalsIgnoreCase(gatewayStatus)) {
+            return FAILED;
+        }
+        return null;
+    }
+
+    /**
+     * The payment status transition table. A pending payment may settle either way, and a
+     * failed charge may still succeed when the customer retries on the same reference, but a
+     * successful payment is final. Re-applying the current status is always allowed so that
+     * duplicate notifications stay idempotent.
+     */
+    public boolean canTransitionTo(PaymentStatus target) {
+        return switch (this) {
+            case PENDING -> true;
+            case FAILED -> target != PENDING;
+            case SUCCESS -> target == SUCCESS;
+        };
+    }
+}
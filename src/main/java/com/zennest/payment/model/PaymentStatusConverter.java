@@ -0,0 +1,11 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class PaymentStatusConverter extends CodedEnumConverter<PaymentStatus> {
+
+    public PaymentStatusConverter() {
+        super(PaymentStatus.class);
+    }
+}
@@ -1,9 +1,20 @@
 package com.zennest.payment.model;
 
-public enum PaymentType {
-    BOOKING,
-    RENT,
-    SALES,
-    MEMBERSHIP
+public enum PaymentType implements CodedEnum {
+    BOOKING(0),
+    RENT(1),
+    SALES(2),
+    MEMBERSHIP(3);
+
+    private final short code;
+
+    PaymentType(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
 }
 
@@ -0,0 +1,11 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class PaymentTypeConverter extends CodedEnumConverter<PaymentType> {
+
+    public PaymentTypeConverter() {
+        super(PaymentType.class);
+    }
+}
@@ -0,0 +1,103 @@
+package com.zennest.payment.model;
+
+import com.zennest.payment.id.TimeOrderedId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One Paystack transfer to a recipient, paying out the settled payments that reference it
+ * through {@code payments.payout_id}. The reference is sent as the transfer reference, which
+ * Paystack accepts only once, so resubmitting a payout can never pay it twice.
+ */
+@Entity
+@Table(name = "payouts", indexes = {
+        @Index(name = "idx_payouts_reference", columnList = "reference", unique = true),
+        @Index(name = "idx_payouts_status_id", columnList = "status, id")
+})
+public class Payout {
+
+        @Id
+        @TimeOrderedId
+        private UUID id;
+
+        @Column(nullable = false, length = 32)
+        private String reference;
+
+        @Column(name = "recipient_code", nullable = false, length = 64)
+        private String recipientCode;
+
+        // Smallest currency unit, like payment amounts
+        @Column(nullable = false)
+        private Long amount;
+
+        @Column(name = "currency", nullable = false, columnDefinition = "char(3)")
+        private String currency;
+
+        @Column(name = "payment_count", nullable = false)
+        private int paymentCount;
+
+        @Convert(converter = PayoutStatusConverter.class)
+        @Column(nullable = false)
+        private PayoutStatus status = PayoutStatus.PENDING;
+
+        @Column(name = "transfer_code", length = 64)
+        private String transferCode;
+
+        @Column(name = "failure_reason", length = 500)
+        private String failureReason;
+
+        @Column(name = "created_at", nullable = false)
+        private LocalDateTime createdAt;
+
+        @Column(name = "updated_at", nullable = false)
+        private LocalDateTime updatedAt;
+
+        @Version
+        @Column(nullable = false, columnDefinition = "bigint default 0")
+        private Long version;
+
+        protected Payout() {
+                // Required by JPA
+        }
+
+        public Payout(String reference, String recipientCode, String currency) {
+                this.reference = reference;
+                this.recipientCode = recipientCode;
+                this.currency = currency;
+                this.amount = 0L;
+        }
+
+        // Adds a settled payment of the given amount to this payout
+        public void add(int paymentAmount) {
+                amount += paymentAmount;
+                paymentCount++;
+        }
+
+        public UUID getId() { return id; }
+        public String getReference() { return reference; }
+        public String getRecipientCode() { return recipientCode; }
+        public Long getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+        public int getPaymentCount() { return paymentCount; }
+        public PayoutStatus getStatus() { return status; }
+        public String getTransferCode() { return transferCode; }
+        public String getFailureReason() { return failureReason; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        public void setStatus(PayoutStatus status) { this.status = status; }
+        public void setTransferCode(String transferCode) { this.transferCode = transferCode; }
+        public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
+        @PrePersist
+        protected void onCreate() {
+                createdAt = LocalDateTime.now();
+                updatedAt = createdAt;
+        }
+
+        @PreUpdate
+        protected void onUpdate() {
+                updatedAt = LocalDateTime.now();
+        }
+}
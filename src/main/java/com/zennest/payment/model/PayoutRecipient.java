@@ -0,0 +1,43 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The Paystack transfer recipient that a property's rent and booking payments are paid out to
+ * (see {@code PaystackService.resolveAccount}). Several properties may share a recipient; their
+ * payments are then paid out together.
+ */
+@Entity
+@Table(name = "payout_recipients")
+public class PayoutRecipient {
+
+        @Id
+        @Column(name = "property_id")
+        private UUID propertyId;
+
+        @Column(name = "recipient_code", nullable = false, length = 64)
+        private String recipientCode;
+
+        @Column(name = "updated_at", nullable = false)
+        private LocalDateTime updatedAt;
+
+        protected PayoutRecipient() {
+                // Required by JPA
+        }
+
+        public PayoutRecipient(UUID propertyId, String recipientCode) {
+                this.propertyId = propertyId;
+                setRecipientCode(recipientCode);
+        }
+
+        public UUID getPropertyId() { return propertyId; }
+        public String getRecipientCode() { return recipientCode; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        public void setRecipientCode(String recipientCode) {
+                this.recipientCode = recipientCode;
+                this.updatedAt = LocalDateTime.now();
+        }
+}
@@ -0,0 +1,59 @@
+package com.zennest.payment.model;
+
+public enum PayoutStatus implements CodedEnum {
+    // Created from settled payments, not yet accepted by Paystack
+    PENDING(0),
+    // Accepted by Paystack's bulk transfer endpoint, awaiting the transfer webhook
+    SUBMITTED(1),
+    SUCCESS(2),
+    FAILED(3),
+    REVERSED(4),
+    // Sent to Paystack, but whether it was accepted is unknown (no response, or an error);
+    // looked up by reference before it may be submitted again
+    UNCONFIRMED(5);
+
+    private final short code;
+
+    PayoutStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Maps a Paystack transfer status to a payout status.
+     *
+     * @return the payout status, or {@code null} for statuses that are not final
+     * (e.g. {@code pending}, {@code otp}, {@code received})
+     */
+    public static PayoutStatus fromTransferStatus(String transferStatus) {
+        if ("success".equalsIgnoreCase(transferStatus)) {
+            return SUCCESS;
+        }
+        if ("failed".equalsIgnoreCase(transferStatus)) {
+            return FAILED;
+        }
+        if ("reversed".equalsIgnoreCase(transferStatus)) {
+            return REVERSED;
+        }
+        return null;
+    }
+
+    /**
+     * The payout status transition table. An unconfirmed payout goes back to pending only if
+     * Paystack has no transfer with its reference. A successful transfer can still be reversed by
+     * the bank; failed and reversed payouts are final, and their payments are paid out again by a
+     * new payout. Re-applying the current status is allowed so duplicate webhooks stay idempotent.
+     */
+    public boolean canTransitionTo(PayoutStatus target) {
+        return switch (this) {
+            case PENDING, UNCONFIRMED -> true;
+            case SUBMITTED -> target != PENDING && target != UNCONFIRMED;
+            case SUCCESS -> target == SUCCESS || target == REVERSED;
+            case FAILED, REVERSED -> target == this;
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class PayoutStatusConverter extends CodedEnumConverter<PayoutStatus> {
+
+    public PayoutStatusConverter() {
+        super(PayoutStatus.class);
+    }
+}
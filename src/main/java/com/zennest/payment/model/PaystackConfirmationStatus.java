@@ -1,8 +1,29 @@
 package com.zennest.payment.model;
 
-public enum PaystackConfirmationStatus {
-    UNCONFIRMED,
-    CONFIRMED,
-    FAILED
-}
+public enum PaystackConfirmationStatus implements CodedEnum {
+    UNCONFIRMED(0),
+    CONFIRMED(1),
+    FAILED(2);
+
+    private final short code;
+
+    PaystackConfirmationStatus(int code) {
+        this.code = (short) code;
+    }
 
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * The confirmation recorded alongside a settled {@link PaymentStatus}.
+     */
+    public static PaystackConfirmationStatus forPaymentStatus(PaymentStatus paymentStatus) {
+        return switch (paymentStatus) {
+            case SUCCESS -> CONFIRMED;
+            case FAILED -> FAILED;
+            case PENDING -> UNCONFIRMED;
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class PaystackConfirmationStatusConverter extends CodedEnumConverter<PaystackConfirmationStatus> {
+
+    public PaystackConfirmationStatusConverter() {
+        super(PaystackConfirmationStatus.class);
+    }
+}
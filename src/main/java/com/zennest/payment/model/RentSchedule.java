@@ -0,0 +1,180 @@
+package com.zennest.payment.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.zennest.payment.id.TimeOrderedId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A tenant's monthly rent for a property, charged to a stored card authorization.
+ * <p>
+ * {@code dueAt} is the due date of the period being billed. Each successful charge moves it to
+ * {@code firstDueAt} plus the number of periods paid, so a schedule anchored on the 31st is due
+ * on the last day of shorter months and back on the 31st after them, instead of drifting to the
+ * 28th for good. {@code nextAttemptAt} is when the billing sweep next looks at the schedule:
+ * the due date, a retry after a failed charge, or a check on a charge that has not settled yet
+ * ({@code pendingReference}). Due schedules are found through the
+ * {@code (status, next_attempt_at)} index.
+ */
+@Entity
+@Table(name = "rent_schedules", indexes = {
+        @Index(name = "idx_rent_schedules_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_rent_schedules_tenant", columnList = "email, property_id")
+})
+public class RentSchedule {
+
+        @Id
+        @TimeOrderedId
+        private UUID id;
+
+        @Column(nullable = false)
+        private String email;
+
+        @Column(name = "user_id")
+        private UUID userId;
+
+        @Column(name = "property_id", nullable = false)
+        private UUID propertyId;
+
+        // Smallest currency unit, like payment amounts
+        @Column(nullable = false)
+        private Integer amount;
+
+        @Column(name = "currency", nullable = false, columnDefinition = "char(3)")
+        private String currency;
+
+        // Paystack authorization code of a reusable card; set by a successful rent payment
+        @Column(name = "authorization_code", length = 64)
+        private String authorizationCode;
+
+        @Convert(converter = RentScheduleStatusConverter.class)
+        @Column(nullable = false)
+        private RentScheduleStatus status = RentScheduleStatus.AWAITING_AUTHORIZATION;
+
+        // Anchor of the billing cycle; null for schedules created before it was stored, which
+        // are anchored on their due date at the next payment
+        @Column(name = "first_due_at")
+        private LocalDateTime firstDueAt;
+
+        @Column(name = "periods_paid", nullable = false, columnDefinition = "integer default 0")
+        private int periodsPaid;
+
+        @Column(name = "due_at", nullable = false)
+        private LocalDateTime dueAt;
+
+        @Column(name = "next_attempt_at", nullable = false)
+        private LocalDateTime nextAttemptAt;
+
+        // Failed charges for the current period
+        @Column(name = "attempts", nullable = false)
+        private int attempts;
+
+        // Reference of the charge for the current period that has not settled yet
+        @Column(name = "pending_reference", length = 32)
+        private String pendingReference;
+
+        @Column(name = "last_error", length = 500)
+        private String lastError;
+
+        @Column(name = "created_at", nullable = false)
+        private LocalDateTime createdAt;
+
+        @Column(name = "updated_at", nullable = false)
+        private LocalDateTime updatedAt;
+
+        @Version
+        @Column(nullable = false, columnDefinition = "bigint default 0")
+        private Long version;
+
+        protected RentSchedule() {
+                // Required by JPA
+        }
+
+        public RentSchedule(String email, UUID userId, UUID propertyId, Integer amount, String currency, LocalDateTime firstDueAt) {
+                if (amount == null || amount <= 0) {
+                        throw new IllegalArgumentException("Amount must be positive");
+                }
+                this.email = email;
+                this.userId = userId;
+                this.propertyId = propertyId;
+                this.amount = amount;
+                this.currency = currency;
+                this.firstDueAt = firstDueAt;
+                this.dueAt = firstDueAt;
+                this.nextAttemptAt = firstDueAt;
+        }
+
+        // A charge for the current period was started; look at it again at recheckAt
+        public void chargeStarted(String reference, LocalDateTime recheckAt) {
+                pendingReference = reference;
+                nextAttemptAt = recheckAt;
+        }
+
+        // The current period is paid: bill the next one on its due date. plusMonths clamps to
+        // the end of a shorter month, and counting from the anchor keeps that to one period
+        public void paid() {
+                if (firstDueAt == null) {
+                        firstDueAt = dueAt;
+                        periodsPaid = 0;
+                }
+                periodsPaid++;
+                dueAt = firstDueAt.plusMonths(periodsPaid);
+                nextAttemptAt = dueAt;
+                attempts = 0;
+                pendingReference = null;
+                lastError = null;
+        }
+
+        // The charge for the current period failed: try again at retryAt
+        public void chargeFailed(String reason, LocalDateTime retryAt) {
+                attempts++;
+                pendingReference = null;
+                lastError = reason;
+                nextAttemptAt = retryAt;
+        }
+
+        // No charge was made (Paystack unavailable): look at the schedule again at retryAt,
+        // without counting an attempt
+        public void postpone(LocalDateTime retryAt) {
+                pendingReference = null;
+                nextAttemptAt = retryAt;
+        }
+
+        public void suspend(String reason) {
+                status = RentScheduleStatus.SUSPENDED;
+                lastError = reason;
+        }
+
+        public UUID getId() { return id; }
+        public String getEmail() { return email; }
+        public UUID getUserId() { return userId; }
+        public UUID getPropertyId() { return propertyId; }
+        public Integer getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+        @JsonIgnore
+        public String getAuthorizationCode() { return authorizationCode; }
+        public RentScheduleStatus getStatus() { return status; }
+        public LocalDateTime getFirstDueAt() { return firstDueAt; }
+        public int getPeriodsPaid() { return periodsPaid; }
+        public LocalDateTime getDueAt() { return dueAt; }
+        public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+        public int getAttempts() { return attempts; }
+        public String getPendingReference() { return pendingReference; }
+        public String getLastError() { return lastError; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        public void setStatus(RentScheduleStatus status) { this.status = status; }
+
+        @PrePersist
+        protected void onCreate() {
+                createdAt = LocalDateTime.now();
+                updatedAt = createdAt;
+        }
+
+        @PreUpdate
+        protected void onUpdate() {
+                updatedAt = LocalDateTime.now();
+        }
+}
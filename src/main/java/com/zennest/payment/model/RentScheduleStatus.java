@@ -0,0 +1,21 @@
+package com.zennest.payment.model;
+
+public enum RentScheduleStatus implements CodedEnum {
+    // Enrolled; charged once a successful rent payment has left a reusable card authorization
+    AWAITING_AUTHORIZATION(0),
+    ACTIVE(1),
+    // Stopped after repeated failed charges, or a charge that never settled; needs attention
+    SUSPENDED(2),
+    CANCELLED(3);
+
+    private final short code;
+
+    RentScheduleStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,11 @@
+package com.zennest.payment.model;
+
+import jakarta.persistence.Converter;
+
+@Converter
+public class RentScheduleStatusConverter extends CodedEnumConverter<RentScheduleStatus> {
+
+    public RentScheduleStatusConverter() {
+        super(RentScheduleStatus.class);
+    }
+}
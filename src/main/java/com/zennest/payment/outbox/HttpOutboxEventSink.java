@@ -0,0 +1,88 @@
+package com.zennest.payment.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array to every URL in {@code payments.outbox.sink.http.endpoints},
+ * e.g. the booking and property services' event intake. Any non-2xx answer fails the batch.
+ * <pre>
+ * [{"id":42,"type":"payment.status.changed","reference":"T4c1f...","createdAt":"...","payload":{...}}]
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "payments.outbox.sink.http.endpoints")
+public class HttpOutboxEventSink implements OutboxEventSink {
+
+    private final List<URI> endpoints;
+    private final String token;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public HttpOutboxEventSink(@Value("${payments.outbox.sink.http.endpoints}") String endpoints,
+                               @Value("${payments.outbox.sink.http.token:}") String token,
+                               @Value("${payments.outbox.sink.http.timeout:5s}") Duration timeout,
+                               ObjectMapper objectMapper) {
+        this.endpoints = Arrays.stream(endpoints.split(","))
+                .map(String::trim)
+                .filter(endpoint -> !endpoint.isEmpty())
+                .map(URI::create)
+                .toList();
+        this.token = token;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) throws Exception {
+        String body = toJson(batch);
+        for (URI endpoint : endpoints) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (!token.isEmpty()) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException(endpoint + " answered " + response.statusCode());
+            }
+        }
+    }
+
+    // The payload is already JSON, so it is embedded as-is rather than parsed and re-serialized
+    private String toJson(List<OutboxMessage> batch) throws IOException {
+        StringBuilder json = new StringBuilder(batch.size() * 512).append('[');
+        for (OutboxMessage message : batch) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(message.id())
+                    .append(",\"type\":").append(objectMapper.writeValueAsString(message.type()))
+                    .append(",\"reference\":").append(objectMapper.writeValueAsString(message.reference()))
+                    .append(",\"createdAt\":").append(objectMapper.writeValueAsString(message.createdAt()))
+                    .append(",\"payload\":").append(message.payload())
+                    .append('}');
+        }
+        return json.append(']').toString();
+    }
+}
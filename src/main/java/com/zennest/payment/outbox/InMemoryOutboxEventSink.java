@@ -0,0 +1,41 @@
+package com.zennest.payment.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps published events in memory, for tests and local runs
+ * ({@code payments.outbox.sink.in-memory.enabled=true}).
+ */
+@Component
+@ConditionalOnProperty(name = "payments.outbox.sink.in-memory.enabled", havingValue = "true")
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final List<OutboxMessage> received = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String name() {
+        return "in-memory";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        received.addAll(batch);
+    }
+
+    public List<OutboxMessage> received() {
+        return new ArrayList<>(received);
+    }
+
+    public List<OutboxMessage> receivedFor(String reference) {
+        return received.stream().filter(message -> reference.equals(message.reference())).toList();
+    }
+
+    public void clear() {
+        received.clear();
+    }
+}
@@ -0,0 +1,26 @@
+package com.zennest.payment.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for published outbox events. Every sink bean receives every batch.
+ * <p>
+ * Delivery is at-least-once: a batch is marked published only after all sinks accepted
+ * it, so a failure in any sink causes the whole batch to be offered again. Within a
+ * batch, and across batches, events arrive in outbox {@code id} order, which preserves
+ * the order of changes to each payment reference.
+ */
+public interface OutboxEventSink {
+
+    /**
+     * @return a short name used in metrics and logs
+     */
+    String name();
+
+    /**
+     * Delivers a batch, returning only once the destination has accepted it.
+     *
+     * @throws Exception if the batch was not (fully) accepted and must be retried
+     */
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.zennest.payment.outbox;
+
+import com.zennest.payment.model.PaymentOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An outbox event as handed to an {@link OutboxEventSink}.
+ *
+ * @param id        outbox id; increases with commit order per reference, usable for de-duplication
+ * @param paymentId the payment the event is about
+ * @param reference the payment's Paystack reference, the ordering key
+ * @param type      event type, e.g. {@code payment.status.changed}
+ * @param payload   the event as a JSON document
+ * @param createdAt when the change committed
+ */
+public record OutboxMessage(long id, UUID paymentId, String reference, String type, String payload,
+                            LocalDateTime createdAt) {
+
+    static OutboxMessage of(PaymentOutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getPaymentId(), event.getReference(), event.getEventType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
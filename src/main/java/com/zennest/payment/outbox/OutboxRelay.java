@@ -0,0 +1,230 @@
+package com.zennest.payment.outbox;
+
+import com.zennest.payment.model.PaymentOutboxEvent;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed outbox events to every {@link OutboxEventSink}.
+ * <p>
+ * Each batch is claimed in a short transaction: the head of the queue is read with a row
+ * lock and stamped with a claim that lasts {@code payments.outbox.relay.claim-lease}. A relay
+ * that finds the head claimed by another relay stops its run, so concurrent relays (several
+ * instances) do not publish it twice or out of order. The batch is then handed to the sinks
+ * with no transaction, lock or connection held, and marked published in a second short
+ * transaction. A failing batch releases its claim and stops the run: later events are not
+ * published past it, which keeps per-reference order, and the batch is retried on the next
+ * run. A relay that dies mid-batch leaves a claim that expires, after which the batch is
+ * offered again. The relay only reads {@code payment_outbox}.
+ * <p>
+ * Metrics: {@code payments.outbox.pending} and {@code payments.outbox.lag.seconds} (age of
+ * the oldest unpublished event, refreshed after every run), the {@code payments.outbox.delivery.lag}
+ * timer (commit to publish, per event), and {@code payments.outbox.published}/{@code payments.outbox.failures}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final List<OutboxEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+    private final Duration claimLease;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingEpochMillis = new AtomicLong();
+    private final Timer deliveryLag;
+    private final Counter published;
+    private final Counter failures;
+
+    public OutboxRelay(PaymentOutboxRepository outboxRepository,
+                       List<OutboxEventSink> sinks,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${payments.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${payments.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun,
+                       @Value("${payments.outbox.retention:7d}") Duration retention,
+                       @Value("${payments.outbox.relay.claim-lease:5m}") Duration claimLease) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = retention;
+        this.claimLease = claimLease;
+
+        Gauge.builder("payments.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not yet published")
+                .register(meterRegistry);
+        Gauge.builder("payments.outbox.lag.seconds", this, OutboxRelay::oldestPendingAgeSeconds)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("payments.outbox.delivery.lag")
+                .description("Time from commit to publication of outbox events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.published = Counter.builder("payments.outbox.published")
+                .description("Outbox events published to all sinks")
+                .register(meterRegistry);
+        this.failures = Counter.builder("payments.outbox.failures")
+                .description("Outbox batches rejected by a sink")
+                .register(meterRegistry);
+
+        if (sinks.isEmpty()) {
+            logger.warn("No outbox sinks configured; payment events are retained in payment_outbox until one is");
+        } else {
+            logger.info("Outbox relay publishing to {}", sinks.stream().map(OutboxEventSink::name).toList());
+        }
+    }
+
+    /**
+     * Publishes pending events until the queue is drained, a sink fails or the per-run
+     * batch budget is spent.
+     *
+     * @return number of events published
+     */
+    @Scheduled(fixedDelayString = "${payments.outbox.relay.interval-ms:500}")
+    public int relayPending() {
+        int total = 0;
+        if (!sinks.isEmpty()) {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int count;
+                try {
+                    count = publishNextBatch();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    recordFailure(e);
+                    break;
+                }
+                total += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+        }
+        refreshBacklog();
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.outbox.cleanup.interval-ms:3600000}")
+    public void deletePublished() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            logger.info("Deleted {} published outbox events older than {}", deleted, retention);
+        }
+    }
+
+    private int publishNextBatch() {
+        ClaimedBatch claimed = transactionTemplate.execute(status -> claimNextBatch());
+        if (claimed == null) {
+            return 0;
+        }
+        List<OutboxMessage> batch = claimed.messages();
+        List<Long> ids = batch.stream().map(OutboxMessage::id).toList();
+        for (OutboxEventSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                throw new OutboxPublishException(sink.name(), batch.get(0).id(), ids, claimed.claim(), e);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int marked = transactionTemplate.execute(status -> outboxRepository.markPublished(ids, claimed.claim(), now));
+        if (marked < ids.size()) {
+            logger.warn("Claim on outbox batch starting at event {} expired while publishing; {} of {} events "
+                    + "may be published again", ids.get(0), ids.size() - marked, ids.size());
+        }
+        for (OutboxMessage message : batch) {
+            deliveryLag.record(Duration.between(message.createdAt(), now));
+        }
+        published.increment(batch.size());
+        return batch.size();
+    }
+
+    // The head of the queue under a fresh claim, or null if it is empty or claimed by another relay
+    private ClaimedBatch claimNextBatch() {
+        List<PaymentOutboxEvent> events = outboxRepository.lockNextBatch(PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        if (events.isEmpty() || events.stream().anyMatch(event ->
+                event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now))) {
+            return null;
+        }
+        List<OutboxMessage> batch = events.stream().map(OutboxMessage::of).toList();
+        String claim = UUID.randomUUID().toString();
+        outboxRepository.claim(batch.stream().map(OutboxMessage::id).toList(), claim, now.plus(claimLease));
+        return new ClaimedBatch(claim, batch);
+    }
+
+    private void recordFailure(RuntimeException e) {
+        if (e instanceof OutboxPublishException failure) {
+            logger.warn("Outbox sink {} rejected batch starting at event {}: {}",
+                    failure.sink, failure.headId, failure.getCause().toString());
+            String error = failure.sink + ": " + failure.getCause();
+            transactionTemplate.executeWithoutResult(status -> {
+                outboxRepository.releaseClaim(failure.ids, failure.claim);
+                outboxRepository.recordFailure(failure.headId, error.length() > 500 ? error.substring(0, 500) : error);
+            });
+        } else {
+            logger.error("Outbox relay run failed", e);
+        }
+    }
+
+    // Read-only, so a configured read replica serves the gauges
+    private void refreshBacklog() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            pending.set(outboxRepository.countByPublishedAtIsNull());
+            LocalDateTime oldest = outboxRepository.findOldestUnpublishedCreatedAt();
+            oldestPendingEpochMillis.set(oldest == null ? 0
+                    : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        });
+    }
+
+    private double oldestPendingAgeSeconds() {
+        long oldest = oldestPendingEpochMillis.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private record ClaimedBatch(String claim, List<OutboxMessage> messages) {
+    }
+
+    private static final class OutboxPublishException extends RuntimeException {
+
+        private final String sink;
+        private final long headId;
+        private final List<Long> ids;
+        private final String claim;
+
+        OutboxPublishException(String sink, long headId, List<Long> ids, String claim, Exception cause) {
+            super("Sink " + sink + " failed", cause);
+            this.sink = sink;
+            this.headId = headId;
+            this.ids = ids;
+            this.claim = claim;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.zennest.payment.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.PaymentStatusChangedEvent;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentOutboxEvent;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appends events to the outbox as part of the caller's transaction.
+ */
+@Component
+public class PaymentOutbox {
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public PaymentOutbox(PaymentOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records a {@code payment.status.changed} event. Must run inside the transaction that
+     * changed the payment, after the payment row has been flushed, so that events for one
+     * reference receive ids in the order their changes commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Payment payment, PaymentStatus previousStatus) {
+        PaymentStatusChangedEvent event = new PaymentStatusChangedEvent(payment.getId(), payment.getReference(),
+                previousStatus, payment.getPaymentStatus(), payment.getPaystackConfirmation(), payment.getPaymentType(),
+                payment.getAmount(), payment.getFees(), payment.getCurrency(), payment.getChannel(),
+                payment.getUserId(), payment.getPropertyId(), payment.getPaidAt(), LocalDateTime.now());
+        try {
+            outboxRepository.save(new PaymentOutboxEvent(payment.getId(), payment.getReference(),
+                    PaymentStatusChangedEvent.TYPE, objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize outbox event for payment " + payment.getId(), e);
+        }
+    }
+}
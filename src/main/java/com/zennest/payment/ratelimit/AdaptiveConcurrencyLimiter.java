@@ -0,0 +1,118 @@
+package com.zennest.payment.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Additive-increase / multiplicative-decrease (AIMD) limit on the number of requests
+ * in flight.
+ * <p>
+ * While completed requests stay under the latency threshold and the limit is actually
+ * being used, the limit grows by roughly one slot per "limit" completions. A request that
+ * exceeds the threshold shrinks the limit by {@code backoffRatio}, at most once per
+ * {@code backoffWindowNanos}: a burst of slow completions is one congestion signal, not one
+ * per request, and would otherwise drive the limit to its minimum. Once the number in
+ * flight reaches the limit, new requests are shed instead of queueing behind slow ones.
+ * Both counters are plain atomics, so acquiring and releasing never blocks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final long backoffWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio,
+                                      long backoffWindowNanos) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency bounds " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.backoffWindowNanos = backoffWindowNanos;
+        this.lastBackoffNanos = new AtomicLong(System.nanoTime() - backoffWindowNanos);
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * @return {@code true} if the caller may proceed and must later call {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the request's latency back into the limit.
+     *
+     * @param latencyNanos how long the request held its slot
+     */
+    public void release(long latencyNanos) {
+        release(latencyNanos, System.nanoTime());
+    }
+
+    /**
+     * Releases a slot without feeding anything back into the limit, for requests whose
+     * latency says nothing about overload (long-running exports and batch runs).
+     */
+    public void releaseWithoutFeedback() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long latencyNanos, long nowNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            backOff(nowNanos);
+            return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            if (inFlightBefore * 2 < limit) {
+                return;
+            }
+            double next = Math.min(maxLimit, limit + 1.0 / limit);
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    private void backOff(long nowNanos) {
+        long last = lastBackoffNanos.get();
+        if (nowNanos - last < backoffWindowNanos || !lastBackoffNanos.compareAndSet(last, nowNanos)) {
+            return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double next = Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio);
+            if (limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
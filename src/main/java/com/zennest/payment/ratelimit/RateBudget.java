@@ -0,0 +1,39 @@
+package com.zennest.payment.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces callers to a fixed number of permits per second, blocking instead of rejecting.
+ * <p>
+ * Permits are handed out at evenly spaced instants: each caller reserves the next free slot
+ * with one atomic update and sleeps until it. Idle time is not banked, so a caller arriving
+ * after a quiet period gets one permit immediately and the rest are spaced again, which keeps
+ * outbound calls (e.g. to Paystack) from bursting.
+ */
+public class RateBudget {
+
+    private final long intervalNanos;
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+    public RateBudget(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    }
+
+    /**
+     * Waits until a permit is available.
+     *
+     * @throws InterruptedException if interrupted while waiting; the reserved slot is not returned
+     */
+    public void acquire() throws InterruptedException {
+        long now = System.nanoTime();
+        long previous = nextFreeNanos.getAndAccumulate(now, (next, current) -> Math.max(next, current) + intervalNanos);
+        long wait = Math.max(previous, now) - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.zennest.payment.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free sliding-window rate limiter keyed by an arbitrary string (client id, IP, ...).
+ * <p>
+ * Each key keeps two fixed-window buckets (current and previous). The request rate is
+ * estimated as {@code previous * (1 - elapsed/window) + current}, which smooths out the
+ * burst a plain fixed window allows at window boundaries. A bucket packs its window
+ * number and count into a single {@code long}, so rolling over and counting are one CAS
+ * with no locks and no lost updates.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long windowMillis;
+    private final int limit;
+    private final int maxTrackedKeys;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLongArray> windows = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgeWindow = new AtomicLong();
+
+    public SlidingWindowRateLimiter(long windowMillis, int limit, int maxTrackedKeys) {
+        this(windowMillis, limit, maxTrackedKeys, System::currentTimeMillis);
+    }
+
+    SlidingWindowRateLimiter(long windowMillis, int limit, int maxTrackedKeys, LongSupplier clock) {
+        if (windowMillis <= 0 || limit <= 0) {
+            throw new IllegalArgumentException("Window and limit must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.limit = (int) Math.min(limit, COUNT_MASK);
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a request for the key if it is within the limit.
+     *
+     * @param key the client key or address being limited
+     * @return {@code true} if the request is allowed, {@code false} if it should be rejected
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        AtomicLongArray buckets = windows.get(key);
+        if (buckets == null) {
+            purgeIfNeeded(window);
+            buckets = windows.computeIfAbsent(key, k -> new AtomicLongArray(2));
+        }
+        int slot = (int) (window & 1);
+        double previousWeight = 1.0 - (double) (now - window * windowMillis) / windowMillis;
+        long previous = countIn(buckets.get(slot ^ 1), window - 1);
+
+        while (true) {
+            long state = buckets.get(slot);
+            long current = countIn(state, window);
+            if (previous * previousWeight + current + 1 > limit) {
+                return false;
+            }
+            if (buckets.compareAndSet(slot, state, pack(window, current + 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return milliseconds until the current window rolls over, used for {@code Retry-After}
+     */
+    public long millisUntilNextWindow() {
+        long now = clock.getAsLong();
+        return windowMillis - (now % windowMillis);
+    }
+
+    public int trackedKeys() {
+        return windows.size();
+    }
+
+    /**
+     * Drops keys whose buckets are both older than the previous window once the map grows
+     * past its bound; at most once per window so the sweep cost stays off the common path.
+     */
+    private void purgeIfNeeded(long window) {
+        if (windows.size() < maxTrackedKeys) {
+            return;
+        }
+        long last = lastPurgeWindow.get();
+        if (last == window || !lastPurgeWindow.compareAndSet(last, window)) {
+            return;
+        }
+        windows.values().removeIf(buckets ->
+                countIn(buckets.get(0), window) == 0 && countIn(buckets.get(1), window) == 0
+                        && countIn(buckets.get(0), window - 1) == 0 && countIn(buckets.get(1), window - 1) == 0);
+    }
+
+    private static long pack(long window, long count) {
+        return (window << COUNT_BITS) | count;
+    }
+
+    private static long countIn(long state, long window) {
+        return (state >>> COUNT_BITS) == window ? state & COUNT_MASK : 0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.Payment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Single-payment lookups that also find payments moved to {@code payments_archive}.
+ * <p>
+ * The live table is checked first; archived rows are returned as detached {@link Payment}s.
+ * Archived payments are settled and final, so they are for reading only: write paths keep
+ * using the live-table finders of {@link PaymentRepository}.
+ */
+public interface PaymentArchiveLookup {
+
+    Optional<Payment> findByIdIncludingArchive(UUID id);
+
+    Optional<Payment> findByReferenceIncludingArchive(String reference);
+
+    // The payments with any of the ids: one query on the live table, one on the archive for the rest
+    List<Payment> findAllByIdIncludingArchive(Collection<UUID> ids);
+
+    // The payments with any of the references: one query on the live table, one on the archive for the rest
+    List<Payment> findAllByReferenceIncludingArchive(Collection<String> references);
+}
@@ -0,0 +1,81 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+class PaymentArchiveLookupImpl implements PaymentArchiveLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Payment> findByIdIncludingArchive(UUID id) {
+        Payment payment = entityManager.find(Payment.class, id);
+        return payment != null ? Optional.of(payment) : findArchived("id", List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Payment> findByReferenceIncludingArchive(String reference) {
+        List<Payment> payments = entityManager
+                .createQuery("select p from Payment p where p.reference = :reference", Payment.class)
+                .setParameter("reference", reference)
+                .setMaxResults(1)
+                .getResultList();
+        return !payments.isEmpty() ? Optional.of(payments.get(0))
+                : findArchived("reference", List.of(reference)).stream().findFirst();
+    }
+
+    @Override
+    public List<Payment> findAllByIdIncludingArchive(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Payment> payments = new ArrayList<>(entityManager
+                .createQuery("select p from Payment p where p.id in :ids", Payment.class)
+                .setParameter("ids", ids)
+                .getResultList());
+        Set<UUID> missing = new HashSet<>(ids);
+        payments.forEach(payment -> missing.remove(payment.getId()));
+        if (!missing.isEmpty()) {
+            payments.addAll(findArchived("id", missing));
+        }
+        return payments;
+    }
+
+    @Override
+    public List<Payment> findAllByReferenceIncludingArchive(Collection<String> references) {
+        if (references.isEmpty()) {
+            return List.of();
+        }
+        List<Payment> payments = new ArrayList<>(entityManager
+                .createQuery("select p from Payment p where p.reference in :references", Payment.class)
+                .setParameter("references", references)
+                .getResultList());
+        Set<String> missing = new HashSet<>(references);
+        payments.forEach(payment -> missing.remove(payment.getReference()));
+        if (!missing.isEmpty()) {
+            payments.addAll(findArchived("reference", missing));
+        }
+        return payments;
+    }
+
+    private List<Payment> findArchived(String column, Collection<?> values) {
+        // payments_archive has the payment columns plus archived_at, so its rows map onto Payment;
+        // detach them so they can never be flushed back into the live table
+        List<Payment> payments = entityManager
+                .createNativeQuery("select * from payments_archive where " + column + " in (:values)", Payment.class)
+                .setParameter("values", values)
+                .getResultList();
+        payments.forEach(entityManager::detach);
+        return payments;
+    }
+}
@@ -0,0 +1,53 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.PaymentOutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEvent, Long> {
+
+    // Oldest unpublished events, locked only while the relay claims them, so concurrent relays
+    // claim one batch at a time and in order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from PaymentOutboxEvent e where e.publishedAt is null order by e.id")
+    List<PaymentOutboxEvent> lockNextBatch(Pageable page);
+
+    @Modifying
+    @Query("update PaymentOutboxEvent e set e.claimedBy = :claim, e.claimedUntil = :until where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claim") String claim, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update PaymentOutboxEvent e set e.claimedBy = null, e.claimedUntil = null "
+            + "where e.id in :ids and e.claimedBy = :claim")
+    int releaseClaim(@Param("ids") Collection<Long> ids, @Param("claim") String claim);
+
+    // Only rows still under the given claim; a claim that expired may be publishing elsewhere
+    @Modifying
+    @Query("update PaymentOutboxEvent e set e.publishedAt = :now, e.claimedBy = null, e.claimedUntil = null "
+            + "where e.id in :ids and e.claimedBy = :claim")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("claim") String claim, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update PaymentOutboxEvent e set e.attempts = e.attempts + 1, e.lastError = :error where e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    long countByPublishedAtIsNull();
+
+    @Query("select min(e.createdAt) from PaymentOutboxEvent e where e.publishedAt is null")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+
+    @Modifying
+    @Query("delete from PaymentOutboxEvent e where e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    List<PaymentOutboxEvent> findByReferenceOrderById(String reference);
+}
@@ -1,13 +1,22 @@
 package com.zennest.payment.repo;
 
+import com.zennest.payment.DTO.StalePayment;
 import com.zennest.payment.model.Payment;
 import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
 
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>, PaymentArchiveLookup {
     Optional<Payment> findByReference(String reference);
 
     // Count payments by a specific status (PENDING, SUCCESS, or FAILED)
@@ -15,4 +24,108 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
 
     // Retrieve all payments with a given status.
     List<Payment> findByPaymentStatus(PaymentStatus paymentStatus);
-}
\ No newline at end of file
+
+    List<Payment> findByPaymentStatus(PaymentStatus paymentStatus, Pageable page);
+
+    // Aggregates settled payments of one time slice per (type, channel, currency); used to
+    // rebuild analytics rollups. Rows: [PaymentType, channel, currency, count, amount, fees].
+    @Query("select p.paymentType, p.channel, p.currency, count(p), sum(p.amount), sum(coalesce(p.fees, 0)) "
+            + "from Payment p where p.paymentStatus = :status "
+            + "and coalesce(p.paidAt, p.updatedAt) >= :start and coalesce(p.paidAt, p.updatedAt) < :end "
+            + "group by p.paymentType, p.channel, p.currency")
+    List<Object[]> aggregateSettled(@Param("status") PaymentStatus status,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end);
+
+    // aggregateSettled over payments_archive, so rebuilt history keeps archived payments.
+    @Query("select p.paymentType, p.channel, p.currency, count(p), sum(p.amount), sum(coalesce(p.fees, 0)) "
+            + "from ArchivedPayment p where p.paymentStatus = :status "
+            + "and coalesce(p.paidAt, p.updatedAt) >= :start and coalesce(p.paidAt, p.updatedAt) < :end "
+            + "group by p.paymentType, p.channel, p.currency")
+    List<Object[]> aggregateSettledArchive(@Param("status") PaymentStatus status,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+
+    List<Payment> findByReferenceIn(Collection<String> references);
+
+    // Keyset page of payments in the given status created before the cutoff, ordered by
+    // (createdAt, id) and starting after the given position; served by idx_payments_status_created_at.
+    @Query("select new com.zennest.payment.DTO.StalePayment(p.id, p.reference, p.createdAt) "
+            + "from Payment p where p.paymentStatus = :status and p.reference is not null "
+            + "and p.createdAt < :cutoff "
+            + "and (p.createdAt > :afterCreatedAt or (p.createdAt = :afterCreatedAt and p.id > :afterId)) "
+            + "order by p.createdAt, p.id")
+    List<StalePayment> findStaleAfter(@Param("status") PaymentStatus status,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                      @Param("afterId") UUID afterId,
+                                      Pageable page);
+
+    @Query("select count(p) from Payment p where p.paymentStatus = :status and p.reference is not null "
+            + "and p.createdAt < :cutoff")
+    long countStale(@Param("status") PaymentStatus status, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("select min(p.createdAt) from Payment p where p.paymentStatus = :status and p.reference is not null "
+            + "and p.createdAt < :cutoff")
+    LocalDateTime findOldestStaleCreatedAt(@Param("status") PaymentStatus status,
+                                           @Param("cutoff") LocalDateTime cutoff);
+
+    // Keyset pages of one payer's or property's history, newest first: payments ordered by
+    // (createdAt, id) descending that come after the given position. Served by
+    // idx_payments_user_created_at, idx_payments_property_created_at and idx_payments_email_created_at.
+    @Query("select p from Payment p where p.userId = :userId "
+            + "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) "
+            + "order by p.createdAt desc, p.id desc")
+    List<Payment> findUserHistory(@Param("userId") UUID userId,
+                                  @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                  @Param("beforeId") UUID beforeId,
+                                  Pageable page);
+
+    @Query("select p from Payment p where p.propertyId = :propertyId "
+            + "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) "
+            + "order by p.createdAt desc, p.id desc")
+    List<Payment> findPropertyHistory(@Param("propertyId") UUID propertyId,
+                                      @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                      @Param("beforeId") UUID beforeId,
+                                      Pageable page);
+
+    @Query("select p from Payment p where p.email = :email "
+            + "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) "
+            + "order by p.createdAt desc, p.id desc")
+    List<Payment> findEmailHistory(@Param("email") String email,
+                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                   @Param("beforeId") UUID beforeId,
+                                   Pageable page);
+
+    // The latest payments of each of several properties in one statement: at most :limit rows per
+    // property, ranked by (createdAt, id) descending, ordered by property and then newest first.
+    @Query(value = "select p.* from payments p join ("
+            + "select id, row_number() over (partition by property_id order by created_at desc, id desc) as rn "
+            + "from payments where property_id in (:propertyIds)) ranked on ranked.id = p.id "
+            + "where ranked.rn <= :limit order by p.property_id, p.created_at desc, p.id desc",
+            nativeQuery = true)
+    List<Payment> findLatestByPropertyIds(@Param("propertyIds") Collection<UUID> propertyIds,
+                                          @Param("limit") int limit);
+
+    // Payments in the given status and types that no payout covers yet, with the recipient
+    // registered for their property, ordered by recipient so that a page holds all of a
+    // recipient's payments where possible. Rows: [id, amount, currency, recipientCode].
+    @Query("select p.id, p.amount, p.currency, r.recipientCode from Payment p, PayoutRecipient r where r.propertyId = p.propertyId "
+            + "and p.paymentStatus = :status and p.paymentType in :types and p.payoutId is null "
+            + "order by r.recipientCode, p.id")
+    List<Object[]> findUnpaidOut(@Param("status") PaymentStatus status,
+                                 @Param("types") Collection<PaymentType> types,
+                                 Pageable page);
+
+    // Links payments to a payout unless another payout already covers them; returns the number linked.
+    // Leaves updatedAt alone: rollup backfills bucket payments without paidAt by it.
+    @Modifying
+    @Query("update Payment p set p.payoutId = :payoutId, p.version = p.version + 1 "
+            + "where p.id in :ids and p.payoutId is null")
+    int assignPayout(@Param("payoutId") UUID payoutId, @Param("ids") Collection<UUID> ids);
+
+    // Detaches the payments of a failed or reversed payout so that a later run pays them out again.
+    @Modifying
+    @Query("update Payment p set p.payoutId = null, p.version = p.version + 1 where p.payoutId = :payoutId")
+    int releasePayout(@Param("payoutId") UUID payoutId);
+}
@@ -0,0 +1,39 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.PaymentRollup;
+import com.zennest.payment.model.PaymentType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, Long> {
+
+    // All buckets in an inclusive day range, served by the unique (bucket_date, ...) index.
+    List<PaymentRollup> findByBucketDateBetweenOrderByBucketDate(LocalDate from, LocalDate to);
+
+    boolean existsByBucketDateAndPaymentTypeAndChannelAndCurrency(LocalDate bucketDate, PaymentType paymentType,
+                                                                  String channel, String currency);
+
+    // Atomically adds a delta to an existing bucket; returns 0 if the bucket does not exist yet.
+    @Modifying
+    @Query("update PaymentRollup r set r.paymentCount = r.paymentCount + :count, "
+            + "r.amountTotal = r.amountTotal + :amount, r.feesTotal = r.feesTotal + :fees, r.updatedAt = :now "
+            + "where r.bucketDate = :day and r.paymentType = :type and r.channel = :channel and r.currency = :currency")
+    int increment(@Param("day") LocalDate day,
+                  @Param("type") PaymentType type,
+                  @Param("channel") String channel,
+                  @Param("currency") String currency,
+                  @Param("count") long count,
+                  @Param("amount") long amount,
+                  @Param("fees") long fees,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from PaymentRollup r where r.bucketDate = :day")
+    int deleteByBucketDate(@Param("day") LocalDate day);
+}
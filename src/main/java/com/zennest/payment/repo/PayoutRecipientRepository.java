@@ -0,0 +1,9 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.PayoutRecipient;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface PayoutRecipientRepository extends JpaRepository<PayoutRecipient, UUID> {
+}
@@ -0,0 +1,26 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.Payout;
+import com.zennest.payment.model.PayoutStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PayoutRepository extends JpaRepository<Payout, UUID> {
+
+    Optional<Payout> findByReference(String reference);
+
+    List<Payout> findByReferenceIn(Collection<String> references);
+
+    // Keyset page of payouts in the given status, in id (creation) order; served by idx_payouts_status_id
+    List<Payout> findByStatusAndIdGreaterThanOrderById(PayoutStatus status, UUID afterId, Pageable page);
+
+    // Keyset page of payouts in the given status last changed before the cutoff, in id order
+    List<Payout> findByStatusAndUpdatedAtBeforeAndIdGreaterThanOrderById(PayoutStatus status, LocalDateTime updatedBefore,
+                                                                        UUID afterId, Pageable page);
+}
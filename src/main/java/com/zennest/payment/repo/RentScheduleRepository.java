@@ -0,0 +1,36 @@
+package com.zennest.payment.repo;
+
+import com.zennest.payment.model.RentSchedule;
+import com.zennest.payment.model.RentScheduleStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface RentScheduleRepository extends JpaRepository<RentSchedule, UUID> {
+
+    // Schedules in the given status whose next attempt is due, earliest first; a range scan of
+    // idx_rent_schedules_due that stops after one page, however many schedules are not due yet.
+    @Query("select s from RentSchedule s where s.status = :status and s.nextAttemptAt <= :now order by s.nextAttemptAt")
+    List<RentSchedule> findDue(@Param("status") RentScheduleStatus status,
+                               @Param("now") LocalDateTime now,
+                               Pageable page);
+
+    // Stores a reusable card authorization on the tenant's schedules for the property that are
+    // in one of the given statuses, and activates them. Returns the number of schedules updated.
+    @Modifying
+    @Query("update RentSchedule s set s.authorizationCode = :authorizationCode, s.status = :active, "
+            + "s.version = s.version + 1 "
+            + "where s.email = :email and s.propertyId = :propertyId and s.status in :statuses")
+    int storeAuthorization(@Param("email") String email,
+                           @Param("propertyId") UUID propertyId,
+                           @Param("authorizationCode") String authorizationCode,
+                           @Param("statuses") Collection<RentScheduleStatus> statuses,
+                           @Param("active") RentScheduleStatus active);
+}
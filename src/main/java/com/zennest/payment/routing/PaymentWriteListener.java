@@ -0,0 +1,27 @@
+package com.zennest.payment.routing;
+
+import com.zennest.payment.model.Payment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Records every payment written through JPA in {@link RecentWrites}, by id and by reference.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class PaymentWriteListener {
+
+    private final RecentWrites recentWrites;
+
+    public PaymentWriteListener(RecentWrites recentWrites) {
+        this.recentWrites = recentWrites;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void written(Payment payment) {
+        recentWrites.record(payment.getId() == null ? null : payment.getId().toString());
+        recentWrites.record(payment.getReference());
+    }
+}
@@ -0,0 +1,93 @@
+package com.zennest.payment.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which payments this instance wrote recently, so reads of them can be pinned to
+ * the primary while replicas may still be catching up.
+ * <p>
+ * A key (payment id or reference) is recorded when the transaction that wrote it commits and
+ * stays recent for {@code payments.datasource.replica.read-your-writes-window}, which should
+ * exceed the replication lag seen in practice. {@link #readYourWrites} runs a read with
+ * read-only connections routed to the primary when its key is recent; the read must open the
+ * transaction's connection, i.e. be its first query. Only writes made through this instance
+ * are known: a read served by another instance right after a write may still see the
+ * replica's older copy.
+ */
+@Component
+public class RecentWrites {
+
+    // Expired entries are only purged once the map holds this many keys
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Long> writtenAt = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public RecentWrites(@Value("${payments.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Records a write of {@code key}, effective when the current transaction commits (or
+     * immediately outside one).
+     */
+    public void record(String key) {
+        if (key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    touch(key);
+                }
+            });
+        } else {
+            touch(key);
+        }
+    }
+
+    public boolean isRecent(String key) {
+        Long at = key == null ? null : writtenAt.get(key);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+
+    /**
+     * Runs {@code read} against the primary if {@code key} was written within the window,
+     * and with the normal routing otherwise.
+     */
+    public <T> T readYourWrites(String key, Supplier<T> read) {
+        if (!isRecent(key) || isPinned()) {
+            return read.get();
+        }
+        pinned.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            pinned.remove();
+        }
+    }
+
+    /**
+     * Whether read-only connections opened by the current thread must come from the primary.
+     */
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+
+    private void touch(String key) {
+        long now = System.nanoTime();
+        writtenAt.put(key, now);
+        if (writtenAt.size() > PURGE_THRESHOLD) {
+            writtenAt.values().removeIf(at -> now - at >= windowNanos);
+        }
+    }
+}
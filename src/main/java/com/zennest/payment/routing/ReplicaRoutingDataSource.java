@@ -0,0 +1,93 @@
+package com.zennest.payment.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions: round-robin over the replicas, or the
+ * primary while {@link RecentWrites#isPinned()}. A replica that cannot supply a connection is
+ * skipped for that call and the primary serves the read instead.
+ * <p>
+ * Metrics: {@code payments.datasource.reads} (read-only connections by {@code target}:
+ * {@code replica}, {@code primary} for pinned reads, {@code fallback} when a replica failed).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final RecentWrites recentWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                    RecentWrites recentWrites, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.recentWrites = recentWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.pinnedReads = readCounter(meterRegistry, "primary");
+        this.fallbackReads = readCounter(meterRegistry, "fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || recentWrites.isPinned()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            pinnedReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = target.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            fallbackReads.increment();
+            logger.warn("Replica unavailable, reading from the primary: {}", e.toString());
+            return primary.getConnection();
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("payments.datasource.reads")
+                .description("Connections opened for read-only transactions, by target")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
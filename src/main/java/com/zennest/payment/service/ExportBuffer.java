@@ -0,0 +1,98 @@
+package com.zennest.payment.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Fixed-size byte buffer in front of the response stream used by the payment export.
+ * <p>
+ * Values are encoded straight into the buffer (ASCII fast path, UTF-8 otherwise, numbers
+ * digit by digit), so writing a row allocates no intermediate strings or byte arrays and
+ * the underlying stream only sees large, sequential writes.
+ */
+final class ExportBuffer {
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[20];
+    private int position;
+
+    ExportBuffer(OutputStream out, int size) {
+        this.out = out;
+        this.buffer = new byte[size];
+    }
+
+    ExportBuffer ascii(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    ExportBuffer text(CharSequence value) throws IOException {
+        return text(value, 0, value.length());
+    }
+
+    ExportBuffer text(CharSequence value, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ascii(c);
+            } else {
+                codePoint(Character.codePointAt(value, i));
+                if (Character.isHighSurrogate(c)) {
+                    i++;
+                }
+            }
+        }
+        return this;
+    }
+
+    ExportBuffer number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return text(Long.toString(value));
+        }
+        if (value < 0) {
+            ascii('-');
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (length > 0) {
+            ascii((char) digits[--length]);
+        }
+        return this;
+    }
+
+    void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    void finish() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void codePoint(int cp) throws IOException {
+        if (cp < 0x800) {
+            ascii((char) (0xC0 | (cp >> 6)));
+            ascii((char) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            ascii((char) (0xE0 | (cp >> 12)));
+            ascii((char) (0x80 | ((cp >> 6) & 0x3F)));
+            ascii((char) (0x80 | (cp & 0x3F)));
+        } else {
+            ascii((char) (0xF0 | (cp >> 18)));
+            ascii((char) (0x80 | ((cp >> 12) & 0x3F)));
+            ascii((char) (0x80 | ((cp >> 6) & 0x3F)));
+            ascii((char) (0x80 | (cp & 0x3F)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.RevenueBucket;
+import com.zennest.payment.DTO.RevenueDimension;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentRollup;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.repo.PaymentRollupRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Maintains and serves the pre-aggregated revenue rollups in {@code payment_rollups}.
+ * <p>
+ * Rollups are keyed by settlement day, {@link com.zennest.payment.model.PaymentType},
+ * channel and currency and only count {@link PaymentStatus#SUCCESS} payments. A status
+ * transition into SUCCESS adds the payment to its bucket; a transition out of SUCCESS
+ * removes it again. Queries read only the rollup table, whose size depends on the number
+ * of days and dimension values rather than on the number of payments.
+ */
+@Service
+public class PaymentAnalyticsService {
+
+    private final PaymentRollupRepository rollupRepository;
+    private final TransactionTemplate newBucketTransaction;
+
+    public PaymentAnalyticsService(PaymentRollupRepository rollupRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.newBucketTransaction = new TransactionTemplate(transactionManager);
+        this.newBucketTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Applies a payment status transition to the rollups. Transitions that neither enter
+     * nor leave SUCCESS are ignored.
+     *
+     * @param payment        the payment after the transition
+     * @param previousStatus the status the payment had before the transition
+     */
+    @Transactional
+    public void recordTransition(Payment payment, PaymentStatus previousStatus) {
+        PaymentStatus currentStatus = payment.getPaymentStatus();
+        int direction;
+        if (currentStatus == PaymentStatus.SUCCESS && previousStatus != PaymentStatus.SUCCESS) {
+            direction = 1;
+        } else if (previousStatus == PaymentStatus.SUCCESS && currentStatus != PaymentStatus.SUCCESS) {
+            direction = -1;
+        } else {
+            return;
+        }
+
+        LocalDate day = bucketDay(payment);
+        String channel = PaymentRollup.channelOf(payment.getChannel());
+        String currency = PaymentRollup.currencyOf(payment.getCurrency());
+        long amount = (long) direction * payment.getAmount();
+        long fees = payment.getFees() == null ? 0 : (long) direction * payment.getFees();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (rollupRepository.increment(day, payment.getPaymentType(), channel, currency,
+                direction, amount, fees, now) == 0) {
+            createEmptyBucket(day, payment, channel, currency);
+            rollupRepository.increment(day, payment.getPaymentType(), channel, currency,
+                    direction, amount, fees, now);
+        }
+    }
+
+    /**
+     * Sums the rollups of an inclusive day range along one dimension.
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueBucket> getRevenue(LocalDate from, LocalDate to, RevenueDimension dimension) {
+        Function<PaymentRollup, String> keyOf = switch (dimension) {
+            case DAY -> rollup -> rollup.getBucketDate().toString();
+            case PAYMENT_TYPE -> rollup -> rollup.getPaymentType().name();
+            case CHANNEL -> PaymentRollup::getChannel;
+            case CURRENCY -> PaymentRollup::getCurrency;
+        };
+        Map<String, long[]> totals = new TreeMap<>();
+        for (PaymentRollup rollup : getRollups(from, to)) {
+            long[] sums = totals.computeIfAbsent(keyOf.apply(rollup), key -> new long[3]);
+            sums[0] += rollup.getPaymentCount();
+            sums[1] += rollup.getAmountTotal();
+            sums[2] += rollup.getFeesTotal();
+        }
+        List<RevenueBucket> buckets = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> buckets.add(new RevenueBucket(key, sums[0], sums[1], sums[2])));
+        return buckets;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentRollup> getRollups(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        return rollupRepository.findByBucketDateBetweenOrderByBucketDate(from, to);
+    }
+
+    /**
+     * The settlement day a payment is bucketed under: Paystack's paid_at when known,
+     * otherwise the day the transition was recorded.
+     */
+    static LocalDate bucketDay(Payment payment) {
+        if (payment.getPaidAt() != null) {
+            return payment.getPaidAt().toLocalDate();
+        }
+        return payment.getUpdatedAt() != null ? payment.getUpdatedAt().toLocalDate() : LocalDate.now();
+    }
+
+    /**
+     * Inserts a zero bucket in its own transaction so a concurrent insert of the same key
+     * only costs a retry of the increment, without aborting the caller's transaction.
+     */
+    private void createEmptyBucket(LocalDate day, Payment payment, String channel, String currency) {
+        try {
+            newBucketTransaction.executeWithoutResult(status -> {
+                if (!rollupRepository.existsByBucketDateAndPaymentTypeAndChannelAndCurrency(
+                        day, payment.getPaymentType(), channel, currency)) {
+                    rollupRepository.saveAndFlush(new PaymentRollup(day, payment.getPaymentType(), channel, currency,
+                            0, 0, 0));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another transaction created the bucket first
+        }
+    }
+}
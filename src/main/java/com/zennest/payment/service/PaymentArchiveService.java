@@ -0,0 +1,141 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PayoutStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves successful payments older than {@code payments.archive.after} from {@code payments} to
+ * {@code payments_archive}, keeping the live table, its indexes and its counts sized to the
+ * recent window.
+ * <p>
+ * Each batch locks the oldest successful rows, copies them with one INSERT ... SELECT and deletes
+ * them in the same transaction, so a payment is always in exactly one of the two tables. The
+ * column list is read from the archive at the start of every run: the shared
+ * {@code AbstractPayment} mapping keeps it a subset of the live table's, and reading it per run
+ * follows columns dropped by a migration (src/main/resources/db/migration) while the service runs. Only {@code SUCCESS} is final (see
+ * {@link PaymentStatus#canTransitionTo}): pending payments and failed ones, which a late
+ * success may still settle, stay live, so write paths only need the live table. {@code RENT} and
+ * {@code BOOKING} payments also stay live until the payout covering them succeeded before the
+ * cutoff: payouts link, release and pay out again only live payments, and a successful transfer
+ * can still be reversed for a while. Lookups by id or
+ * reference fall back to the archive through
+ * {@code PaymentRepository.findByIdIncludingArchive}/{@code findByReferenceIncludingArchive}, and
+ * the rollup backfill aggregates both tables.
+ */
+@Service
+public class PaymentArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentArchiveService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final Counter archivedRows;
+
+    public PaymentArchiveService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payments.archive.enabled:true}") boolean enabled,
+                                 @Value("${payments.archive.after:90d}") Duration archiveAfter,
+                                 @Value("${payments.archive.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archiveAfter = archiveAfter;
+        this.batchSize = Math.max(1, batchSize);
+        this.archivedRows = Counter.builder("payments.archive.rows")
+                .description("Successful payments moved to payments_archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.archive.interval-ms:3600000}",
+            initialDelayString = "${payments.archive.initial-delay-ms:300000}")
+    public void archiveSettled() {
+        if (enabled) {
+            archiveSettledBefore(LocalDateTime.now().minus(archiveAfter));
+        }
+    }
+
+    /**
+     * Archives every successful payment created before the cutoff, one batch per transaction.
+     *
+     * @return the number of payments archived
+     */
+    public long archiveSettledBefore(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        String columns = columnList();
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff, columns));
+            total += moved;
+            archivedRows.increment(moved);
+        } while (moved == batchSize);
+        if (total > 0) {
+            logger.info("Archived {} settled payment(s) created before {} in {} ms",
+                    total, cutoff, System.currentTimeMillis() - start);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, String columns) {
+        List<UUID> ids = jdbcTemplate.queryForList(
+                "select id from payments p where payment_status_code = ? and created_at < ? "
+                        + "and (payment_type_code not in (?, ?) or exists (select 1 from payouts o "
+                        + "where o.id = p.payout_id and o.status = ? and o.updated_at < ?)) "
+                        + "order by created_at limit ? for update",
+                UUID.class, PaymentStatus.SUCCESS.getCode(), cutoff,
+                PaymentType.RENT.getCode(), PaymentType.BOOKING.getCode(), PayoutStatus.SUCCESS.getCode(), cutoff,
+                batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(LocalDateTime.now());
+        args.addAll(ids);
+        int copied = jdbcTemplate.update("insert into payments_archive (" + columns + ", archived_at) "
+                + "select " + columns + ", ? from payments where id in (" + placeholders + ")", args.toArray());
+        int deleted = jdbcTemplate.update("delete from payments where id in (" + placeholders + ")", ids.toArray());
+        if (copied != ids.size() || deleted != ids.size()) {
+            throw new IllegalStateException("Archived " + copied + " and deleted " + deleted
+                    + " of " + ids.size() + " locked payments");
+        }
+        return deleted;
+    }
+
+    private String columnList() {
+        return jdbcTemplate.query("select * from payments_archive where 1 = 0", rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<String> names = new ArrayList<>(metaData.getColumnCount());
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (!"archived_at".equalsIgnoreCase(metaData.getColumnName(i))) {
+                    names.add(metaData.getColumnName(i));
+                }
+            }
+            return String.join(", ", names);
+        });
+    }
+}
@@ -7,12 +7,16 @@ import com.zennest.payment.repo.PaymentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.UUID;
 
+// Sample data for local development and tests only; never seeds (or queries) production
 @Component
+@Profile({"dev", "test"})
 public class PaymentDataLoader implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentDataLoader.class);
@@ -22,7 +26,9 @@ public class PaymentDataLoader implements CommandLineRunner {
         this.paymentRepository = paymentRepository;
     }
 
+    // Read-write, so the emptiness check is answered by the primary rather than a replica
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
         if (paymentRepository.count() == 0) {  // Check if the repository is empty
             Payment payment1 = new Payment("user1@example.com", 100, PaymentStatus.PENDING, PaymentType.BOOKING);
@@ -0,0 +1,290 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.ExportFormat;
+import com.zennest.payment.model.CodedEnumConverter;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentStatusConverter;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaymentTypeConverter;
+import com.zennest.payment.model.PaystackConfirmationStatusConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams payments for reconciliation as CSV or NDJSON without materialising entities.
+ * <p>
+ * Rows are read through a server-side cursor: the query runs in a read-only transaction
+ * (PostgreSQL only honours the fetch size with auto-commit off) with a fixed fetch size,
+ * ordered by the indexed {@code created_at}. Archived payments are included: both tables are
+ * range-scanned on {@code created_at} and merged in order. Each row is encoded straight into an
+ * {@link ExportBuffer} on top of the response stream, so memory use is one fetch batch
+ * plus one buffer regardless of how many rows are exported.
+ */
+@Lazy
+@Service
+public class PaymentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExportService.class);
+
+    private static final String[] COLUMNS = {
+            "id", "reference", "email", "amount", "currency", "fees", "channel", "payment_type",
+            "payment_status", "paystack_confirmation", "paystack_transaction_id", "gateway_response",
+            "user_id", "property_id", "paid_at", "created_at", "updated_at"
+    };
+
+    // Columns written as JSON numbers rather than strings
+    private static final boolean[] NUMERIC = new boolean[COLUMNS.length];
+
+    // Enum fields stored as smallint codes in <name>_code columns, written as the enum name
+    private static final CodedEnumConverter<?>[] CODED = new CodedEnumConverter<?>[COLUMNS.length];
+
+    static {
+        NUMERIC[3] = true;
+        NUMERIC[5] = true;
+        CODED[7] = new PaymentTypeConverter();
+        CODED[8] = new PaymentStatusConverter();
+        CODED[9] = new PaystackConfirmationStatusConverter();
+    }
+
+    private static final String COLUMN_LIST = selectList();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int bufferSize;
+    private final Counter rowCounter;
+    private final Timer exportTimer;
+
+    public PaymentExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${payments.export.fetch-size:1000}") int fetchSize,
+                                @Value("${payments.export.buffer-size:65536}") int bufferSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.bufferSize = bufferSize;
+        this.rowCounter = Counter.builder("payments.export.rows")
+                .description("Total number of payment rows exported")
+                .register(meterRegistry);
+        this.exportTimer = Timer.builder("payments.export.timer")
+                .description("Time taken to stream a payment export")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes every payment created in {@code [from, to)} that matches the optional filters.
+     *
+     * @param out the destination stream; it is flushed but not closed
+     * @return the number of rows written
+     */
+    public long export(LocalDateTime from, LocalDateTime to, PaymentStatus status, PaymentType type,
+                       ExportFormat format, OutputStream out) {
+        StringBuilder filter = new StringBuilder(" where created_at >= ? and created_at < ?");
+        List<Object> filterArgs = new ArrayList<>(List.of(from, to));
+        if (status != null) {
+            filter.append(" and payment_status_code = ?");
+            filterArgs.add(status.getCode());
+        }
+        if (type != null) {
+            filter.append(" and payment_type_code = ?");
+            filterArgs.add(type.getCode());
+        }
+        String sql = "select " + COLUMN_LIST + " from payments" + filter
+                + " union all select " + COLUMN_LIST + " from payments_archive" + filter
+                + " order by created_at";
+        List<Object> args = new ArrayList<>(filterArgs);
+        args.addAll(filterArgs);
+
+        ExportBuffer buffer = new ExportBuffer(out, bufferSize);
+        StringBuilder scratch = new StringBuilder(32);
+        long[] rows = {0};
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try {
+                if (format == ExportFormat.CSV) {
+                    writeCsvHeader(buffer);
+                }
+                jdbcTemplate.query(sql, rs -> {
+                    try {
+                        if (format == ExportFormat.CSV) {
+                            writeCsvRow(rs, buffer, scratch);
+                        } else {
+                            writeJsonRow(rs, buffer, scratch);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }, args.toArray());
+                buffer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        exportTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        rowCounter.increment(rows[0]);
+        logger.info("Exported {} payments created between {} and {} as {}", rows[0], from, to, format);
+        return rows[0];
+    }
+
+    private static String selectList() {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                list.append(", ");
+            }
+            list.append(COLUMNS[i]).append(CODED[i] != null ? "_code" : "");
+        }
+        return list.toString();
+    }
+
+    private static void writeCsvHeader(ExportBuffer buffer) throws IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                buffer.ascii(',');
+            }
+            buffer.text(COLUMNS[i]);
+        }
+        buffer.ascii('\n');
+    }
+
+    private static void writeCsvRow(ResultSet rs, ExportBuffer buffer, StringBuilder scratch)
+            throws SQLException, IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                buffer.ascii(',');
+            }
+            if (NUMERIC[i]) {
+                long value = rs.getLong(i + 1);
+                if (!rs.wasNull()) {
+                    buffer.number(value);
+                }
+                continue;
+            }
+            CharSequence value = read(rs, i, scratch);
+            if (value != null) {
+                writeCsvField(buffer, value);
+            }
+        }
+        buffer.ascii('\n');
+    }
+
+    private static void writeJsonRow(ResultSet rs, ExportBuffer buffer, StringBuilder scratch)
+            throws SQLException, IOException {
+        buffer.ascii('{');
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                buffer.ascii(',');
+            }
+            buffer.ascii('"').text(COLUMNS[i]).ascii('"').ascii(':');
+            if (NUMERIC[i]) {
+                long value = rs.getLong(i + 1);
+                if (rs.wasNull()) {
+                    buffer.text("null");
+                } else {
+                    buffer.number(value);
+                }
+                continue;
+            }
+            CharSequence value = read(rs, i, scratch);
+            if (value == null) {
+                buffer.text("null");
+            } else {
+                writeJsonString(buffer, value);
+            }
+        }
+        buffer.ascii('}').ascii('\n');
+    }
+
+    /**
+     * Reads a non-numeric column; enum codes are decoded to their names and timestamps are
+     * formatted into the reused scratch builder.
+     */
+    private static CharSequence read(ResultSet rs, int index, StringBuilder scratch) throws SQLException {
+        if (CODED[index] != null) {
+            int code = rs.getInt(index + 1);
+            return rs.wasNull() ? null : CODED[index].fromCode(code).name();
+        }
+        if (COLUMNS[index].endsWith("_at")) {
+            LocalDateTime value = rs.getObject(index + 1, LocalDateTime.class);
+            if (value == null) {
+                return null;
+            }
+            scratch.setLength(0);
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, scratch);
+            return scratch;
+        }
+        return rs.getString(index + 1);
+    }
+
+    private static void writeCsvField(ExportBuffer buffer, CharSequence value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            buffer.text(value);
+            return;
+        }
+        buffer.ascii('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.ascii('"');
+            }
+            if (c < 0x80) {
+                buffer.ascii(c);
+            } else {
+                int end = Character.isHighSurrogate(c) ? Math.min(i + 2, value.length()) : i + 1;
+                buffer.text(value, i, end);
+                i = end - 1;
+            }
+        }
+        buffer.ascii('"');
+    }
+
+    private static void writeJsonString(ExportBuffer buffer, CharSequence value) throws IOException {
+        buffer.ascii('"');
+        int runStart = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                buffer.text(value, runStart, i);
+                switch (c) {
+                    case '"' -> buffer.ascii('\\').ascii('"');
+                    case '\\' -> buffer.ascii('\\').ascii('\\');
+                    case '\n' -> buffer.ascii('\\').ascii('n');
+                    case '\r' -> buffer.ascii('\\').ascii('r');
+                    case '\t' -> buffer.ascii('\\').ascii('t');
+                    default -> buffer.text(String.format("\\u%04x", (int) c));
+                }
+                runStart = i + 1;
+            }
+        }
+        buffer.text(value, runStart, value.length());
+        buffer.ascii('"');
+    }
+}
@@ -0,0 +1,125 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaymentPage;
+import com.zennest.payment.DTO.PropertyPayments;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.repo.PaymentRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Payment histories of a user, a property or a payer email, for the booking and property
+ * services.
+ * <p>
+ * Histories are paged with keyset cursors, newest first: a cursor encodes the
+ * {@code (createdAt, id)} of the last payment returned, and the next page continues strictly
+ * after it through the {@code (key, created_at)} indexes, so deep pages cost the same as the
+ * first. Like the other list queries they cover the live table, not {@code payments_archive}.
+ */
+@Service
+public class PaymentHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_PROPERTY_IDS = 100;
+
+    // Position before the newest possible payment
+    private static final LocalDateTime START_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final UUID START_ID = new UUID(-1L, -1L);
+
+    private final PaymentRepository paymentRepository;
+
+    public PaymentHistoryService(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentPage byUser(UUID userId, int first, String after) {
+        return page(first, after, (createdAt, id, page) -> paymentRepository.findUserHistory(userId, createdAt, id, page));
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentPage byProperty(UUID propertyId, int first, String after) {
+        return page(first, after, (createdAt, id, page) -> paymentRepository.findPropertyHistory(propertyId, createdAt, id, page));
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentPage byEmail(String email, int first, String after) {
+        return page(first, after, (createdAt, id, page) -> paymentRepository.findEmailHistory(email, createdAt, id, page));
+    }
+
+    /**
+     * Loads the latest payments of several properties with one query.
+     *
+     * @return one entry per distinct property id, in the order given, with at most
+     * {@code limitPerProperty} payments each (an empty list for properties without payments)
+     */
+    @Transactional(readOnly = true)
+    public List<PropertyPayments> latestByProperties(List<UUID> propertyIds, int limitPerProperty) {
+        checkPageSize(limitPerProperty);
+        if (propertyIds.size() > MAX_PROPERTY_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_PROPERTY_IDS + " property ids per query");
+        }
+        Map<UUID, List<Payment>> byProperty = new LinkedHashMap<>();
+        new LinkedHashSet<>(propertyIds).forEach(id -> byProperty.put(id, new ArrayList<>()));
+        if (byProperty.isEmpty()) {
+            return List.of();
+        }
+        for (Payment payment : paymentRepository.findLatestByPropertyIds(byProperty.keySet(), limitPerProperty)) {
+            byProperty.get(payment.getPropertyId()).add(payment);
+        }
+        return byProperty.entrySet().stream()
+                .map(entry -> new PropertyPayments(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private PaymentPage page(int first, String after, HistoryQuery query) {
+        checkPageSize(first);
+        LocalDateTime createdAt = START_CREATED_AT;
+        UUID id = START_ID;
+        if (after != null) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split("\\|", 2);
+                createdAt = LocalDateTime.parse(position[0]);
+                id = UUID.fromString(position[position.length - 1]);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        // One extra row tells whether there is a next page
+        List<Payment> payments = query.find(createdAt, id, PageRequest.of(0, first + 1));
+        if (payments.size() <= first) {
+            return new PaymentPage(payments, null);
+        }
+        Payment last = payments.get(first - 1);
+        return new PaymentPage(payments.subList(0, first), encode(last));
+    }
+
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String encode(Payment payment) {
+        String position = payment.getCreatedAt() + "|" + payment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface HistoryQuery {
+        List<Payment> find(LocalDateTime beforeCreatedAt, UUID beforeId, Pageable page);
+    }
+}
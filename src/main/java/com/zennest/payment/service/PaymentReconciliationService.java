@@ -0,0 +1,249 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.ReconciliationResult;
+import com.zennest.payment.DTO.StalePayment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.ratelimit.RateBudget;
+import com.zennest.payment.repo.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settles payments whose webhook never arrived by asking Paystack for their outcome.
+ * <p>
+ * Every sweep walks the {@code PENDING} payments older than {@code payments.reconciliation.min-age}
+ * in (createdAt, id) keyset pages, so each page is an index range scan however deep the backlog
+ * is. A page is verified concurrently on virtual threads, bounded by
+ * {@code payments.reconciliation.concurrency} in-flight calls and paced by a
+ * {@link RateBudget} of {@code payments.reconciliation.rate-per-second}; the final outcomes
+ * of the page are then written with one batched {@link PaymentStatusService#applyChargeUpdates}
+ * call. Payments Paystack still reports as in progress are left untouched. When a sweep stops
+ * at {@code payments.reconciliation.max-per-run}, the next one resumes after the last
+ * payment checked; once the end is reached the walk starts over.
+ * <p>
+ * Metrics: {@code payments.reconciliation.checked} (by outcome), {@code payments.reconciliation.backlog}
+ * and {@code payments.reconciliation.lag.seconds} (count and age of the oldest stale pending
+ * payment, refreshed after every sweep) and the {@code payments.reconciliation.settle.lag} timer
+ * (creation to settlement of each reconciled payment).
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private static final LocalDateTime START_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID START_ID = new UUID(0, 0);
+
+    private final PaymentRepository paymentRepository;
+    private final PaystackService paystackService;
+    private final PaymentStatusService paymentStatusService;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int pageSize;
+    private final int maxPerRun;
+    private final Semaphore inFlight;
+    private final RateBudget rateBudget;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Keyset position of the walk; only touched by the synchronized sweep
+    private LocalDateTime cursorCreatedAt = START_CREATED_AT;
+    private UUID cursorId = START_ID;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestStaleEpochMillis = new AtomicLong();
+    private final Counter settledCounter;
+    private final Counter unsettledCounter;
+    private final Counter errorCounter;
+    private final Timer settleLag;
+
+    public PaymentReconciliationService(PaymentRepository paymentRepository,
+                                        PaystackService paystackService,
+                                        PaymentStatusService paymentStatusService,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${payments.reconciliation.enabled:true}") boolean enabled,
+                                        @Value("${payments.reconciliation.min-age:15m}") Duration minAge,
+                                        @Value("${payments.reconciliation.page-size:100}") int pageSize,
+                                        @Value("${payments.reconciliation.max-per-run:5000}") int maxPerRun,
+                                        @Value("${payments.reconciliation.concurrency:8}") int concurrency,
+                                        @Value("${payments.reconciliation.rate-per-second:20}") double ratePerSecond) {
+        this.paymentRepository = paymentRepository;
+        this.paystackService = paystackService;
+        this.paymentStatusService = paymentStatusService;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPerRun = Math.max(1, maxPerRun);
+        this.inFlight = new Semaphore(Math.max(1, concurrency));
+        this.rateBudget = new RateBudget(ratePerSecond);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("payments.reconciliation.backlog", backlog, AtomicLong::get)
+                .description("Pending payments old enough to be reconciled")
+                .register(meterRegistry);
+        Gauge.builder("payments.reconciliation.lag.seconds", this, PaymentReconciliationService::oldestStaleAgeSeconds)
+                .description("Age of the oldest pending payment awaiting reconciliation")
+                .register(meterRegistry);
+        this.settledCounter = checkedCounter(meterRegistry, "settled");
+        this.unsettledCounter = checkedCounter(meterRegistry, "unsettled");
+        this.errorCounter = checkedCounter(meterRegistry, "error");
+        this.settleLag = Timer.builder("payments.reconciliation.settle.lag")
+                .description("Time from creation to settlement of payments settled by reconciliation")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.reconciliation.interval-ms:60000}",
+            initialDelayString = "${payments.reconciliation.initial-delay-ms:60000}")
+    public void reconcileStale() {
+        if (!enabled) {
+            return;
+        }
+        ReconciliationResult result = reconcileCreatedBefore(LocalDateTime.now().minus(minAge));
+        if (result.checked() > 0) {
+            logger.info("Reconciled {} stale pending payment(s): {} settled, {} error(s) in {} ms; {} remaining",
+                    result.checked(), result.settled(), result.errors(), result.durationMillis(), backlog.get());
+        }
+    }
+
+    /**
+     * Verifies up to {@code max-per-run} pending payments created before the cutoff and
+     * applies the final outcomes Paystack reports.
+     */
+    public synchronized ReconciliationResult reconcileCreatedBefore(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        int checked = 0;
+        int settled = 0;
+        int errors = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (checked < maxPerRun) {
+                int limit = Math.min(pageSize, maxPerRun - checked);
+                List<StalePayment> page = paymentRepository.findStaleAfter(
+                        PaymentStatus.PENDING, cutoff, cursorCreatedAt, cursorId, PageRequest.of(0, limit));
+                if (!page.isEmpty()) {
+                    PageOutcome outcome = reconcilePage(page, executor);
+                    settled += outcome.settled();
+                    errors += outcome.errors();
+                    checked += page.size();
+                    StalePayment last = page.get(page.size() - 1);
+                    cursorCreatedAt = last.createdAt();
+                    cursorId = last.id();
+                }
+                if (page.size() < limit) {
+                    cursorCreatedAt = START_CREATED_AT;
+                    cursorId = START_ID;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Reconciliation interrupted after {} payment(s)", checked);
+        }
+        refreshBacklog(cutoff);
+        return new ReconciliationResult(checked, settled, errors, System.currentTimeMillis() - start);
+    }
+
+    private PageOutcome reconcilePage(List<StalePayment> page, ExecutorService executor) throws InterruptedException {
+        List<Callable<PaystackChargeUpdate>> calls = new ArrayList<>(page.size());
+        for (StalePayment payment : page) {
+            calls.add(() -> verify(payment.reference()));
+        }
+        List<Future<PaystackChargeUpdate>> futures = executor.invokeAll(calls);
+
+        List<PaystackChargeUpdate> finalUpdates = new ArrayList<>();
+        List<StalePayment> finalPayments = new ArrayList<>();
+        int errors = 0;
+        for (int i = 0; i < page.size(); i++) {
+            PaystackChargeUpdate update;
+            try {
+                update = futures.get(i).get();
+            } catch (ExecutionException e) {
+                update = null;
+            }
+            if (update == null) {
+                errors++;
+                errorCounter.increment();
+            } else if (PaymentStatus.fromGatewayStatus(update.gatewayStatus()) == null) {
+                unsettledCounter.increment();
+            } else {
+                finalUpdates.add(update);
+                finalPayments.add(page.get(i));
+            }
+        }
+
+        paymentStatusService.applyChargeUpdates(finalUpdates);
+        LocalDateTime now = LocalDateTime.now();
+        for (StalePayment payment : finalPayments) {
+            settleLag.record(Duration.between(payment.createdAt(), now));
+        }
+        settledCounter.increment(finalUpdates.size());
+        return new PageOutcome(finalUpdates.size(), errors);
+    }
+
+    private PaystackChargeUpdate verify(String reference) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            rateBudget.acquire();
+            return paystackService.verifyCharge(reference);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Could not verify pending payment {}: {}", reference, e.toString());
+            return null;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // Gauges tolerate replication lag, so they are read in a read-only transaction (replica);
+    // the sweep itself reads pages from the primary to avoid re-verifying settled payments
+    private void refreshBacklog(LocalDateTime cutoff) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            backlog.set(paymentRepository.countStale(PaymentStatus.PENDING, cutoff));
+            LocalDateTime oldest = paymentRepository.findOldestStaleCreatedAt(PaymentStatus.PENDING, cutoff);
+            oldestStaleEpochMillis.set(oldest == null ? 0
+                    : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        });
+    }
+
+    private double oldestStaleAgeSeconds() {
+        long oldest = oldestStaleEpochMillis.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private static Counter checkedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.reconciliation.checked")
+                .description("Stale pending payments verified with Paystack, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PageOutcome(int settled, int errors) {
+    }
+}
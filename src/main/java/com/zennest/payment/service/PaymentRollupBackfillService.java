@@ -0,0 +1,119 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.RollupBackfillResult;
+import com.zennest.payment.model.PaymentRollup;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.PaymentRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rebuilds {@code payment_rollups} from the payments table and {@code payments_archive}, one day
+ * per chunk.
+ * <p>
+ * Each day is aggregated with one GROUP BY query per table and rewritten in its own transaction,
+ * and days are processed in parallel on a bounded pool. Rebuilding a day replaces its
+ * buckets, so a backfill can be re-run safely; it is intended for closed days (history or
+ * repair), since live increments for a day being rebuilt may be overwritten.
+ */
+@Lazy
+@Service
+public class PaymentRollupBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRollupBackfillService.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+
+    public PaymentRollupBackfillService(PaymentRepository paymentRepository,
+                                        PaymentRollupRepository rollupRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${payments.analytics.backfill.parallelism:4}") int parallelism) {
+        this.paymentRepository = paymentRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Rebuilds the rollups of every day in the inclusive range.
+     */
+    public RollupBackfillResult backfill(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        long start = System.currentTimeMillis();
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, days.size()));
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>(days.size());
+            for (LocalDate day : days) {
+                chunks.add(executor.submit(() -> rebuildDay(day)));
+            }
+            long rows = 0;
+            for (Future<Integer> chunk : chunks) {
+                rows += chunk.get();
+            }
+            long duration = System.currentTimeMillis() - start;
+            logger.info("Rebuilt payment rollups for {} day(s) from {} to {} ({} rows) in {} ms",
+                    days.size(), from, to, rows, duration);
+            return new RollupBackfillResult(days.size(), rows, duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup backfill failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int rebuildDay(LocalDate day) {
+        Integer written = transactionTemplate.execute(status -> {
+            rollupRepository.deleteByBucketDate(day);
+            // channel/currency nulls and their defaults land in the same bucket
+            Map<String, PaymentRollup> buckets = new LinkedHashMap<>();
+            LocalDateTime start = day.atStartOfDay();
+            LocalDateTime end = day.plusDays(1).atStartOfDay();
+            List<Object[]> rows = new ArrayList<>(paymentRepository.aggregateSettled(PaymentStatus.SUCCESS, start, end));
+            rows.addAll(paymentRepository.aggregateSettledArchive(PaymentStatus.SUCCESS, start, end));
+            for (Object[] row : rows) {
+                PaymentType type = (PaymentType) row[0];
+                String channel = PaymentRollup.channelOf((String) row[1]);
+                String currency = PaymentRollup.currencyOf((String) row[2]);
+                long count = ((Number) row[3]).longValue();
+                long amount = ((Number) row[4]).longValue();
+                long fees = ((Number) row[5]).longValue();
+                buckets.merge(type + "|" + channel + "|" + currency,
+                        new PaymentRollup(day, type, channel, currency, count, amount, fees),
+                        (a, b) -> new PaymentRollup(day, type, channel, currency,
+                                a.getPaymentCount() + b.getPaymentCount(),
+                                a.getAmountTotal() + b.getAmountTotal(),
+                                a.getFeesTotal() + b.getFeesTotal()));
+            }
+            rollupRepository.saveAll(buckets.values());
+            return buckets.size();
+        });
+        return written == null ? 0 : written;
+    }
+}
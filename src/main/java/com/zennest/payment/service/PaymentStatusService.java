@@ -0,0 +1,220 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import com.zennest.payment.model.RentScheduleStatus;
+import com.zennest.payment.outbox.PaymentOutbox;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.RentScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies gateway outcomes to payments. The payment update, the revenue rollups and the
+ * outbox event describing the change commit in one transaction.
+ * <p>
+ * Status changes follow {@link PaymentStatus#canTransitionTo}: an outcome that would move a
+ * payment backwards (e.g. a late {@code failed} webhook after {@code success}) is dropped
+ * without touching the row. Writes are guarded by the payment's {@code @Version}, so no row
+ * lock is held between the read and the write; when a concurrent writer wins, the update is
+ * re-read and re-evaluated against the committed state in a fresh transaction.
+ * <p>
+ * When a rent payment succeeds with a reusable card authorization, the authorization is stored
+ * on the tenant's {@code RentSchedule} for the property in the same transaction, so later
+ * rent can be charged to it.
+ */
+@Service
+public class PaymentStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatusService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentAnalyticsService analyticsService;
+    private final PaymentOutbox paymentOutbox;
+    private final RentScheduleRepository rentScheduleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rejectedTransitions;
+    private final Counter writeConflicts;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PaymentStatusService(PaymentRepository paymentRepository,
+                                PaymentAnalyticsService analyticsService,
+                                PaymentOutbox paymentOutbox,
+                                RentScheduleRepository rentScheduleRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.analyticsService = analyticsService;
+        this.paymentOutbox = paymentOutbox;
+        this.rentScheduleRepository = rentScheduleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rejectedTransitions = Counter.builder("payments.status.transitions.rejected")
+                .description("Gateway outcomes dropped because the transition is not allowed")
+                .register(meterRegistry);
+        this.writeConflicts = Counter.builder("payments.status.conflicts")
+                .description("Payment updates retried after losing an optimistic-lock race")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a Paystack charge outcome on the payment with the given reference.
+     * Non-final gateway statuses only update the transaction details of pending payments.
+     *
+     * @return the payment as stored afterwards, or empty if no payment has this reference
+     */
+    public Optional<Payment> applyChargeUpdate(PaystackChargeUpdate update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyOnce(update));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                writeConflicts.increment();
+            }
+        }
+    }
+
+    /**
+     * Records several charge outcomes in one transaction: the payments are loaded with one
+     * query and their updates are flushed as a single JDBC batch before the rollups and outbox
+     * events are written. Updates for unknown references or disallowed transitions are ignored.
+     * If another writer changes one of the payments meanwhile, the batch is rolled back and the
+     * updates are applied one by one.
+     *
+     * @return the updated payments
+     */
+    public List<Payment> applyChargeUpdates(List<PaystackChargeUpdate> updates) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return transactionTemplate.execute(status -> applyBatchOnce(updates));
+        } catch (OptimisticLockingFailureException e) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw e;
+            }
+            writeConflicts.increment();
+            List<Payment> updated = new ArrayList<>(updates.size());
+            for (PaystackChargeUpdate update : updates) {
+                applyChargeUpdate(update).ifPresent(updated::add);
+            }
+            return updated;
+        }
+    }
+
+    private Optional<Payment> applyOnce(PaystackChargeUpdate update) {
+        Optional<Payment> optionalPayment = paymentRepository.findByReference(update.reference());
+        if (optionalPayment.isEmpty()) {
+            return Optional.empty();
+        }
+        Payment payment = optionalPayment.get();
+        PaymentStatus previousStatus = payment.getPaymentStatus();
+        if (!accepts(payment, update)) {
+            return Optional.of(payment);
+        }
+        apply(payment, update);
+        // Flush first: the version-checked UPDATE fails here rather than at commit, and its row
+        // lock orders concurrent changes to this payment before their outbox rows are inserted
+        paymentRepository.saveAndFlush(payment);
+
+        recordTransition(payment, previousStatus, update);
+        return Optional.of(payment);
+    }
+
+    private List<Payment> applyBatchOnce(List<PaystackChargeUpdate> updates) {
+        Map<String, Payment> byReference = paymentRepository.findByReferenceIn(
+                        updates.stream().map(PaystackChargeUpdate::reference).toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getReference, Function.identity(), (first, second) -> first));
+
+        List<Payment> updated = new ArrayList<>(updates.size());
+        List<PaymentStatus> previousStatuses = new ArrayList<>(updates.size());
+        List<PaystackChargeUpdate> appliedUpdates = new ArrayList<>(updates.size());
+        for (PaystackChargeUpdate update : updates) {
+            Payment payment = byReference.get(update.reference());
+            if (payment != null && accepts(payment, update)) {
+                previousStatuses.add(payment.getPaymentStatus());
+                apply(payment, update);
+                updated.add(payment);
+                appliedUpdates.add(update);
+            }
+        }
+        entityManager.unwrap(Session.class).setJdbcBatchSize(Math.max(1, updated.size()));
+        paymentRepository.flush();
+
+        for (int i = 0; i < updated.size(); i++) {
+            recordTransition(updated.get(i), previousStatuses.get(i), appliedUpdates.get(i));
+        }
+        return updated;
+    }
+
+    /**
+     * Checks the update against the transition table. Outcomes that are not final only
+     * carry details and are accepted while the payment is still pending.
+     */
+    private boolean accepts(Payment payment, PaystackChargeUpdate update) {
+        PaymentStatus current = payment.getPaymentStatus();
+        PaymentStatus settledStatus = PaymentStatus.fromGatewayStatus(update.gatewayStatus());
+        boolean allowed = settledStatus == null ? current == PaymentStatus.PENDING : current.canTransitionTo(settledStatus);
+        if (!allowed && settledStatus != null) {
+            rejectedTransitions.increment();
+            logger.warn("Ignoring {} outcome for payment {}: already {}", update.gatewayStatus(), update.reference(), current);
+        }
+        return allowed;
+    }
+
+    private static void apply(Payment payment, PaystackChargeUpdate update) {
+        PaymentStatus settledStatus = PaymentStatus.fromGatewayStatus(update.gatewayStatus());
+        if (settledStatus != null) {
+            payment.setPaymentStatus(settledStatus);
+            payment.setPaystackConfirmation(PaystackConfirmationStatus.forPaymentStatus(settledStatus));
+        }
+        payment.setPaystackTransactionId(update.transactionId());
+        payment.setGatewayResponse(update.gatewayResponse());
+        payment.setChannel(update.channel());
+        payment.setCurrency(update.currency());
+        payment.setFees(update.fees());
+        if (update.paidAt() != null) {
+            payment.setPaidAt(update.paidAt());
+        }
+    }
+
+    private void recordTransition(Payment payment, PaymentStatus previousStatus, PaystackChargeUpdate update) {
+        analyticsService.recordTransition(payment, previousStatus);
+        if (payment.getPaymentStatus() != previousStatus) {
+            paymentOutbox.recordStatusChange(payment, previousStatus);
+            if (payment.getPaymentStatus() == PaymentStatus.SUCCESS && payment.getPaymentType() == PaymentType.RENT
+                    && payment.getPropertyId() != null && update.authorizationCode() != null) {
+                rentScheduleRepository.storeAuthorization(payment.getEmail(), payment.getPropertyId(),
+                        update.authorizationCode(),
+                        List.of(RentScheduleStatus.AWAITING_AUTHORIZATION, RentScheduleStatus.ACTIVE),
+                        RentScheduleStatus.ACTIVE);
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackTransferUpdate;
+import com.zennest.payment.DTO.PayoutRunResult;
+import com.zennest.payment.Exception.PaystackUnavailableException;
+import com.zennest.payment.id.PaymentReferences;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.Payout;
+import com.zennest.payment.model.PayoutRecipient;
+import com.zennest.payment.model.PayoutStatus;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.PayoutRecipientRepository;
+import com.zennest.payment.repo.PayoutRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pays landlords out: settled {@code RENT} and {@code BOOKING} payments are aggregated into one
+ * {@link Payout} per transfer recipient (see {@link PayoutRecipient}), and the payouts are sent
+ * through Paystack's bulk transfer endpoint.
+ * <p>
+ * A run first aggregates the payments no payout covers yet, {@code payments.payouts.page-size}
+ * per transaction, and links them to their payout through {@code payout_id}, only where it is
+ * still unset: a run on another instance that linked a payment first makes this one roll back
+ * rather than pay it twice. It then submits every pending payout, up to {@code payments.payouts.chunk-size}
+ * transfers per call (Paystack takes at most 100) and one currency per call. A call that was not
+ * sent (breaker open) leaves its payouts pending; {@link #resubmitPending} sends pending payouts
+ * again once they are {@code payments.payouts.resubmit-after} old, so they go out shortly after
+ * Paystack is back rather than at the next monthly run. After any other failure
+ * Paystack may have accepted the batch, so its payouts are marked {@code UNCONFIRMED} and are not
+ * submitted again until they are looked up. The payout reference is the transfer reference, which
+ * Paystack accepts only once, so resubmitting never pays twice.
+ * <p>
+ * {@link #verifyOutstanding} looks up, through {@code /transfer/verify}, unconfirmed payouts and
+ * submitted ones still without a final webhook, once they are {@code payments.payouts.verify.after}
+ * old: a transfer found is applied like a webhook, and an unconfirmed payout that Paystack does
+ * not know goes back to pending. It runs every {@code payments.payouts.verify.interval-ms},
+ * followed by {@link #resubmitPending}, and before each payout run.
+ * <p>
+ * Transfer webhooks are applied by {@link #applyTransferUpdate} following
+ * {@link PayoutStatus#canTransitionTo}, so duplicates are no-ops. The payments of a failed or
+ * reversed payout are released and paid out by a later run. Runs are scheduled by
+ * {@code payments.payouts.cron} (06:00 on the first of the month) and, like the other batch
+ * jobs, cover the live table only.
+ * <p>
+ * Metrics: {@code payments.payouts.transfers} (by result: submitted, refused, unconfirmed or error) and the
+ * {@code payments.payouts.bulk} timer (one sample per bulk transfer call).
+ */
+@Service
+public class PayoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayoutService.class);
+
+    private static final List<PaymentType> PAID_OUT_TYPES = List.of(PaymentType.RENT, PaymentType.BOOKING);
+    private static final String DEFAULT_CURRENCY = "NGN";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final PaymentRepository paymentRepository;
+    private final PayoutRepository payoutRepository;
+    private final PayoutRecipientRepository recipientRepository;
+    private final PaystackService paystackService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int pageSize;
+    private final int chunkSize;
+    private final Duration verifyAfter;
+    private final Duration resubmitAfter;
+    private final Counter submittedCounter;
+    private final Counter refusedCounter;
+    private final Counter unconfirmedCounter;
+    private final Counter errorCounter;
+    private final Timer bulkCalls;
+
+    public PayoutService(PaymentRepository paymentRepository,
+                         PayoutRepository payoutRepository,
+                         PayoutRecipientRepository recipientRepository,
+                         PaystackService paystackService,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${payments.payouts.enabled:true}") boolean enabled,
+                         @Value("${payments.payouts.page-size:5000}") int pageSize,
+                         @Value("${payments.payouts.chunk-size:100}") int chunkSize,
+                         @Value("${payments.payouts.verify.after:1h}") Duration verifyAfter,
+                         @Value("${payments.payouts.resubmit-after:5m}") Duration resubmitAfter) {
+        this.paymentRepository = paymentRepository;
+        this.payoutRepository = payoutRepository;
+        this.recipientRepository = recipientRepository;
+        this.paystackService = paystackService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pageSize = Math.max(1, pageSize);
+        this.chunkSize = Math.max(1, Math.min(100, chunkSize));
+        this.verifyAfter = verifyAfter;
+        this.resubmitAfter = resubmitAfter;
+        this.submittedCounter = transferCounter(meterRegistry, "submitted");
+        this.refusedCounter = transferCounter(meterRegistry, "refused");
+        this.unconfirmedCounter = transferCounter(meterRegistry, "unconfirmed");
+        this.errorCounter = transferCounter(meterRegistry, "error");
+        this.bulkCalls = Timer.builder("payments.payouts.bulk")
+                .description("Calls to Paystack's bulk transfer endpoint")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${payments.payouts.cron:0 0 6 1 * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        PayoutRunResult result = runPayouts();
+        logger.info("Payout run: {} payout(s) for {} payment(s), {} submitted in {} bulk call(s), {} error(s) in {} ms",
+                result.payouts(), result.payments(), result.submitted(), result.bulkCalls(), result.errors(),
+                result.durationMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${payments.payouts.verify.interval-ms:900000}",
+            initialDelayString = "${payments.payouts.verify.initial-delay-ms:300000}")
+    public void scheduledVerification() {
+        if (enabled) {
+            LocalDateTime now = LocalDateTime.now();
+            verifyOutstanding(now);
+            PayoutRunResult result = resubmitPending(now);
+            if (result.bulkCalls() > 0) {
+                logger.info("Resubmitted pending payouts: {} submitted in {} bulk call(s), {} error(s)",
+                        result.submitted(), result.bulkCalls(), result.errors());
+            }
+        }
+    }
+
+    /**
+     * Registers (or replaces) the Paystack transfer recipient that the property's payments are
+     * paid out to.
+     */
+    public PayoutRecipient registerRecipient(UUID propertyId, String recipientCode) {
+        if (recipientCode == null || recipientCode.isBlank()) {
+            throw new IllegalArgumentException("A recipient code is required");
+        }
+        return transactionTemplate.execute(status -> {
+            PayoutRecipient recipient = recipientRepository.findById(propertyId)
+                    .orElseGet(() -> new PayoutRecipient(propertyId, recipientCode));
+            recipient.setRecipientCode(recipientCode);
+            return recipientRepository.save(recipient);
+        });
+    }
+
+    /**
+     * Aggregates the settled payments no payout covers yet and submits all pending payouts.
+     */
+    public synchronized PayoutRunResult runPayouts() {
+        long start = System.currentTimeMillis();
+        verifyOutstanding(LocalDateTime.now());
+        int payouts = 0;
+        int payments = 0;
+        Aggregation page;
+        do {
+            page = transactionTemplate.execute(status -> aggregatePage());
+            payouts += page.payouts();
+            payments += page.payments();
+        } while (page.payments() == pageSize);
+
+        Submission submission = submitPending(after -> payoutRepository.findByStatusAndIdGreaterThanOrderById(
+                PayoutStatus.PENDING, after, PageRequest.of(0, pageSize)));
+        return new PayoutRunResult(payouts, payments, submission.submitted(), submission.calls(), submission.errors(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Submits the payouts left pending for more than {@code payments.payouts.resubmit-after}
+     * before {@code now}: payouts whose bulk call was not sent while the breaker was open, and
+     * unconfirmed ones that Paystack turned out not to know. Younger pending payouts belong to a
+     * run that is still submitting them.
+     */
+    public synchronized PayoutRunResult resubmitPending(LocalDateTime now) {
+        long start = System.currentTimeMillis();
+        LocalDateTime before = now.minus(resubmitAfter);
+        Submission submission = submitPending(after -> payoutRepository.findByStatusAndUpdatedAtBeforeAndIdGreaterThanOrderById(
+                PayoutStatus.PENDING, before, after, PageRequest.of(0, pageSize)));
+        return new PayoutRunResult(0, 0, submission.submitted(), submission.calls(), submission.errors(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Submits every page of pending payouts returned by nextPage (keyset on the payout id)
+    private Submission submitPending(Function<UUID, List<Payout>> nextPage) {
+        int submitted = 0;
+        int calls = 0;
+        int errors = 0;
+        UUID after = new UUID(0, 0);
+        List<Payout> pending;
+        do {
+            pending = nextPage.apply(after);
+            if (pending.isEmpty()) {
+                break;
+            }
+            after = pending.get(pending.size() - 1).getId();
+            Map<String, List<Payout>> byCurrency = pending.stream()
+                    .collect(Collectors.groupingBy(Payout::getCurrency, LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<String, List<Payout>> currency : byCurrency.entrySet()) {
+                List<Payout> payoutsInCurrency = currency.getValue();
+                for (int from = 0; from < payoutsInCurrency.size(); from += chunkSize) {
+                    List<Payout> chunk = payoutsInCurrency.subList(from, Math.min(from + chunkSize, payoutsInCurrency.size()));
+                    calls++;
+                    int accepted = submit(currency.getKey(), chunk);
+                    submitted += accepted;
+                    errors += chunk.size() - accepted;
+                }
+            }
+        } while (pending.size() == pageSize);
+        return new Submission(submitted, calls, errors);
+    }
+
+    /**
+     * Applies a transfer outcome reported by a Paystack webhook to the payout with its reference.
+     * Non-final statuses only mark a pending or unconfirmed payout as submitted.
+     *
+     * @return the payout as stored afterwards, or empty if no payout has this reference
+     */
+    public Optional<Payout> applyTransferUpdate(PaystackTransferUpdate update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> payoutRepository.findByReference(update.reference())
+                        .map(payout -> {
+                            apply(payout, update);
+                            return payout;
+                        }));
+            } catch (OptimisticLockingFailureException e) {
+                // A payout run recorded the bulk response for this payout meanwhile
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up unconfirmed payouts, and submitted ones without a final outcome, that last changed
+     * more than {@code payments.payouts.verify.after} before {@code now}.
+     *
+     * @return the number of payouts looked up
+     */
+    public synchronized int verifyOutstanding(LocalDateTime now) {
+        LocalDateTime before = now.minus(verifyAfter);
+        int verified = 0;
+        for (PayoutStatus status : List.of(PayoutStatus.UNCONFIRMED, PayoutStatus.SUBMITTED)) {
+            UUID after = new UUID(0, 0);
+            List<Payout> page;
+            do {
+                page = payoutRepository.findByStatusAndUpdatedAtBeforeAndIdGreaterThanOrderById(status, before, after,
+                        PageRequest.of(0, pageSize));
+                for (Payout payout : page) {
+                    after = payout.getId();
+                    if (verify(payout)) {
+                        verified++;
+                    }
+                }
+            } while (page.size() == pageSize);
+        }
+        return verified;
+    }
+
+    private boolean verify(Payout payout) {
+        Optional<PaystackTransferUpdate> transfer;
+        try {
+            transfer = paystackService.verifyTransfer(payout.getReference());
+        } catch (Exception e) {
+            logger.warn("Could not look up payout {}: {}", payout.getReference(), e.toString());
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> payoutRepository.findById(payout.getId()).ifPresent(current -> {
+                if (transfer.isPresent()) {
+                    apply(current, transfer.get());
+                } else if (current.getStatus() == PayoutStatus.UNCONFIRMED) {
+                    // Paystack never received it: submit it again
+                    current.setStatus(PayoutStatus.PENDING);
+                } else {
+                    logger.warn("Payout {} is {} but Paystack has no transfer with its reference",
+                            current.getReference(), current.getStatus());
+                }
+            }));
+        } catch (OptimisticLockingFailureException e) {
+            // A webhook settled it meanwhile
+        }
+        return true;
+    }
+
+    private Aggregation aggregatePage() {
+        List<Object[]> rows = paymentRepository.findUnpaidOut(PaymentStatus.SUCCESS, PAID_OUT_TYPES, PageRequest.of(0, pageSize));
+        Map<String, Payout> byRecipient = new LinkedHashMap<>();
+        Map<Payout, List<UUID>> paymentIds = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String recipientCode = (String) row[3];
+            String currency = row[2] != null ? (String) row[2] : DEFAULT_CURRENCY;
+            Payout payout = byRecipient.computeIfAbsent(recipientCode + "|" + currency,
+                    key -> new Payout(PaymentReferences.nextPayout(), recipientCode, currency));
+            payout.add((Integer) row[1]);
+            paymentIds.computeIfAbsent(payout, key -> new ArrayList<>()).add((UUID) row[0]);
+        }
+        payoutRepository.saveAll(byRecipient.values());
+        for (Map.Entry<Payout, List<UUID>> entry : paymentIds.entrySet()) {
+            int linked = paymentRepository.assignPayout(entry.getKey().getId(), entry.getValue());
+            if (linked != entry.getValue().size()) {
+                // Another run linked some of these payments first; roll back and let it pay them
+                throw new OptimisticLockingFailureException("Payments of payout " + entry.getKey().getReference()
+                        + " were paid out concurrently");
+            }
+        }
+        return new Aggregation(byRecipient.size(), rows.size());
+    }
+
+    /**
+     * Sends one chunk of payouts in one bulk transfer call and records Paystack's answer.
+     *
+     * @return the number of payouts Paystack accepted
+     */
+    private int submit(String currency, List<Payout> chunk) {
+        List<PaystackTransferUpdate> transfers;
+        try {
+            transfers = bulkCalls.recordCallable(() -> paystackService.bulkTransfer(currency, chunk));
+        } catch (PaystackUnavailableException e) {
+            errorCounter.increment(chunk.size());
+            logger.warn("Bulk transfer of {} payout(s) not sent; they stay pending until resubmitted: {}", chunk.size(), e.getMessage());
+            return 0;
+        } catch (Exception e) {
+            // Paystack may have accepted the batch: look the payouts up before sending them again
+            unconfirmedCounter.increment(chunk.size());
+            logger.warn("Bulk transfer of {} payout(s) failed; marking them unconfirmed until looked up", chunk.size(), e);
+            List<UUID> ids = chunk.stream().map(Payout::getId).toList();
+            transactionTemplate.executeWithoutResult(status -> payoutRepository.findAllById(ids).stream()
+                    .filter(payout -> payout.getStatus() == PayoutStatus.PENDING)
+                    .forEach(payout -> payout.setStatus(PayoutStatus.UNCONFIRMED)));
+            return 0;
+        }
+        int accepted = transactionTemplate.execute(status -> {
+            Map<String, Payout> byReference = payoutRepository.findByReferenceIn(
+                            transfers.stream().map(PaystackTransferUpdate::reference).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Payout::getReference, payout -> payout));
+            int count = 0;
+            for (PaystackTransferUpdate transfer : transfers) {
+                Payout payout = byReference.get(transfer.reference());
+                if (payout == null) {
+                    continue;
+                }
+                apply(payout, transfer);
+                if (payout.getStatus() == PayoutStatus.SUBMITTED || payout.getStatus() == PayoutStatus.SUCCESS) {
+                    count++;
+                } else if (payout.getStatus() == PayoutStatus.FAILED) {
+                    refusedCounter.increment();
+                }
+            }
+            return count;
+        });
+        submittedCounter.increment(accepted);
+        return accepted;
+    }
+
+    private void apply(Payout payout, PaystackTransferUpdate update) {
+        PayoutStatus current = payout.getStatus();
+        PayoutStatus settled = PayoutStatus.fromTransferStatus(update.transferStatus());
+        PayoutStatus target = settled != null ? settled
+                : current == PayoutStatus.PENDING || current == PayoutStatus.UNCONFIRMED ? PayoutStatus.SUBMITTED : current;
+        if (!current.canTransitionTo(target)) {
+            logger.warn("Ignoring {} transfer outcome for payout {}: already {}", update.transferStatus(), payout.getReference(), current);
+            return;
+        }
+        if (update.transferCode() != null) {
+            payout.setTransferCode(update.transferCode());
+        }
+        if (target == current) {
+            return;
+        }
+        payout.setStatus(target);
+        if (target == PayoutStatus.FAILED || target == PayoutStatus.REVERSED) {
+            payout.setFailureReason(update.reason());
+            int released = paymentRepository.releasePayout(payout.getId());
+            logger.warn("Payout {} {}: {} payment(s) will be paid out again", payout.getReference(), target, released);
+        }
+    }
+
+    private static Counter transferCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.payouts.transfers")
+                .description("Payout transfers submitted to Paystack, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Aggregation(int payouts, int payments) {
+    }
+
+    private record Submission(int submitted, int calls, int errors) {
+    }
+}
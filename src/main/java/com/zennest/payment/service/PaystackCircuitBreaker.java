@@ -0,0 +1,101 @@
+package com.zennest.payment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops calling Paystack for a while after consecutive failures (I/O errors or 5xx), so
+ * checkouts fail fast instead of tying up request threads on an unavailable gateway.
+ * <p>
+ * After {@code payments.paystack.breaker.failure-threshold} consecutive failures the breaker
+ * opens and rejects calls for {@code payments.paystack.breaker.open-duration}. The first call
+ * after that is let through as a trial: success closes the breaker, failure opens it again.
+ * <p>
+ * Metrics: {@code payments.paystack.breaker.state} (0 closed, 1 half-open, 2 open) and
+ * {@code payments.paystack.breaker.rejected}.
+ */
+@Component
+public class PaystackCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaystackCircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    // System.nanoTime() when the breaker last opened; 0 while closed
+    private volatile long openedAt;
+    private final Counter rejected;
+
+    @Autowired
+    public PaystackCircuitBreaker(MeterRegistry meterRegistry,
+                                  @Value("${payments.paystack.breaker.failure-threshold:5}") int failureThreshold,
+                                  @Value("${payments.paystack.breaker.open-duration:30s}") Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        Gauge.builder("payments.paystack.breaker.state", this, breaker -> breaker.state().ordinal())
+                .description("Paystack circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("payments.paystack.breaker.rejected")
+                .description("Paystack calls rejected while the circuit breaker was open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether a call may be made now; every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public boolean tryAcquire() {
+        long opened = openedAt;
+        if (opened == 0) {
+            return true;
+        }
+        if (System.nanoTime() - opened >= openNanos && trialInFlight.compareAndSet(false, true)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (openedAt != 0) {
+            logger.info("Paystack circuit breaker closed");
+            openedAt = 0;
+        }
+        trialInFlight.set(false);
+    }
+
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (trialInFlight.get() || (failures >= failureThreshold && openedAt == 0)) {
+            logger.warn("Paystack circuit breaker opened after {} consecutive failure(s)", failures);
+            openedAt = System.nanoTime();
+        }
+        trialInFlight.set(false);
+    }
+
+    public State state() {
+        long opened = openedAt;
+        if (opened == 0) {
+            return State.CLOSED;
+        }
+        return System.nanoTime() - opened >= openNanos ? State.HALF_OPEN : State.OPEN;
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+}
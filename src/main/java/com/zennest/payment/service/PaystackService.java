@@ -2,36 +2,121 @@ package com.zennest.payment.service;
 
 import com.zennest.payment.Config.PaystackConfig;
 import com.zennest.payment.model.PaymentRequest;
+import com.zennest.payment.model.Payout;
+import com.zennest.payment.model.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.PaystackTransferUpdate;
 import com.zennest.payment.DTO.ResolveAccountRequest;
 import com.zennest.payment.DTO.ResolveAccountResponse;
+import com.zennest.payment.Exception.PaystackUnavailableException;
 
+/**
+ * Calls the Paystack API through {@link PaystackCircuitBreaker}. Every call is bounded by
+ * {@code payments.paystack.connect-timeout} and {@code payments.paystack.request-timeout}, so a
+ * hung Paystack fails the call with an {@link java.net.http.HttpTimeoutException}, which counts
+ * as a breaker failure, instead of holding the calling thread.
+ * <p>
+ * Verifications of one reference are coalesced: while a {@code /transaction/verify} call for it
+ * is in flight, other callers (the checkout callback, the frontend, reconciliation) wait for
+ * that call instead of making their own, for at most {@code payments.paystack.verify.coalesce-wait}
+ * before failing with an {@link java.net.http.HttpTimeoutException}. Responses reporting a {@code success} or
+ * {@code failed} charge are then reused for {@code payments.paystack.verify.cache-ttl}, at most
+ * {@code payments.paystack.verify.cache-size} of them.
+ * <p>
+ * Metrics: {@code payments.paystack.verify} by {@code result} (called, coalesced or cached).
+ */
 @Service
 public class PaystackService {
 
     private final PaystackConfig paystackConfig;
     private final HttpClient httpClient;
+    private final Duration requestTimeout;
     private final ObjectMapper objectMapper;
+    private final PaystackCircuitBreaker circuitBreaker;
+
+    private final Map<String, CompletableFuture<Verification>> verificationsInFlight = new ConcurrentHashMap<>();
+    private final Map<String, SettledVerification> settledVerifications;
+    private final long settledTtlNanos;
+    private final Duration coalesceWait;
+    private final Counter verifyCalls;
+    private final Counter verifyCoalesced;
+    private final Counter verifyCached;
 
     public PaystackService(PaystackConfig paystackConfig) {
+        this(paystackConfig, new PaystackCircuitBreaker(new SimpleMeterRegistry(), 5, Duration.ofSeconds(30)),
+                new SimpleMeterRegistry(), Duration.ofSeconds(10), 10_000, Duration.ofSeconds(20),
+                Duration.ofSeconds(5), Duration.ofSeconds(15));
+    }
+
+    @Autowired
+    public PaystackService(PaystackConfig paystackConfig,
+                           PaystackCircuitBreaker circuitBreaker,
+                           MeterRegistry meterRegistry,
+                           @Value("${payments.paystack.verify.cache-ttl:10s}") Duration settledTtl,
+                           @Value("${payments.paystack.verify.cache-size:10000}") int settledCacheSize,
+                           @Value("${payments.paystack.verify.coalesce-wait:20s}") Duration coalesceWait,
+                           @Value("${payments.paystack.connect-timeout:5s}") Duration connectTimeout,
+                           @Value("${payments.paystack.request-timeout:15s}") Duration requestTimeout) {
         this.paystackConfig = paystackConfig;
-        this.httpClient = HttpClient.newHttpClient();
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.requestTimeout = requestTimeout;
         this.objectMapper = new ObjectMapper();
+        this.circuitBreaker = circuitBreaker;
+        this.settledTtlNanos = settledTtl.toNanos();
+        this.coalesceWait = coalesceWait;
+        this.settledVerifications = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SettledVerification> eldest) {
+                return size() > settledCacheSize;
+            }
+        });
+        this.verifyCalls = verifyCounter(meterRegistry, "called");
+        this.verifyCoalesced = verifyCounter(meterRegistry, "coalesced");
+        this.verifyCached = verifyCounter(meterRegistry, "cached");
     }
 
     public Map<String, Object> initializePayment(PaymentRequest paymentRequest) throws Exception {
+        return initializePayment(paymentRequest, null);
+    }
+
+    /**
+     * Initializes a transaction under the given reference (see {@code PaymentReferences}), or
+     * under one assigned by Paystack if {@code reference} is {@code null}.
+     */
+    public Map<String, Object> initializePayment(PaymentRequest paymentRequest, String reference) throws Exception {
         URI uri = URI.create(paystackConfig.getBaseUrl() + "/transaction/initialize");
 
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("email", paymentRequest.getEmail());
         requestBody.put("amount", paymentRequest.getAmount());
+        if (reference != null) {
+            requestBody.put("reference", reference);
+        }
         requestBody.put("callback_url", "https://qorelabs.xyz/verify-payment");  // Add callback URL here
 
         String jsonBody = objectMapper.writeValueAsString(requestBody);
@@ -43,33 +128,272 @@ public class PaystackService {
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
 
         return objectMapper.readValue(response.body(), Map.class);
         
     }
     public Map<String, Object> verifyPayment(String reference) throws Exception {
-        URI uri = URI.create(paystackConfig.getBaseUrl() + "/transaction/verify/" + reference);
+        return fetchVerification(reference).interpreted();
+    }
+
+    /**
+     * Verifies a transaction and returns Paystack's view of it, including non-final statuses
+     * such as {@code ongoing} or {@code abandoned} that {@link #verifyPayment(String)} folds
+     * into a failure message.
+     *
+     * @return the charge as Paystack currently reports it
+     * @throws IllegalStateException if Paystack does not know the reference or the call fails
+     */
+    public PaystackChargeUpdate verifyCharge(String reference) throws Exception {
+        Verification verification = fetchVerification(reference);
+        Map<String, Object> jsonResponse = verification.json();
+        Map<String, Object> data = (Map<String, Object>) jsonResponse.get("data");
+        if (verification.statusCode() != 200 || !Boolean.TRUE.equals(jsonResponse.get("status")) || data == null) {
+            throw new IllegalStateException("Paystack verify for " + reference + " returned "
+                    + verification.statusCode() + ": " + jsonResponse.get("message"));
+        }
+        return PaystackChargeUpdate.fromTransactionData(data);
+    }
+
+    /**
+     * Fetches {@code /transaction/verify/{reference}}, sharing the response with concurrent
+     * callers for the same reference and reusing a recent response for a settled charge. The
+     * body is parsed and interpreted once per call, not once per caller.
+     */
+    private Verification fetchVerification(String reference) throws Exception {
+        SettledVerification settled = settledVerifications.get(reference);
+        if (settled != null && System.nanoTime() - settled.fetchedAt() < settledTtlNanos) {
+            verifyCached.increment();
+            return settled.verification();
+        }
+
+        CompletableFuture<Verification> call = new CompletableFuture<>();
+        CompletableFuture<Verification> inFlight = verificationsInFlight.putIfAbsent(reference, call);
+        if (inFlight != null) {
+            verifyCoalesced.increment();
+            try {
+                return inFlight.get(coalesceWait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                throw new HttpTimeoutException("Verification of " + reference + " in flight did not finish within "
+                        + coalesceWait);
+            }
+        }
+
+        verifyCalls.increment();
+        try {
+            URI uri = URI.create(paystackConfig.getBaseUrl() + "/transaction/verify/" + reference);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .header("Authorization", "Bearer " + paystackConfig.getSecretKey())
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = send(request);
+            Map<String, Object> jsonResponse = objectMapper.readValue(response.body(), Map.class);
+            Verification verification = new Verification(response.statusCode(), jsonResponse,
+                    Collections.unmodifiableMap(interpret(jsonResponse)));
+            // Cache before leaving the in-flight map, so a caller arriving now finds one or the other
+            if (isSettled(verification)) {
+                settledVerifications.put(reference, new SettledVerification(verification, System.nanoTime()));
+            }
+            call.complete(verification);
+            return verification;
+        } catch (Exception e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            verificationsInFlight.remove(reference, call);
+        }
+    }
+
+    // A charge reported as success or failed; abandoned and ongoing charges can still be paid
+    private static boolean isSettled(Verification verification) {
+        if (verification.statusCode() != 200) {
+            return false;
+        }
+        Map<String, Object> data = (Map<String, Object>) verification.json().get("data");
+        Object status = data != null ? data.get("status") : null;
+        return "success".equals(status) || "failed".equals(status);
+    }
+
+    private static Counter verifyCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.paystack.verify")
+                .description("Paystack verifications, by whether they called Paystack, joined a call in flight or were cached")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // A parsed verify response and what verifyPayment makes of it; shared by every caller it is handed to
+    private record Verification(int statusCode, Map<String, Object> json, Map<String, Object> interpreted) {
+    }
+
+    private record SettledVerification(Verification verification, long fetchedAt) {
+    }
+
+    /**
+     * Charges a stored card authorization through {@code /transaction/charge_authorization},
+     * under the given reference (see {@code PaymentReferences}).
+     *
+     * @return the charge as Paystack reports it; its status may still be pending, e.g. {@code send_otp}
+     * @throws IllegalStateException if Paystack refuses the charge or the breaker is open (nothing was charged)
+     * @throws IOException if the outcome is unknown: no response, or a 5xx one
+     */
+    public PaystackChargeUpdate chargeAuthorization(String authorizationCode, String email, int amount,
+                                                    String currency, String reference) throws Exception {
+        URI uri = URI.create(paystackConfig.getBaseUrl() + "/transaction/charge_authorization");
+
+        String jsonBody = objectMapper.writeValueAsString(Map.of(
+                "authorization_code", authorizationCode,
+                "email", email,
+                "amount", amount,
+                "currency", currency,
+                "reference", reference));
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(uri)
                 .header("Authorization", "Bearer " + paystackConfig.getSecretKey())
-                .GET()
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(request);
+        if (response.statusCode() >= 500) {
+            throw new IOException("Paystack charge of authorization for " + reference + " returned " + response.statusCode());
+        }
+        Map<String, Object> jsonResponse = objectMapper.readValue(response.body(), Map.class);
+        Map<String, Object> data = (Map<String, Object>) jsonResponse.get("data");
+        if (response.statusCode() / 100 != 2 || !Boolean.TRUE.equals(jsonResponse.get("status")) || data == null) {
+            throw new IllegalStateException("Paystack charge of authorization for " + reference + " returned "
+                    + response.statusCode() + ": " + jsonResponse.get("message"));
+        }
+        return PaystackChargeUpdate.fromTransactionData(data);
+    }
+
+    /**
+     * Submits payouts to {@code /transfer/bulk} from the Paystack balance, in one call. The
+     * payouts must all be in {@code currency}; Paystack takes at most 100 transfers per call.
+     *
+     * @return the transfers as Paystack reports them, matched to payouts by reference
+     * @throws PaystackUnavailableException if the breaker is open (nothing was sent)
+     * @throws IllegalStateException if Paystack refuses the request
+     * @throws IOException if the outcome is unknown: no response, or a 5xx one
+     */
+    public List<PaystackTransferUpdate> bulkTransfer(String currency, List<Payout> payouts) throws Exception {
+        URI uri = URI.create(paystackConfig.getBaseUrl() + "/transfer/bulk");
+
+        List<Map<String, Object>> transfers = payouts.stream()
+                .map(payout -> Map.<String, Object>of(
+                        "amount", payout.getAmount(),
+                        "recipient", payout.getRecipientCode(),
+                        "reference", payout.getReference(),
+                        "reason", "Zennest payout " + payout.getReference()))
+                .toList();
+        String jsonBody = objectMapper.writeValueAsString(Map.of(
+                "currency", currency, "source", "balance", "transfers", transfers));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Authorization", "Bearer " + paystackConfig.getSecretKey())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
 
+        HttpResponse<String> response = send(request);
+        if (response.statusCode() >= 500) {
+            throw new IOException("Paystack bulk transfer of " + payouts.size() + " payout(s) returned " + response.statusCode());
+        }
         Map<String, Object> jsonResponse = objectMapper.readValue(response.body(), Map.class);
-        boolean rootStatus = (boolean) jsonResponse.get("status");
+        if (response.statusCode() / 100 != 2 || !Boolean.TRUE.equals(jsonResponse.get("status"))
+                || !(jsonResponse.get("data") instanceof List<?> data)) {
+            throw new IllegalStateException("Paystack bulk transfer of " + payouts.size() + " payout(s) returned "
+                    + response.statusCode() + ": " + jsonResponse.get("message"));
+        }
+        return data.stream()
+                .map(transfer -> PaystackTransferUpdate.fromTransferData((Map<String, Object>) transfer))
+                .toList();
+    }
+
+    /**
+     * Looks a transfer up by reference through {@code /transfer/verify/{reference}}.
+     *
+     * @return the transfer as Paystack reports it, or empty if Paystack has no transfer with
+     * this reference
+     * @throws IllegalStateException if the call fails or the breaker is open
+     */
+    public Optional<PaystackTransferUpdate> verifyTransfer(String reference) throws Exception {
+        URI uri = URI.create(paystackConfig.getBaseUrl() + "/transfer/verify/" + reference);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Authorization", "Bearer " + paystackConfig.getSecretKey())
+                .GET()
+                .build();
+
+        HttpResponse<String> response = send(request);
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        Map<String, Object> jsonResponse = objectMapper.readValue(response.body(), Map.class);
+        Map<String, Object> data = (Map<String, Object>) jsonResponse.get("data");
+        if (response.statusCode() != 200 || !Boolean.TRUE.equals(jsonResponse.get("status")) || data == null) {
+            throw new IllegalStateException("Paystack transfer verify for " + reference + " returned "
+                    + response.statusCode() + ": " + jsonResponse.get("message"));
+        }
+        return Optional.of(PaystackTransferUpdate.fromTransferData(data));
+    }
+
+    /**
+     * Sends a request through the circuit breaker. I/O errors and 5xx responses count as
+     * failures; any other response means Paystack is up.
+     *
+     * @throws PaystackUnavailableException if the breaker is open
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new PaystackUnavailableException("Paystack is unavailable (circuit breaker open)");
+        }
+        if (request.timeout().isEmpty()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build();
+        }
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        if (response.statusCode() >= 500) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        return response;
+    }
+
+    /**
+     * Reduces a {@code /transaction/verify} response body to the status/message/data map
+     * returned by {@link #verifyPayment(String)}.
+     */
+    public Map<String, Object> interpretVerification(String responseBody) throws Exception {
+        return interpret(objectMapper.readValue(responseBody, Map.class));
+    }
+
+    private static Map<String, Object> interpret(Map<String, Object> jsonResponse) {
+        boolean rootStatus = Boolean.TRUE.equals(jsonResponse.get("status"));
         Map<String, Object> responseData = (Map<String, Object>) jsonResponse.get("data");
         String transactionStatus = responseData != null ? (String) responseData.get("status") : null;
 
         Map<String, Object> result = new HashMap<>();
-        if (rootStatus && "success".equalsIgnoreCase(transactionStatus)) {
+        PaymentStatus settledStatus = PaymentStatus.fromGatewayStatus(transactionStatus);
+        if (rootStatus && settledStatus == PaymentStatus.SUCCESS) {
             result.put("status", true);
             result.put("message", "Payment verified successfully");
             result.put("data", responseData);
-        } else if ("abandoned".equalsIgnoreCase(transactionStatus) || "failed".equalsIgnoreCase(transactionStatus)) {
+        } else if (settledStatus == PaymentStatus.FAILED) {
             result.put("status", false);
             result.put("message", "Payment was not completed. Please try again.");
         } else {
@@ -88,7 +412,7 @@ public class PaystackService {
                     .header("Content-Type", "application/json")
                     .GET()
                     .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request);
             return objectMapper.readValue(response.body(), Map.class);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -107,7 +431,7 @@ public class PaystackService {
                     .header("Authorization", "Bearer " + paystackConfig.getSecretKey())
                     .GET()
                     .build();
-            HttpResponse<String> resolveResponse = httpClient.send(resolveRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> resolveResponse = send(resolveRequest);
             Map<?,?> resolveResult = objectMapper.readValue(resolveResponse.body(), Map.class);
             Map<?,?> resolveData = (Map<?,?>) resolveResult.get("data");
             String accountName = resolveData != null ? (String) resolveData.get("account_name") : null;
@@ -127,7 +451,7 @@ public class PaystackService {
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(recipientBody))
                     .build();
-            HttpResponse<String> recipientResponse = httpClient.send(recipientRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> recipientResponse = send(recipientRequest);
             Map<?,?> recipientResult = objectMapper.readValue(recipientResponse.body(), Map.class);
             Map<?,?> recipientData = (Map<?,?>) recipientResult.get("data");
 
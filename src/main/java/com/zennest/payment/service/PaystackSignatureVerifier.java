@@ -0,0 +1,86 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.Config.PaystackConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Verifies the {@code x-paystack-signature} header of webhook deliveries.
+ * <p>
+ * Paystack signs the raw request body with HMAC-SHA512 keyed by the secret key. The
+ * {@link Mac} is keyed once and cloned per thread, so verification costs one HMAC pass
+ * over the body instead of a provider lookup and key setup per request. The computed
+ * digest is hex-encoded into a reused buffer and compared in constant time.
+ */
+@Component
+public class PaystackSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<byte[]> hexBuffer = ThreadLocal.withInitial(() -> new byte[128]);
+
+    @Autowired
+    public PaystackSignatureVerifier(PaystackConfig paystackConfig) {
+        this(paystackConfig.getSecretKey());
+    }
+
+    public PaystackSignatureVerifier(String secretKey) {
+        Mac prototype = newMac(secretKey);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return newMac(secretKey);
+            }
+        });
+    }
+
+    /**
+     * @param rawBody   the request body exactly as received
+     * @param signature the hex signature from the {@code x-paystack-signature} header
+     * @return {@code true} if the signature matches the body
+     */
+    public boolean isValid(byte[] rawBody, String signature) {
+        if (signature == null || signature.length() != 128) {
+            return false;
+        }
+        byte[] expected = hexBuffer.get();
+        byte[] digest = sign(rawBody);
+        for (int i = 0; i < digest.length; i++) {
+            expected[i * 2] = HEX[(digest[i] >> 4) & 0x0F];
+            expected[i * 2 + 1] = HEX[digest[i] & 0x0F];
+        }
+        byte[] provided = new byte[128];
+        for (int i = 0; i < provided.length; i++) {
+            provided[i] = (byte) Character.toLowerCase(signature.charAt(i));
+        }
+        return MessageDigest.isEqual(expected, provided);
+    }
+
+    /**
+     * @return the raw HMAC-SHA512 of the body
+     */
+    public byte[] sign(byte[] rawBody) {
+        Mac instance = mac.get();
+        instance.reset();
+        return instance.doFinal(rawBody);
+    }
+
+    private static Mac newMac(String secretKey) {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.RentBillingResult;
+import com.zennest.payment.DTO.RentScheduleRequest;
+import com.zennest.payment.Exception.PaystackUnavailableException;
+import com.zennest.payment.id.PaymentReferences;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.RentSchedule;
+import com.zennest.payment.model.RentScheduleStatus;
+import com.zennest.payment.ratelimit.RateBudget;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.RentScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Charges monthly rent to the card a tenant last paid rent with.
+ * <p>
+ * A {@link RentSchedule} is enrolled per tenant and property, and becomes active once a rent
+ * payment for that property succeeds with a reusable authorization (stored by
+ * {@link PaymentStatusService}). Every sweep reads the due schedules a page at a time through
+ * the {@code (status, next_attempt_at)} index and charges a page concurrently on virtual
+ * threads, bounded by {@code payments.rent.concurrency} in-flight calls and paced by a
+ * {@link RateBudget} of {@code payments.rent.rate-per-second}.
+ * <p>
+ * Each charge first inserts a {@code PENDING} rent payment with a fresh reference and records
+ * that reference on the schedule. A schedule changed meanwhile by another instance is skipped.
+ * Then the authorization is charged, and the outcome is applied like a webhook. A failed charge
+ * is retried after {@code payments.rent.retry-backoff}, doubling each time; after
+ * {@code payments.rent.max-attempts} the schedule is suspended. When the outcome is not known
+ * (no response, or a pending status such as {@code send_otp}), the schedule is looked at again
+ * after {@code payments.rent.recheck-after}. By then the webhook or reconciliation may have
+ * settled the payment. A charge still unsettled after {@code payments.rent.settle-timeout}
+ * suspends the schedule rather than risk charging twice. While {@link PaystackCircuitBreaker} is
+ * open nothing is sent: the schedule is deferred by {@code payments.rent.recheck-after} without
+ * a payment or an attempt, so an outage neither uses up retries nor records failed payments.
+ * <p>
+ * Metrics: {@code payments.rent.charges} (by outcome: succeeded, failed, pending, deferred or error)
+ * and the {@code payments.rent.charge} timer.
+ */
+@Service
+public class RentBillingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RentBillingService.class);
+
+    private static final String DEFAULT_CURRENCY = "NGN";
+
+    private enum Outcome { SUCCESS, FAILED, PENDING, DEFERRED, ERROR }
+
+    private final RentScheduleRepository scheduleRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaystackService paystackService;
+    private final PaymentStatusService paymentStatusService;
+    private final PaystackCircuitBreaker circuitBreaker;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int pageSize;
+    private final int maxPerRun;
+    private final Semaphore inFlight;
+    private final RateBudget rateBudget;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final Duration recheckAfter;
+    private final Duration settleTimeout;
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter pendingCounter;
+    private final Counter deferredCounter;
+    private final Counter errorCounter;
+    private final Timer chargeTimer;
+
+    public RentBillingService(RentScheduleRepository scheduleRepository,
+                              PaymentRepository paymentRepository,
+                              PaystackService paystackService,
+                              PaymentStatusService paymentStatusService,
+                              PaystackCircuitBreaker circuitBreaker,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${payments.rent.enabled:true}") boolean enabled,
+                              @Value("${payments.rent.page-size:100}") int pageSize,
+                              @Value("${payments.rent.max-per-run:10000}") int maxPerRun,
+                              @Value("${payments.rent.concurrency:8}") int concurrency,
+                              @Value("${payments.rent.rate-per-second:20}") double ratePerSecond,
+                              @Value("${payments.rent.retry-backoff:1h}") Duration retryBackoff,
+                              @Value("${payments.rent.max-attempts:4}") int maxAttempts,
+                              @Value("${payments.rent.recheck-after:15m}") Duration recheckAfter,
+                              @Value("${payments.rent.settle-timeout:1d}") Duration settleTimeout) {
+        this.scheduleRepository = scheduleRepository;
+        this.paymentRepository = paymentRepository;
+        this.paystackService = paystackService;
+        this.paymentStatusService = paymentStatusService;
+        this.circuitBreaker = circuitBreaker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPerRun = Math.max(1, maxPerRun);
+        this.inFlight = new Semaphore(Math.max(1, concurrency));
+        this.rateBudget = new RateBudget(ratePerSecond);
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.recheckAfter = recheckAfter;
+        this.settleTimeout = settleTimeout;
+        this.succeededCounter = chargeCounter(meterRegistry, "succeeded");
+        this.failedCounter = chargeCounter(meterRegistry, "failed");
+        this.pendingCounter = chargeCounter(meterRegistry, "pending");
+        this.deferredCounter = chargeCounter(meterRegistry, "deferred");
+        this.errorCounter = chargeCounter(meterRegistry, "error");
+        this.chargeTimer = Timer.builder("payments.rent.charge")
+                .description("Paystack charge_authorization calls for rent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.rent.interval-ms:300000}",
+            initialDelayString = "${payments.rent.initial-delay-ms:120000}")
+    public void chargeDue() {
+        if (!enabled) {
+            return;
+        }
+        RentBillingResult result = chargeDueAt(LocalDateTime.now());
+        if (result.schedules() > 0) {
+            logger.info("Rent billing: {} due schedule(s), {} paid, {} failed, {} pending, {} deferred, {} error(s) in {} ms",
+                    result.schedules(), result.succeeded(), result.failed(), result.pending(), result.deferred(),
+                    result.errors(), result.durationMillis());
+        }
+    }
+
+    /**
+     * Enrolls a tenant's monthly rent. The schedule is charged once a successful rent payment
+     * for the property has left a reusable card authorization.
+     */
+    public RentSchedule enroll(RentScheduleRequest request) {
+        if (request.email() == null || request.email().isBlank() || request.propertyId() == null
+                || request.firstDueOn() == null) {
+            throw new IllegalArgumentException("Email, property id and first due date are required");
+        }
+        String currency = request.currency() != null ? request.currency() : DEFAULT_CURRENCY;
+        return scheduleRepository.save(new RentSchedule(request.email(), request.userId(), request.propertyId(),
+                request.amount(), currency, request.firstDueOn().atStartOfDay()));
+    }
+
+    public Optional<RentSchedule> cancel(UUID scheduleId) {
+        return transactionTemplate.execute(status -> scheduleRepository.findById(scheduleId).map(schedule -> {
+            schedule.setStatus(RentScheduleStatus.CANCELLED);
+            return schedule;
+        }));
+    }
+
+    /**
+     * Charges up to {@code max-per-run} active schedules due at {@code now}.
+     */
+    public synchronized RentBillingResult chargeDueAt(LocalDateTime now) {
+        long start = System.currentTimeMillis();
+        int schedules = 0;
+        int[] outcomes = new int[Outcome.values().length];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (schedules < maxPerRun) {
+                int limit = Math.min(pageSize, maxPerRun - schedules);
+                List<RentSchedule> page = scheduleRepository.findDue(RentScheduleStatus.ACTIVE, now, PageRequest.of(0, limit));
+                List<Callable<Outcome>> charges = page.stream()
+                        .map(schedule -> (Callable<Outcome>) () -> bill(schedule, now))
+                        .toList();
+                int pageErrors = 0;
+                for (Future<Outcome> future : executor.invokeAll(charges)) {
+                    Outcome outcome;
+                    try {
+                        outcome = future.get();
+                    } catch (ExecutionException e) {
+                        logger.warn("Rent billing failed", e.getCause());
+                        outcome = Outcome.ERROR;
+                    }
+                    outcomes[outcome.ordinal()]++;
+                    if (outcome == Outcome.ERROR) {
+                        pageErrors++;
+                    }
+                }
+                schedules += page.size();
+                // A page that failed entirely would be read again unchanged
+                if (page.size() < limit || pageErrors == page.size()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Rent billing interrupted after {} schedule(s)", schedules);
+        }
+        succeededCounter.increment(outcomes[Outcome.SUCCESS.ordinal()]);
+        failedCounter.increment(outcomes[Outcome.FAILED.ordinal()]);
+        pendingCounter.increment(outcomes[Outcome.PENDING.ordinal()]);
+        deferredCounter.increment(outcomes[Outcome.DEFERRED.ordinal()]);
+        errorCounter.increment(outcomes[Outcome.ERROR.ordinal()]);
+        return new RentBillingResult(schedules, outcomes[Outcome.SUCCESS.ordinal()], outcomes[Outcome.FAILED.ordinal()],
+                outcomes[Outcome.PENDING.ordinal()], outcomes[Outcome.DEFERRED.ordinal()], outcomes[Outcome.ERROR.ordinal()],
+                System.currentTimeMillis() - start);
+    }
+
+    private Outcome bill(RentSchedule schedule, LocalDateTime now) throws InterruptedException {
+        if (schedule.getPendingReference() != null) {
+            return transactionTemplate.execute(status -> checkPendingCharge(schedule.getId(), now));
+        }
+
+        if (circuitBreaker.state() == PaystackCircuitBreaker.State.OPEN) {
+            transactionTemplate.executeWithoutResult(status -> scheduleRepository.findById(schedule.getId())
+                    .ifPresent(current -> current.postpone(now.plus(recheckAfter))));
+            return Outcome.DEFERRED;
+        }
+
+        String reference = PaymentReferences.next();
+        try {
+            transactionTemplate.executeWithoutResult(status -> startCharge(schedule, reference, now));
+        } catch (OptimisticLockingFailureException e) {
+            // Another instance is billing this schedule
+            return Outcome.ERROR;
+        }
+
+        PaystackChargeUpdate update;
+        inFlight.acquire();
+        try {
+            rateBudget.acquire();
+            update = chargeTimer.recordCallable(() -> paystackService.chargeAuthorization(schedule.getAuthorizationCode(),
+                    schedule.getEmail(), schedule.getAmount(), schedule.getCurrency(), reference));
+        } catch (PaystackUnavailableException e) {
+            // The breaker opened meanwhile and nothing was sent: undo the charge, not an attempt
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentRepository.findByReference(reference).ifPresent(paymentRepository::delete);
+                scheduleRepository.findById(schedule.getId()).ifPresent(current -> current.postpone(now.plus(recheckAfter)));
+            });
+            return Outcome.DEFERRED;
+        } catch (IllegalStateException e) {
+            // Refused by Paystack: nothing was charged
+            update = new PaystackChargeUpdate(reference, "failed", null, e.getMessage(), null,
+                    schedule.getCurrency(), null, null);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Outcome of rent charge {} is unknown; checking again in {}: {}", reference, recheckAfter, e.toString());
+            return Outcome.PENDING;
+        } finally {
+            inFlight.release();
+        }
+
+        paymentStatusService.applyChargeUpdate(update);
+        PaymentStatus settled = PaymentStatus.fromGatewayStatus(update.gatewayStatus());
+        String reason = update.gatewayResponse();
+        return transactionTemplate.execute(status -> recordOutcome(schedule.getId(), settled, reason, now));
+    }
+
+    // Inserts the pending rent payment and records its reference on the schedule; fails with an
+    // optimistic-lock error if the schedule changed since it was read
+    private void startCharge(RentSchedule schedule, String reference, LocalDateTime now) {
+        Payment payment = new Payment(schedule.getEmail(), schedule.getAmount(), PaymentStatus.PENDING,
+                schedule.getUserId(), PaymentType.RENT, schedule.getPropertyId());
+        payment.setReference(reference);
+        payment.setCurrency(schedule.getCurrency());
+        paymentRepository.save(payment);
+        schedule.chargeStarted(reference, now.plus(recheckAfter));
+        scheduleRepository.saveAndFlush(schedule);
+    }
+
+    // Looks up a charge whose outcome was not known when it was made
+    private Outcome checkPendingCharge(UUID scheduleId, LocalDateTime now) {
+        RentSchedule schedule = scheduleRepository.findById(scheduleId).orElseThrow();
+        String reference = schedule.getPendingReference();
+        Optional<Payment> payment = paymentRepository.findByReference(reference);
+        PaymentStatus status = payment.map(Payment::getPaymentStatus).orElse(null);
+        if (status == PaymentStatus.SUCCESS || status == PaymentStatus.FAILED) {
+            return recordOutcome(schedule, status, payment.get().getGatewayResponse(), now);
+        }
+        if (payment.isEmpty() || payment.get().getCreatedAt().isBefore(now.minus(settleTimeout))) {
+            logger.warn("Rent charge {} did not settle within {}; suspending schedule {}", reference, settleTimeout, scheduleId);
+            schedule.suspend("Charge " + reference + " did not settle within " + settleTimeout);
+            return Outcome.FAILED;
+        }
+        schedule.chargeStarted(reference, now.plus(recheckAfter));
+        return Outcome.PENDING;
+    }
+
+    private Outcome recordOutcome(UUID scheduleId, PaymentStatus status, String reason, LocalDateTime now) {
+        return recordOutcome(scheduleRepository.findById(scheduleId).orElseThrow(), status, reason, now);
+    }
+
+    private Outcome recordOutcome(RentSchedule schedule, PaymentStatus status, String reason, LocalDateTime now) {
+        if (status == PaymentStatus.SUCCESS) {
+            schedule.paid();
+            return Outcome.SUCCESS;
+        }
+        if (status == PaymentStatus.FAILED) {
+            int attempt = schedule.getAttempts() + 1;
+            schedule.chargeFailed(reason, now.plus(retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 20))));
+            if (attempt >= maxAttempts) {
+                logger.warn("Suspending rent schedule {} after {} failed charge(s): {}", schedule.getId(), attempt, reason);
+                schedule.suspend(reason);
+            }
+            return Outcome.FAILED;
+        }
+        // Still in progress at Paystack; the webhook or the next check settles it
+        return Outcome.PENDING;
+    }
+
+    private static Counter chargeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.rent.charges")
+                .description("Rent charges to stored card authorizations, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,233 @@
+package com.zennest.payment.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.WarmupResult;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.service.PaymentStatusService;
+import com.zennest.payment.service.PaystackSignatureVerifier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives synthetic traffic through the request paths before the instance reports ready, so
+ * the first real webhooks and checkouts do not run through cold, interpreted code.
+ * <p>
+ * It runs as an {@link ApplicationRunner}: Spring Boot only switches the readiness state to
+ * {@code ACCEPTING_TRAFFIC} once every runner has returned, so {@code /actuator/health/readiness}
+ * reports {@code OUT_OF_SERVICE} until the warm-up is over. Each round signs and verifies a
+ * webhook body and parses it like the webhook controller; inserts a scratch payment, settles
+ * it as failed through {@link PaymentStatusService} and looks it up by id and reference; and
+ * runs a GraphQL query for it. The database work happens in a transaction that is always
+ * rolled back, so no payment, outbox event or rollup is left behind and no request metric is
+ * counted. Rounds stop at {@code payments.warmup.max-iterations} or when
+ * {@code payments.warmup.budget} is spent, whichever comes first.
+ * <p>
+ * Metrics: {@code payments.warmup.seconds}, {@code payments.warmup.iterations} and the
+ * {@code payments.warmup.phase} timer (per round, by {@code phase}).
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String QUERY = "query Warmup($reference: String!) { getPaymentByReference(reference: $reference) "
+            + "{ id email amount status reference gatewayResponse channel currency createdAt updatedAt } }";
+
+    // Rounds that fail are not retried forever; a broken path is reported instead
+    private static final int MAX_ERRORS = 10;
+
+    private final PaystackSignatureVerifier signatureVerifier;
+    private final ObjectMapper objectMapper;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusService paymentStatusService;
+    private final ExecutionGraphQlService graphQlService;
+    private final TransactionTemplate scratchTransaction;
+    private final boolean enabled;
+    private final Duration budget;
+    private final int maxIterations;
+
+    private final AtomicLong lastIterations = new AtomicLong();
+    private final AtomicLong lastDurationMillis = new AtomicLong();
+    private final Timer webhookPhase;
+    private final Timer persistencePhase;
+    private final Timer graphQlPhase;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public WarmupRunner(PaystackSignatureVerifier signatureVerifier,
+                        ObjectMapper objectMapper,
+                        PaymentRepository paymentRepository,
+                        PaymentStatusService paymentStatusService,
+                        ExecutionGraphQlService graphQlService,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${payments.warmup.enabled:true}") boolean enabled,
+                        @Value("${payments.warmup.budget:15s}") Duration budget,
+                        @Value("${payments.warmup.max-iterations:1000}") int maxIterations) {
+        this.signatureVerifier = signatureVerifier;
+        this.objectMapper = objectMapper;
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusService = paymentStatusService;
+        this.graphQlService = graphQlService;
+        this.scratchTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.budget = budget;
+        this.maxIterations = maxIterations;
+
+        Gauge.builder("payments.warmup.seconds", lastDurationMillis, millis -> millis.get() / 1000.0)
+                .description("Duration of the startup warm-up")
+                .register(meterRegistry);
+        Gauge.builder("payments.warmup.iterations", lastIterations, AtomicLong::get)
+                .description("Rounds of synthetic traffic run by the startup warm-up")
+                .register(meterRegistry);
+        this.webhookPhase = phaseTimer(meterRegistry, "webhook");
+        this.persistencePhase = phaseTimer(meterRegistry, "persistence");
+        this.graphQlPhase = phaseTimer(meterRegistry, "graphql");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp(budget, maxIterations);
+        }
+    }
+
+    /**
+     * Runs warm-up rounds until {@code maxIterations} have completed or {@code budget} is spent.
+     */
+    public WarmupResult warmUp(Duration budget, int maxIterations) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        long[] first = new long[3];
+        long[] last = new long[3];
+        int iterations = 0;
+        int errors = 0;
+        while (iterations < maxIterations && System.nanoTime() < deadline && errors < MAX_ERRORS) {
+            try {
+                runRound(first, last, iterations == 0);
+            } catch (RuntimeException e) {
+                if (errors++ == 0) {
+                    logger.warn("Warm-up round failed; continuing with the remaining budget", e);
+                }
+            }
+            iterations++;
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastIterations.set(iterations);
+        lastDurationMillis.set(durationMillis);
+        logger.info("Warm-up finished: {} round(s), {} error(s) in {} ms (budget {}); first/last round: "
+                        + "webhook {}/{} us, persistence {}/{} us, graphql {}/{} us",
+                iterations, errors, durationMillis, budget,
+                micros(first[0]), micros(last[0]), micros(first[1]), micros(last[1]), micros(first[2]), micros(last[2]));
+        return new WarmupResult(iterations, errors, durationMillis);
+    }
+
+    private void runRound(long[] first, long[] last, boolean isFirst) {
+        String reference = "warmup-" + UUID.randomUUID();
+
+        long webhookStart = System.nanoTime();
+        PaystackChargeUpdate update = parseSignedWebhook(reference);
+        record(webhookPhase, 0, webhookStart, first, last, isFirst);
+
+        long persistenceStart = System.nanoTime();
+        scratchTransaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Payment scratch = new Payment("warmup@example.com", 100_000, PaymentStatus.PENDING, PaymentType.RENT);
+            scratch.setReference(reference);
+            paymentRepository.saveAndFlush(scratch);
+            paymentStatusService.applyChargeUpdate(update);
+            entityManager.flush();
+            paymentRepository.findByIdIncludingArchive(scratch.getId());
+            paymentRepository.countByPaymentStatus(PaymentStatus.PENDING);
+            record(persistencePhase, 1, persistenceStart, first, last, isFirst);
+
+            long graphQlStart = System.nanoTime();
+            ExecutionGraphQlResponse response = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+                    QUERY, "Warmup", Map.of("reference", reference), Map.of(), reference, Locale.ROOT)).block();
+            if (response == null || !response.isValid()) {
+                throw new IllegalStateException("Warm-up GraphQL query failed: "
+                        + (response == null ? "no response" : response.getErrors()));
+            }
+            record(graphQlPhase, 2, graphQlStart, first, last, isFirst);
+        });
+    }
+
+    // Builds a charge.failed webhook body, then verifies and parses it as the webhook does
+    @SuppressWarnings("unchecked")
+    private PaystackChargeUpdate parseSignedWebhook(String reference) {
+        try {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", 4099260516L);
+            data.put("status", "failed");
+            data.put("reference", reference);
+            data.put("amount", 100_000);
+            data.put("gateway_response", "Declined");
+            data.put("paid_at", OffsetDateTime.now(ZoneOffset.UTC).toString());
+            data.put("channel", "card");
+            data.put("currency", "NGN");
+            data.put("fees", 1_500);
+            data.put("customer", Map.of("email", "warmup@example.com"));
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("event", "charge.failed", "data", data));
+            String signature = HexFormat.of().formatHex(signatureVerifier.sign(body));
+            if (!signatureVerifier.isValid(body, signature)) {
+                throw new IllegalStateException("Warm-up webhook signature did not verify");
+            }
+            Map<String, Object> payload = objectMapper.readValue(body, Map.class);
+            return PaystackChargeUpdate.fromTransactionData((Map<String, Object>) payload.get("data"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void record(Timer timer, int phase, long phaseStart, long[] first, long[] last, boolean isFirst) {
+        long elapsed = System.nanoTime() - phaseStart;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (isFirst) {
+            first[phase] = elapsed;
+        }
+        last[phase] = elapsed;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("payments.warmup.phase")
+                .description("Duration of each warm-up round, by phase")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,158 @@
+package com.zennest.payment.webhook;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes webhooks off the request thread on {@code payments.webhook.lanes} single-threaded
+ * lanes (one per CPU by default). A webhook's payment reference picks its lane, so events for
+ * one payment are applied one at a time and in the order they were received, while different
+ * payments are processed in parallel and never race each other for the same row.
+ * <p>
+ * {@link #submit} returns a future completed once the task has run, so the caller can wait for
+ * the update to be applied before acknowledging the webhook. Each lane queues at most
+ * {@code payments.webhook.lane-capacity} webhooks; when the lane is full the future fails at once
+ * with a {@link RejectedExecutionException}, and the caller answers with {@code 503} so the
+ * sender retries later.
+ * <p>
+ * The caller holds its Tomcat request thread while its webhook is queued, so the request-thread
+ * pool, not the queue, is what really bounds the backlog. The capacity therefore defaults to
+ * {@code server.tomcat.threads.max} divided by the number of lanes: the lanes together can hold
+ * every request thread but no more, and a lane that fills up answers {@code 503} while threads
+ * are still free. That still lets one busy lane take its share of the request threads; when
+ * several lanes back up at once, other requests wait for a thread (up to
+ * {@code server.tomcat.accept-count}) before the lanes reject anything. Lower the capacity to keep
+ * more threads for the rest of the API. On shutdown, queued webhooks are drained for up to
+ * {@code payments.webhook.drain-timeout}; the futures of webhooks still queued after that are
+ * cancelled, so none is acknowledged without having been applied.
+ * <p>
+ * Metrics: {@code payments.webhook.lane.depth} (by {@code lane}) and
+ * {@code payments.webhook.lane.rejected}.
+ */
+@Component
+public class WebhookLanes implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookLanes.class);
+
+    private final ThreadPoolExecutor[] lanes;
+    private final int capacity;
+    private final Duration drainTimeout;
+    private final Counter rejected;
+
+    /**
+     * @param capacity webhooks queued per lane; 0 sizes it from {@code requestThreads}
+     * @param requestThreads Tomcat's request-thread budget shared by all lanes
+     */
+    @Autowired
+    public WebhookLanes(@Value("${payments.webhook.lanes:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int laneCount,
+                        @Value("${payments.webhook.lane-capacity:0}") int capacity,
+                        @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                        @Value("${payments.webhook.drain-timeout:10s}") Duration drainTimeout,
+                        MeterRegistry meterRegistry) {
+        this(laneCount, capacity > 0 ? capacity : Math.max(1, requestThreads / Math.max(1, laneCount)),
+                drainTimeout, meterRegistry);
+    }
+
+    public WebhookLanes(int laneCount, int capacity, Duration drainTimeout, MeterRegistry meterRegistry) {
+        if (laneCount < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Webhook lanes and lane capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.drainTimeout = drainTimeout;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "webhook-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                    runnable -> new Thread(runnable, name));
+            Gauge.builder("payments.webhook.lane.depth", lanes[i], lane -> lane.getQueue().size())
+                    .description("Webhooks queued on a processing lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.rejected = Counter.builder("payments.webhook.lane.rejected")
+                .description("Webhooks refused because their lane was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the task on the lane of the given reference.
+     *
+     * @return a future completed when the task has run, or completed exceptionally with the
+     * task's exception; with a {@link RejectedExecutionException} if the lane is full (or shutting
+     * down) and the task was not queued
+     */
+    public CompletableFuture<Void> submit(String reference, Runnable task) {
+        LaneTask laneTask = new LaneTask(reference, task);
+        try {
+            lanes[laneOf(reference)].execute(laneTask);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            laneTask.result.completeExceptionally(e);
+        }
+        return laneTask.result;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int laneOf(String reference) {
+        return Math.floorMod(Objects.hashCode(reference), lanes.length);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                List<Runnable> dropped = lane.shutdownNow();
+                logger.warn("Dropping {} queued webhooks on shutdown; they are not acknowledged", dropped.size());
+                for (Runnable task : dropped) {
+                    ((LaneTask) task).result.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static final class LaneTask implements Runnable {
+
+        private final String reference;
+        private final Runnable task;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private LaneTask(String reference, Runnable task) {
+            this.reference = reference;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+                result.complete(null);
+            } catch (RuntimeException e) {
+                logger.error("Webhook processing failed for reference {}", reference, e);
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+-- Expand step of the move from enum names (varchar) to smallint codes (see CodedEnum) in
+-- payments and payments_archive.
+--
+-- Adds nullable *_code columns next to the name columns and a trigger that keeps both sides in
+-- step, so instances that still write names and instances that write codes can run side by
+-- side. Only catalog changes: adding a nullable column without a default does not rewrite the
+-- table. Tables that have no name columns (created with the compact layout) are left alone;
+-- tables converted in place by the former startup migration get their columns renamed.
+
+set lock_timeout = '5s';
+
+create or replace function zn_payment_status_code(name text) returns smallint
+    language plpgsql immutable as $$
+begin
+    if name is null then
+        return null;
+    end if;
+    return case name
+        when 'PENDING' then 0
+        when 'SUCCESS' then 1
+        when 'FAILED' then 2
+        else zn_unknown_enum_value('payment_status', name)
+    end;
+end $$;
+
+create or replace function zn_payment_status_name(code smallint) returns text
+    language plpgsql immutable as $$
+begin
+    if code is null then
+        return null;
+    end if;
+    return case code
+        when 0 then 'PENDING'
+        when 1 then 'SUCCESS'
+        when 2 then 'FAILED'
+        else zn_unknown_enum_value('payment_status_code', code::text)::text
+    end;
+end $$;
+
+create or replace function zn_payment_type_code(name text) returns smallint
+    language plpgsql immutable as $$
+begin
+    if name is null then
+        return null;
+    end if;
+    return case name
+        when 'BOOKING' then 0
+        when 'RENT' then 1
+        when 'SALES' then 2
+        when 'MEMBERSHIP' then 3
+        else zn_unknown_enum_value('payment_type', name)
+    end;
+end $$;
+
+create or replace function zn_payment_type_name(code smallint) returns text
+    language plpgsql immutable as $$
+begin
+    if code is null then
+        return null;
+    end if;
+    return case code
+        when 0 then 'BOOKING'
+        when 1 then 'RENT'
+        when 2 then 'SALES'
+        when 3 then 'MEMBERSHIP'
+        else zn_unknown_enum_value('payment_type_code', code::text)::text
+    end;
+end $$;
+
+create or replace function zn_paystack_confirmation_code(name text) returns smallint
+    language plpgsql immutable as $$
+begin
+    if name is null then
+        return null;
+    end if;
+    return case name
+        when 'UNCONFIRMED' then 0
+        when 'CONFIRMED' then 1
+        when 'FAILED' then 2
+        else zn_unknown_enum_value('paystack_confirmation', name)
+    end;
+end $$;
+
+create or replace function zn_paystack_confirmation_name(code smallint) returns text
+    language plpgsql immutable as $$
+begin
+    if code is null then
+        return null;
+    end if;
+    return case code
+        when 0 then 'UNCONFIRMED'
+        when 1 then 'CONFIRMED'
+        when 2 then 'FAILED'
+        else zn_unknown_enum_value('paystack_confirmation_code', code::text)::text
+    end;
+end $$;
+
+-- A value with no mapping stops the statement instead of becoming NULL
+create or replace function zn_unknown_enum_value(col text, value text) returns smallint
+    language plpgsql immutable as $$
+begin
+    raise exception 'No mapping for % value %', col, quote_literal(value);
+end $$;
+
+-- Fills whichever side the writer did not set: old instances write names, new ones codes.
+-- On UPDATE the side that changed wins; Hibernate rewrites every mapped column, so an old
+-- instance changes the name and leaves the code as it was, and a new one the other way round.
+create or replace function zn_payment_codes_sync() returns trigger
+    language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        if new.payment_status_code is null then
+            new.payment_status_code := zn_payment_status_code(new.payment_status);
+        elsif new.payment_status is null then
+            new.payment_status := zn_payment_status_name(new.payment_status_code);
+        end if;
+        if new.payment_type_code is null then
+            new.payment_type_code := zn_payment_type_code(new.payment_type);
+        elsif new.payment_type is null then
+            new.payment_type := zn_payment_type_name(new.payment_type_code);
+        end if;
+        if new.paystack_confirmation_code is null then
+            new.paystack_confirmation_code := zn_paystack_confirmation_code(new.paystack_confirmation);
+        elsif new.paystack_confirmation is null then
+            new.paystack_confirmation := zn_paystack_confirmation_name(new.paystack_confirmation_code);
+        end if;
+    else
+        if new.payment_status is distinct from old.payment_status then
+            new.payment_status_code := zn_payment_status_code(new.payment_status);
+        elsif new.payment_status_code is distinct from old.payment_status_code then
+            new.payment_status := zn_payment_status_name(new.payment_status_code);
+        end if;
+        if new.payment_type is distinct from old.payment_type then
+            new.payment_type_code := zn_payment_type_code(new.payment_type);
+        elsif new.payment_type_code is distinct from old.payment_type_code then
+            new.payment_type := zn_payment_type_name(new.payment_type_code);
+        end if;
+        if new.paystack_confirmation is distinct from old.paystack_confirmation then
+            new.paystack_confirmation_code := zn_paystack_confirmation_code(new.paystack_confirmation);
+        elsif new.paystack_confirmation_code is distinct from old.paystack_confirmation_code then
+            new.paystack_confirmation := zn_paystack_confirmation_name(new.paystack_confirmation_code);
+        end if;
+    end if;
+    return new;
+end $$;
+
+do $$
+declare
+    t text;
+    name_type text;
+begin
+    foreach t in array array['payments', 'payments_archive'] loop
+        select data_type into name_type from information_schema.columns
+        where table_schema = current_schema() and table_name = t and column_name = 'payment_status';
+
+        if name_type = 'smallint' then
+            -- Already holds codes under the old names
+            execute format('alter table %I rename column payment_status to payment_status_code', t);
+            execute format('alter table %I rename column payment_type to payment_type_code', t);
+            execute format('alter table %I rename column paystack_confirmation to paystack_confirmation_code', t);
+        elsif name_type is not null then
+            execute format('alter table %I '
+                    || 'add column if not exists payment_status_code smallint, '
+                    || 'add column if not exists payment_type_code smallint, '
+                    || 'add column if not exists paystack_confirmation_code smallint', t);
+            execute format('drop trigger if exists zn_payment_codes_sync on %I', t);
+            execute format('create trigger zn_payment_codes_sync before insert or update on %I '
+                    || 'for each row execute function zn_payment_codes_sync()', t);
+        end if;
+    end loop;
+end $$;
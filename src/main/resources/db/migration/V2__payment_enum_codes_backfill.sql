@@ -0,0 +1,27 @@
+-- Backfills the *_code columns added by V1 in batches of 5000 rows, committing after each, so
+-- no lock is held for long and live writes go on; the trigger keeps rows written meanwhile in
+-- step. A name with no code stops the migration (see zn_unknown_enum_value). Runs outside a
+-- transaction (V2__payment_enum_codes_backfill.sql.conf) for the COMMITs.
+
+do $$
+declare
+    t text;
+    updated integer;
+begin
+    foreach t in array array['payments', 'payments_archive'] loop
+        if exists (select 1 from information_schema.columns
+                   where table_schema = current_schema() and table_name = t and column_name = 'payment_status') then
+            loop
+                execute format('update %I set '
+                        || 'payment_status_code = zn_payment_status_code(payment_status), '
+                        || 'payment_type_code = zn_payment_type_code(payment_type), '
+                        || 'paystack_confirmation_code = zn_paystack_confirmation_code(paystack_confirmation) '
+                        || 'where ctid = any (array(select ctid from %I where payment_status_code is null '
+                        || 'or payment_type_code is null or paystack_confirmation_code is null limit 5000))', t, t);
+                get diagnostics updated = row_count;
+                commit;
+                exit when updated = 0;
+            end loop;
+        end if;
+    end loop;
+end $$;
@@ -0,0 +1,33 @@
+-- Makes the backfilled *_code columns NOT NULL and indexes payments by status code, without
+-- blocking writes for the length of a table scan: the NOT VALID check is validated under a
+-- SHARE UPDATE EXCLUSIVE lock, after which SET NOT NULL uses it instead of scanning, and the
+-- index is built concurrently. Runs outside a transaction (V3__...sql.conf) for CONCURRENTLY.
+-- Expects the payments table; a database created with the compact layout passes unchanged.
+
+set lock_timeout = '5s';
+
+do $$
+declare
+    t text;
+    c text;
+begin
+    foreach t in array array['payments', 'payments_archive'] loop
+        foreach c in array array['payment_status_code', 'payment_type_code', 'paystack_confirmation_code'] loop
+            if exists (select 1 from information_schema.columns where table_schema = current_schema()
+                       and table_name = t and column_name = c and is_nullable = 'YES') then
+                execute format('alter table %I add constraint %I check (%I is not null) not valid',
+                        t, t || '_' || c || '_not_null', c);
+                execute format('alter table %I validate constraint %I', t, t || '_' || c || '_not_null');
+                execute format('alter table %I alter column %I set not null', t, c);
+                execute format('alter table %I drop constraint %I', t, t || '_' || c || '_not_null');
+            end if;
+        end loop;
+    end loop;
+end $$;
+
+-- Waits for transactions older than itself rather than blocking writes; no lock timeout. Flyway
+-- must not hold a transaction meanwhile (flyway.postgresql.transactional.lock=false).
+reset lock_timeout;
+
+create index concurrently if not exists idx_payments_status_code_created_at
+    on payments (payment_status_code, created_at);
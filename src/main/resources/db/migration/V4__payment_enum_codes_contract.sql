@@ -0,0 +1,32 @@
+-- Contract step: drops the enum-name columns, their trigger and the mapping functions. Run only
+-- once no instance older than the compact layout is left (mvn -Pmigrate flyway:migrate
+-- -Dmigration.target=latest); from then on a write of names fails. Dropping a column only
+-- changes the catalog, and the old (payment_status, created_at) index goes with it.
+
+set lock_timeout = '5s';
+
+do $$
+declare
+    t text;
+begin
+    foreach t in array array['payments', 'payments_archive'] loop
+        if exists (select 1 from information_schema.columns
+                   where table_schema = current_schema() and table_name = t and column_name = 'payment_status') then
+            execute format('drop trigger if exists zn_payment_codes_sync on %I', t);
+            execute format('alter table %I drop column payment_status, drop column payment_type, '
+                    || 'drop column paystack_confirmation', t);
+        end if;
+    end loop;
+end $$;
+
+drop function if exists zn_payment_codes_sync();
+drop function if exists zn_payment_status_code(text);
+drop function if exists zn_payment_status_name(smallint);
+drop function if exists zn_payment_type_code(text);
+drop function if exists zn_payment_type_name(smallint);
+drop function if exists zn_paystack_confirmation_code(text);
+drop function if exists zn_paystack_confirmation_name(smallint);
+drop function if exists zn_unknown_enum_value(text, text);
+
+-- Left over where V1 renamed columns converted in place; V3 built the replacement
+drop index if exists idx_payments_status_created_at;
@@ -0,0 +1,66 @@
+package com.zennest.payment.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceSelfCheckTest {
+
+    private static final Map<String, Object> BATCHING = Map.of(
+            "hibernate.jdbc.batch_size", "50",
+            "hibernate.order_inserts", "true",
+            "hibernate.order_updates", "true");
+
+    @Test
+    void sizesThePoolFromTheCpus() {
+        assertThat(DataSourcePoolSizing.poolSize(1, 2, 4)).isEqualTo(4);
+        assertThat(DataSourcePoolSizing.poolSize(4, 2, 4)).isEqualTo(9);
+        assertThat(DataSourcePoolSizing.poolSize(0, 2, 1)).isEqualTo(3);
+    }
+
+    @Test
+    void tunedPostgresPoolHasNoFindings() {
+        HikariDataSource dataSource = pool(5);
+        dataSource.setJdbcUrl("jdbc:postgresql://db:5432/payments?reWriteBatchedInserts=true");
+        dataSource.addDataSourceProperty("prepareThreshold", "2");
+
+        assertThat(DataSourceSelfCheck.findings(dataSource, BATCHING, "PostgreSQL", 97, 2)).isEmpty();
+    }
+
+    @Test
+    void warnsAboutSettingsThatBottleneck() {
+        HikariDataSource dataSource = pool(50);
+        dataSource.setMinimumIdle(10);
+        dataSource.setConnectionTimeout(30_000);
+        dataSource.setJdbcUrl("jdbc:postgresql://db:5432/payments?prepareThreshold=0");
+
+        assertThat(DataSourceSelfCheck.findings(dataSource, Map.of(), "PostgreSQL", 40, 2))
+                .hasSize(7)
+                .anyMatch(finding -> finding.startsWith("pool of 50 connections for 2 CPU(s)"))
+                .anyMatch(finding -> finding.contains("exceeds the 40 the database accepts"))
+                .anyMatch(finding -> finding.startsWith("minimum-idle 10"))
+                .anyMatch(finding -> finding.startsWith("connection-timeout of 30000 ms"))
+                .anyMatch(finding -> finding.startsWith("hibernate.jdbc.batch_size is not set"))
+                .anyMatch(finding -> finding.startsWith("prepareThreshold=0"))
+                .anyMatch(finding -> finding.startsWith("reWriteBatchedInserts"));
+    }
+
+    @Test
+    void warnsWhenBatchesAreNotOrdered() {
+        HikariDataSource dataSource = pool(4);
+
+        assertThat(DataSourceSelfCheck.findings(dataSource, Map.of("hibernate.jdbc.batch_size", 50), "H2", -1, 1))
+                .containsExactly("hibernate.order_inserts/order_updates are off; interleaved entity writes break JDBC batches");
+    }
+
+    private static HikariDataSource pool(int size) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(size);
+        dataSource.setConnectionTimeout(3_000);
+        return dataSource;
+    }
+}
@@ -0,0 +1,125 @@
+package com.zennest.payment.Config;
+
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GraphQlDocumentCacheTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void runsRegisteredQueriesFromTheirHash() throws IOException {
+        Payment payment = new Payment("persisted@example.com", 70_000, PaymentStatus.PENDING, PaymentType.RENT);
+        payment.setReference("persisted-registered");
+        paymentRepository.save(payment);
+        String document = new ClassPathResource("graphql/persisted/paymentByReference.graphql")
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        ExecutionGraphQlResponse response = execute(null, GraphQlDocumentCache.sha256(document),
+                Map.of("reference", "persisted-registered"));
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(response.field("getPaymentByReference.id").<String>getValue()).isEqualTo(payment.getId().toString());
+    }
+
+    @Test
+    void registersUnknownQueriesSentWithTheirDocument() {
+        String document = "query Persisted" + UUID.randomUUID().toString().replace("-", "")
+                + " { countPaymentsByStatus(status: PENDING) }";
+        String hash = GraphQlDocumentCache.sha256(document);
+
+        assertThat(execute(null, hash, Map.of()).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound"));
+        assertThat(execute(document, "0".repeat(64), Map.of()).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryIdInvalid"));
+        assertThat(execute(document, hash, Map.of()).getErrors()).isEmpty();
+        assertThat(execute(null, hash, Map.of()).getErrors()).isEmpty();
+    }
+
+    @Test
+    void refusesACachedDocumentSentUnderAnotherHash() {
+        String document = "query Cached" + UUID.randomUUID().toString().replace("-", "")
+                + " { countPaymentsByStatus(status: SUCCESS) }";
+        String other = GraphQlDocumentCache.sha256("query Other { countPaymentsByStatus(status: FAILED) } # "
+                + UUID.randomUUID());
+        assertThat(execute(document, GraphQlDocumentCache.sha256(document), Map.of()).getErrors()).isEmpty();
+
+        assertThat(execute(document, other, Map.of()).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryIdInvalid"));
+        assertThat(execute(null, other, Map.of()).getErrors())
+                .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound"));
+    }
+
+    @Test
+    void parsesAndValidatesEachDocumentOnce() {
+        String document = "{ countPaymentsByStatus(status: FAILED) } # " + UUID.randomUUID();
+        long parsed = meterRegistry.get("payments.graphql.document").tag("phase", "parse").timer().count();
+        long validated = meterRegistry.get("payments.graphql.document").tag("phase", "validate").timer().count();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(execute(document, null, Map.of()).getErrors()).isEmpty();
+        }
+
+        assertThat(meterRegistry.get("payments.graphql.document").tag("phase", "parse").timer().count())
+                .isEqualTo(parsed + 1);
+        assertThat(meterRegistry.get("payments.graphql.document").tag("phase", "validate").timer().count())
+                .isEqualTo(validated + 1);
+    }
+
+    @Test
+    void cachedDocumentsAreStillCheckedForComplexity() {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ids.append(i == 0 ? "" : ", ").append('"').append(UUID.randomUUID()).append('"');
+        }
+        String document = "{ paymentsByPropertyIds(propertyIds: [" + ids + "], limitPerProperty: 100) "
+                + "{ payments { id email amount status reference user { id } } } }";
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(execute(document, null, Map.of()).getErrors())
+                    .singleElement().satisfies(error -> assertThat(error.getMessage()).contains("complexity"));
+        }
+    }
+
+    private ExecutionGraphQlResponse execute(String document, String hash, Map<String, Object> variables) {
+        Map<String, Object> extensions = hash == null ? Map.of()
+                : Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(
+                document == null ? PersistedQuerySupport.PERSISTED_QUERY_MARKER : document,
+                null, variables, extensions, UUID.randomUUID().toString(), Locale.ROOT)).block();
+    }
+}
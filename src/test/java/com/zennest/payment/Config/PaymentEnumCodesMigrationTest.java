@@ -0,0 +1,214 @@
+package com.zennest.payment.Config;
+
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs {@code src/main/resources/db/migration} on PostgreSQL: against
+ * {@code -Dpayments.test.postgres-url} if set, otherwise a Testcontainers database; skipped
+ * when neither is available. Every test works in a schema of its own.
+ */
+class PaymentEnumCodesMigrationTest {
+
+    private static PostgreSQLContainer<?> container;
+    private static String url;
+    private static String user;
+    private static String password;
+
+    private String schema;
+
+    @BeforeAll
+    static void startPostgres() {
+        url = System.getProperty("payments.test.postgres-url");
+        user = System.getProperty("payments.test.postgres-user", "postgres");
+        password = System.getProperty("payments.test.postgres-password", "");
+        if (url == null) {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "No PostgreSQL: Docker is not available");
+            container = new PostgreSQLContainer<>("postgres:16.0");
+            container.start();
+            url = container.getJdbcUrl();
+            user = container.getUsername();
+            password = container.getPassword();
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @BeforeEach
+    void newSchema() {
+        schema = "migration_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+    @Test
+    void convertsNamesToCodesWhileOldAndNewInstancesWrite() throws Exception {
+        createOriginalLayout(true);
+        execute("insert into payments (id, email, amount, payment_status, payment_type, paystack_confirmation, created_at) "
+                + "values ('00000000-0000-0000-0000-000000000001', 'a@example.com', 100, 'SUCCESS', 'RENT', 'CONFIRMED', now()), "
+                + "('00000000-0000-0000-0000-000000000002', 'b@example.com', 200, 'PENDING', 'MEMBERSHIP', 'UNCONFIRMED', now())");
+        execute("insert into payments_archive (id, email, amount, payment_status, payment_type, paystack_confirmation, created_at, archived_at) "
+                + "values ('00000000-0000-0000-0000-000000000003', 'c@example.com', 300, 'FAILED', 'BOOKING', 'FAILED', now(), now())");
+
+        migrate("3");
+
+        assertThat(codes("payments", "00000000-0000-0000-0000-000000000001"))
+                .containsExactly(code(PaymentStatus.SUCCESS), code(PaymentType.RENT), code(PaystackConfirmationStatus.CONFIRMED));
+        assertThat(codes("payments", "00000000-0000-0000-0000-000000000002"))
+                .containsExactly(code(PaymentStatus.PENDING), code(PaymentType.MEMBERSHIP), code(PaystackConfirmationStatus.UNCONFIRMED));
+        assertThat(codes("payments_archive", "00000000-0000-0000-0000-000000000003"))
+                .containsExactly(code(PaymentStatus.FAILED), code(PaymentType.BOOKING), code(PaystackConfirmationStatus.FAILED));
+        assertThat(query("select is_nullable from information_schema.columns where table_schema = current_schema() "
+                + "and table_name = 'payments' and column_name like '%\\_code' order by column_name"))
+                .containsExactly("NO", "NO", "NO");
+        assertThat(query("select indexdef from pg_indexes where schemaname = current_schema() "
+                + "and indexname = 'idx_payments_status_code_created_at'"))
+                .singleElement().asString().contains("(payment_status_code, created_at)");
+
+        // An instance still on the original layout writes names only
+        execute("insert into payments (id, email, amount, payment_status, payment_type, paystack_confirmation, created_at) "
+                + "values ('00000000-0000-0000-0000-000000000004', 'd@example.com', 400, 'PENDING', 'SALES', 'UNCONFIRMED', now())");
+        execute("update payments set payment_status = 'SUCCESS' where id = '00000000-0000-0000-0000-000000000004'");
+        assertThat(codes("payments", "00000000-0000-0000-0000-000000000004"))
+                .containsExactly(code(PaymentStatus.SUCCESS), code(PaymentType.SALES), code(PaystackConfirmationStatus.UNCONFIRMED));
+
+        // A new instance writes codes only
+        execute("insert into payments (id, email, amount, payment_status_code, payment_type_code, paystack_confirmation_code, created_at) "
+                + "values ('00000000-0000-0000-0000-000000000005', 'e@example.com', 500, 0, 1, 0, now())");
+        execute("update payments set payment_status_code = 2 where id = '00000000-0000-0000-0000-000000000005'");
+        assertThat(query("select payment_status || ' ' || payment_type || ' ' || paystack_confirmation from payments "
+                + "where id = '00000000-0000-0000-0000-000000000005'"))
+                .containsExactly("FAILED RENT UNCONFIRMED");
+
+        migrate("latest");
+
+        assertThat(query("select column_name from information_schema.columns where table_schema = current_schema() "
+                + "and table_name in ('payments', 'payments_archive') and column_name in "
+                + "('payment_status', 'payment_type', 'paystack_confirmation')")).isEmpty();
+        execute("insert into payments (id, email, amount, payment_status_code, payment_type_code, paystack_confirmation_code, created_at) "
+                + "values ('00000000-0000-0000-0000-000000000006', 'f@example.com', 600, 1, 3, 1, now())");
+        assertThat(codes("payments", "00000000-0000-0000-0000-000000000006"))
+                .containsExactly(code(PaymentStatus.SUCCESS), code(PaymentType.MEMBERSHIP), code(PaystackConfirmationStatus.CONFIRMED));
+    }
+
+    @Test
+    void stopsAtANameWithoutACode() throws Exception {
+        createOriginalLayout(false);
+        execute("insert into payments (id, email, amount, payment_status, payment_type, paystack_confirmation, created_at) "
+                + "values ('00000000-0000-0000-0000-000000000001', 'a@example.com', 100, 'REFUNDED', 'RENT', 'CONFIRMED', now())");
+
+        assertThatThrownBy(() -> migrate("3"))
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("No mapping for payment_status value 'REFUNDED'");
+        assertThat(query("select coalesce(payment_status_code::text, 'null') from payments")).containsExactly("null");
+    }
+
+    @Test
+    void leavesTheCompactLayoutAlone() throws Exception {
+        execute("create schema " + schema);
+        execute("create table payments (id uuid primary key, email varchar(255) not null, amount integer not null, "
+                + "payment_status_code smallint not null, payment_type_code smallint not null, "
+                + "paystack_confirmation_code smallint not null, created_at timestamp(6) not null)");
+        execute("create index idx_payments_status_code_created_at on payments (payment_status_code, created_at)");
+        execute("insert into payments values ('00000000-0000-0000-0000-000000000001', 'a@example.com', 100, 1, 1, 1, now())");
+
+        migrate("latest");
+
+        assertThat(codes("payments", "00000000-0000-0000-0000-000000000001")).containsExactly("1", "1", "1");
+    }
+
+    // The payments tables as Hibernate created them from @Enumerated(EnumType.STRING) fields
+    private void createOriginalLayout(boolean enumChecks) throws SQLException {
+        execute("create schema " + schema);
+        for (String table : new String[]{"payments", "payments_archive"}) {
+            execute("create table " + table + " (id uuid primary key, email varchar(255) not null, "
+                    + "amount integer not null, "
+                    + "payment_status varchar(255) not null" + check("payment_status", "('PENDING','SUCCESS','FAILED')", enumChecks) + ", "
+                    + "payment_type varchar(255) not null" + check("payment_type", "('BOOKING','RENT','SALES','MEMBERSHIP')", enumChecks) + ", "
+                    + "paystack_confirmation varchar(255) not null" + check("paystack_confirmation", "('UNCONFIRMED','CONFIRMED','FAILED')", enumChecks) + ", "
+                    + "currency varchar(255), channel varchar(255), created_at timestamp(6) not null"
+                    + ("payments_archive".equals(table) ? ", archived_at timestamp(6) not null)" : ")"));
+        }
+        execute("create index idx_payments_status_created_at on payments (payment_status, created_at)");
+    }
+
+    private static String check(String column, String values, boolean enabled) {
+        return enabled ? " check (" + column + " in " + values + ")" : "";
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .target(target)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    private List<String> codes(String table, String id) throws SQLException {
+        return query("select unnest(array[payment_status_code, payment_type_code, paystack_confirmation_code])::text "
+                + "from " + table + " where id = '" + id + "'");
+    }
+
+    private static String code(Enum<?> value) {
+        return switch (value) {
+            case PaymentStatus status -> String.valueOf(status.getCode());
+            case PaymentType type -> String.valueOf(type.getCode());
+            case PaystackConfirmationStatus confirmation -> String.valueOf(confirmation.getCode());
+            default -> throw new IllegalArgumentException(value.toString());
+        };
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private List<String> query(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            List<String> values = new ArrayList<>();
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+            return values;
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        connection.setSchema(schema);
+        return connection;
+    }
+}
@@ -0,0 +1,90 @@
+package com.zennest.payment.Filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApiKeyFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ApiKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ApiKeyFilter("legacy-key", "booking:booking-key, property:property-key", meterRegistry);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void acceptsEveryRotatingKeyAndSharesOneAuthenticationPerClient() throws Exception {
+        MockHttpServletResponse first = call("Bearer booking-key");
+        Authentication firstAuth = SecurityContextHolder.getContext().getAuthentication();
+        MockHttpServletResponse second = call("Bearer booking-key");
+        Authentication secondAuth = SecurityContextHolder.getContext().getAuthentication();
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(firstAuth.getName()).isEqualTo("booking");
+        assertThat(firstAuth.isAuthenticated()).isTrue();
+        assertThat(secondAuth).isSameAs(firstAuth);
+        assertThat(firstAuth).isNotInstanceOf(CredentialsContainer.class);
+        assertThatThrownBy(() -> firstAuth.setAuthenticated(false)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(call("Bearer property-key").getStatus()).isEqualTo(200);
+        assertThat(call("Bearer legacy-key").getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("default");
+    }
+
+    @Test
+    void rejectsUnknownOrMissingKeys() throws Exception {
+        assertThat(call("Bearer booking-kez").getStatus()).isEqualTo(401);
+        assertThat(call(null).getStatus()).isEqualTo(401);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void countsRequestsPerClientAndOutcome() throws Exception {
+        call("Bearer booking-key");
+        call("Bearer booking-key");
+        call("Bearer nope");
+
+        assertThat(meterRegistry.get("payments.auth.requests")
+                .tags("client", "booking", "outcome", "success").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("payments.auth.requests")
+                .tags("client", "unknown", "outcome", "invalid_key").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void letsSignedWebhooksThroughWithoutAKey() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/payments/webhook");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    private MockHttpServletResponse call(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/graphql");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
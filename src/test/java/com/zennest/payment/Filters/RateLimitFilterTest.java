@@ -0,0 +1,59 @@
+package com.zennest.payment.Filters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    // 2 requests per address, 5 per client, in a window long enough not to roll over mid-test
+    private final RateLimitFilter filter = new RateLimitFilter(true, Duration.ofMinutes(1), 2, 5, 1000,
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void holdsUnauthenticatedRequestsToTheirAddress() throws Exception {
+        assertThat(call("10.0.0.1", null)).isEqualTo(200);
+        assertThat(call("10.0.0.1", null)).isEqualTo(200);
+        assertThat(call("10.0.0.1", null)).isEqualTo(429);
+        assertThat(call("10.0.0.2", null)).isEqualTo(200);
+    }
+
+    @Test
+    void holdsServiceClientsBehindOneAddressOnlyToTheClientLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(call("10.0.0.9", "booking")).isEqualTo(200);
+        }
+        assertThat(call("10.0.0.9", "booking")).isEqualTo(429);
+        assertThat(call("10.0.0.9", "property")).isEqualTo(200);
+        // Clients' requests do not use up the address's budget
+        assertThat(call("10.0.0.9", null)).isEqualTo(200);
+    }
+
+    private int call(String remoteAddress, String clientId) throws Exception {
+        SecurityContextHolder.clearContext();
+        if (clientId != null) {
+            SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    clientId, null, AuthorityUtils.createAuthorityList("ROLE_SERVICE")));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/verify/ZN-1");
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -2,10 +2,13 @@ package com.zennest.payment.controller;
 
 import com.zennest.payment.model.PaymentStatus;
 import com.zennest.payment.repo.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,11 +22,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(PaymentController.class)
 @ActiveProfiles("test")
 @AutoConfigureMockMvc(addFilters = false)
+@Import(SimpleMeterRegistry.class) // servlet filters in the slice record metrics
 class PaymentControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private PaymentRepository paymentRepository;
+
     @Test
     public void shouldReturnHealthResponse() throws Exception {
         this.mockMvc.perform(get("/api/payments/health"))
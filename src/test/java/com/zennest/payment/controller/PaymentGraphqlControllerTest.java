@@ -0,0 +1,164 @@
+package com.zennest.payment.controller;
+
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.service.PaymentArchiveService;
+import com.zennest.payment.service.PaystackService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentGraphqlControllerTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentArchiveService archiveService;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Test
+    void resolvesLookupsAndUsersInBatches() {
+        UUID knownUser = UUID.randomUUID();
+        UUID foundUser = UUID.randomUUID();
+        Payment withUser = save("graphql-with-user", "known@example.com", knownUser);
+        Payment withoutUser = save("graphql-without-user", "found@example.com", null);
+        when(userGraphQLClient.getUserUUIDsByEmail(anyCollection()))
+                .thenReturn(Mono.just(Map.of("found@example.com", foundUser)));
+
+        GraphQlTester.Response response = graphQl().document("""
+                {
+                  a: getPaymentById(id: "%s") { reference user { id email } }
+                  b: getPaymentByReference(reference: "graphql-without-user") { id user { id email } }
+                  c: getPaymentByReference(reference: "graphql-with-user") { id }
+                }
+                """.formatted(withUser.getId())).execute();
+
+        response.path("a.reference").entity(String.class).isEqualTo("graphql-with-user");
+        response.path("a.user.id").entity(UUID.class).isEqualTo(knownUser);
+        response.path("b.id").entity(UUID.class).isEqualTo(withoutUser.getId());
+        response.path("b.user.id").entity(UUID.class).isEqualTo(foundUser);
+        response.path("c.id").entity(UUID.class).isEqualTo(withUser.getId());
+        // One user-service call for the whole response, only for the payment without a user id
+        verify(userGraphQLClient, times(1)).getUserUUIDsByEmail(List.of("found@example.com"));
+    }
+
+    @Test
+    void findsArchivedPaymentsInTheSameBatch() {
+        Payment live = save("graphql-live", "live@example.com", UUID.randomUUID());
+        Payment first = settled("graphql-archived-1");
+        Payment second = settled("graphql-archived-2");
+        archiveService.archiveSettledBefore(LocalDateTime.now().plusSeconds(1));
+        assertThat(paymentRepository.findById(first.getId())).isEmpty();
+
+        GraphQlTester.Response response = graphQl().document("""
+                {
+                  a: getPaymentById(id: "%s") { reference }
+                  b: getPaymentById(id: "%s") { reference }
+                  c: getPaymentByReference(reference: "graphql-archived-2") { id }
+                  d: getPaymentByReference(reference: "graphql-live") { id }
+                }
+                """.formatted(first.getId(), second.getId())).execute();
+
+        response.path("a.reference").entity(String.class).isEqualTo("graphql-archived-1");
+        response.path("b.reference").entity(String.class).isEqualTo("graphql-archived-2");
+        response.path("c.id").entity(UUID.class).isEqualTo(second.getId());
+        response.path("d.id").entity(UUID.class).isEqualTo(live.getId());
+    }
+
+    @Test
+    void exposesThePaymentStatusAsStatus() {
+        Payment payment = settled("graphql-status");
+
+        graphQl().document("{ getPaymentById(id: \"%s\") { status } }".formatted(payment.getId()))
+                .execute()
+                .path("getPaymentById.status").entity(PaymentStatus.class).isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void settlesACheckoutPaystackCouldNotInitializeAsFailed() throws Exception {
+        String email = "donation-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        when(paystackService.initializePayment(any(), anyString())).thenThrow(new IOException("Connection refused"));
+
+        graphQl().document("mutation { createMemberDonation(request: {email: \"%s\", amount: 5000}) { paymentId } }"
+                        .formatted(email))
+                .execute()
+                .errors()
+                .satisfy(errors -> assertThat(errors).isNotEmpty());
+
+        Payment failed = paymentRepository.findAll().stream()
+                .filter(payment -> payment.getEmail().equals(email))
+                .findFirst().orElseThrow();
+        assertThat(failed.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(failed.getPaystackConfirmation()).isEqualTo(PaystackConfirmationStatus.FAILED);
+        assertThat(outboxRepository.findByReferenceOrderById(failed.getReference())).hasSize(1);
+    }
+
+    @Test
+    void rejectsQueriesThatCouldReturnTooMuch() {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ids.append(i == 0 ? "" : ", ").append('"').append(UUID.randomUUID()).append('"');
+        }
+        graphQl().document("{ paymentsByPropertyIds(propertyIds: [" + ids + "], limitPerProperty: 100) "
+                        + "{ payments { id email amount status reference user { id } } } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertThat(errors).singleElement()
+                        .satisfies(error -> assertThat(error.getMessage()).contains("complexity")));
+    }
+
+    private Payment save(String reference, String email, UUID userId) {
+        Payment payment = new Payment(email, 50_000, PaymentStatus.PENDING, userId, PaymentType.BOOKING, null);
+        payment.setReference(reference);
+        return paymentRepository.save(payment);
+    }
+
+    private Payment settled(String reference) {
+        Payment payment = new Payment(reference + "@example.com", 50_000, PaymentStatus.SUCCESS, PaymentType.SALES);
+        payment.setReference(reference);
+        return paymentRepository.save(payment);
+    }
+
+    private ExecutionGraphQlServiceTester graphQl() {
+        return ExecutionGraphQlServiceTester.create(graphQlService);
+    }
+}
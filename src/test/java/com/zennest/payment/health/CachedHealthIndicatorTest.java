@@ -0,0 +1,82 @@
+package com.zennest.payment.health;
+
+import com.zennest.payment.service.PaystackCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedHealthIndicatorTest {
+
+    @Test
+    void answersFromTheLastCheckUntilItIsTooOld() throws InterruptedException {
+        Deque<Health> results = new ArrayDeque<>();
+        CachedHealthIndicator indicator = new CachedHealthIndicator() {
+            @Override
+            protected Health check() {
+                return results.poll();
+            }
+        };
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UNKNOWN);
+
+        results.add(Health.up().build());
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(indicator.health().getDetails()).containsKey("checkedAt");
+
+        // A skipped check keeps the previous result
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+
+        indicator.expireAfter(Duration.ofMillis(10));
+        Thread.sleep(20);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void failedChecksAreDown() {
+        CachedHealthIndicator indicator = new CachedHealthIndicator() {
+            @Override
+            protected Health check() {
+                throw new IllegalStateException("unreachable");
+            }
+        };
+        indicator.refresh();
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void paystackIsDownWhileTheBreakerIsOpen() {
+        PaystackCircuitBreaker breaker = new PaystackCircuitBreaker(new SimpleMeterRegistry(), 2, Duration.ofMinutes(1));
+        PaystackHealthIndicator indicator = new PaystackHealthIndicator(breaker);
+
+        breaker.onFailure();
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isFalse();
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThat(indicator.health().getDetails()).containsEntry("breaker", PaystackCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void breakerLetsOneTrialThroughAfterTheOpenDuration() {
+        PaystackCircuitBreaker breaker = new PaystackCircuitBreaker(new SimpleMeterRegistry(), 1, Duration.ZERO);
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(PaystackCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
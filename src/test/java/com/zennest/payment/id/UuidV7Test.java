@@ -0,0 +1,47 @@
+package com.zennest.payment.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void idsAreVersion7AndStrictlyIncreasingAsUnsignedBytes() {
+        long before = System.currentTimeMillis();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ids.add(UuidV7.next());
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+            if (i > 0) {
+                // Databases compare uuid columns byte by byte, i.e. as unsigned numbers
+                UUID previous = ids.get(i - 1);
+                assertThat(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()))
+                        .isNegative();
+            }
+        }
+        assertThat(UuidV7.timestamp(ids.get(0))).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void referencesAreCrockfordBase32AndSortByCreation() {
+        UUID first = new UUID(0x0190_0000_0000_7000L, 0x8000_0000_0000_0001L);
+        UUID second = new UUID(0x0190_0000_0001_7000L, 0x8000_0000_0000_0000L);
+
+        String reference = PaymentReferences.of(first);
+
+        assertThat(reference).matches("ZN-[0-9A-HJKMNP-TV-Z]{26}");
+        assertThat(PaymentReferences.of(new UUID(0, 31))).isEqualTo("ZN-" + "0".repeat(25) + "Z");
+        assertThat(reference).isLessThan(PaymentReferences.of(second));
+        assertThat(PaymentReferences.next()).isNotEqualTo(PaymentReferences.next());
+    }
+}
@@ -0,0 +1,46 @@
+package com.zennest.payment.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuccessLogSamplingFilterTest {
+
+    private SuccessLogSamplingFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SuccessLogSamplingFilter();
+        filter.setSampleRate(10);
+        logger = new LoggerContext().getLogger("sampled.test");
+    }
+
+    @Test
+    void keepsOneInEveryRateMarkedInfoStatements() {
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(LogMarkers.SAMPLED, logger, Level.INFO, "ok", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertThat(kept).isEqualTo(10);
+    }
+
+    @Test
+    void neverSamplesWarningsErrorsOrUnmarkedStatements() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(filter.decide(LogMarkers.SAMPLED, logger, Level.ERROR, "boom", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(LogMarkers.SAMPLED, logger, Level.WARN, "hmm", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+            assertThat(filter.decide(null, logger, Level.INFO, "plain", null, null))
+                    .isEqualTo(FilterReply.NEUTRAL);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.zennest.payment.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentOutboxEvent;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.service.PaymentStatusService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxEventSink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void publishesEachStatusChangeOnceAndInOrder() throws Exception {
+        String reference = newPayment("outbox-order@example.com");
+
+        paymentStatusService.applyChargeUpdate(charge(reference, "failed"));
+        paymentStatusService.applyChargeUpdate(charge(reference, "failed"));
+        paymentStatusService.applyChargeUpdate(charge(reference, "success"));
+        outboxRelay.relayPending();
+
+        List<OutboxMessage> messages = sink.receivedFor(reference);
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).id()).isLessThan(messages.get(1).id());
+        JsonNode first = objectMapper.readTree(messages.get(0).payload());
+        JsonNode second = objectMapper.readTree(messages.get(1).payload());
+        assertThat(first.path("previousStatus").asText()).isEqualTo("PENDING");
+        assertThat(first.path("status").asText()).isEqualTo("FAILED");
+        assertThat(first.path("amount").asInt()).isEqualTo(150_000);
+        assertThat(second.path("previousStatus").asText()).isEqualTo("FAILED");
+        assertThat(second.path("status").asText()).isEqualTo("SUCCESS");
+        assertThat(outboxRepository.findByReferenceOrderById(reference))
+                .allSatisfy(event -> {
+                    assertThat(event.getPublishedAt()).isNotNull();
+                    assertThat(event.getClaimedBy()).isNull();
+                });
+    }
+
+    @Test
+    void leavesABatchClaimedByAnotherRelayUntilTheClaimExpires() {
+        String reference = newPayment("outbox-claimed@example.com");
+        paymentStatusService.applyChargeUpdate(charge(reference, "success"));
+        List<Long> ids = outboxRepository.findByReferenceOrderById(reference).stream()
+                .map(PaymentOutboxEvent::getId).toList();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status ->
+                outboxRepository.claim(ids, "other-relay", LocalDateTime.now().plusMinutes(1)));
+        outboxRelay.relayPending();
+        assertThat(sink.receivedFor(reference)).isEmpty();
+
+        // The other relay died: its claim runs out and the batch is offered again
+        transaction.executeWithoutResult(status ->
+                outboxRepository.claim(ids, "other-relay", LocalDateTime.now().minusSeconds(1)));
+        outboxRelay.relayPending();
+        assertThat(sink.receivedFor(reference)).hasSize(1);
+        assertThat(outboxRepository.findByReferenceOrderById(reference))
+                .allSatisfy(event -> assertThat(event.getPublishedAt()).isNotNull());
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEvent() {
+        String reference = newPayment("outbox-rollback@example.com");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            paymentStatusService.applyChargeUpdate(charge(reference, "success"));
+            status.setRollbackOnly();
+        });
+        outboxRelay.relayPending();
+
+        assertThat(outboxRepository.findByReferenceOrderById(reference)).isEmpty();
+        assertThat(sink.receivedFor(reference)).isEmpty();
+        assertThat(paymentRepository.findByReference(reference)).get()
+                .extracting(Payment::getPaymentStatus).isEqualTo(PaymentStatus.PENDING);
+    }
+
+    private String newPayment(String email) {
+        Payment payment = new Payment(email, 150_000, PaymentStatus.PENDING, PaymentType.RENT);
+        String reference = "ref-" + email;
+        payment.setReference(reference);
+        paymentRepository.save(payment);
+        return reference;
+    }
+
+    private static PaystackChargeUpdate charge(String reference, String status) {
+        return new PaystackChargeUpdate(reference, status, "4099260516", "Approved", "card", "NGN", 2_250,
+                "success".equals(status) ? LocalDateTime.of(2024, 3, 14, 10, 0) : null);
+    }
+}
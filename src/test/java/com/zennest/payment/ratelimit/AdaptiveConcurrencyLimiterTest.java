@@ -0,0 +1,74 @@
+package com.zennest.payment.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void shedsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5, WINDOW);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnSlowRequestsAndRecoversAdditively() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 40, THRESHOLD, 0.5, WINDOW);
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 3);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 10; j++) {
+                limiter.tryAcquire();
+            }
+            for (int j = 0; j < 10; j++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(10).isLessThanOrEqualTo(40);
+    }
+
+    @Test
+    void backsOffOncePerWindowForABurstOfSlowRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 2, 40, THRESHOLD, 0.5, WINDOW);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 20; i++) {
+            limiter.release(THRESHOLD * 3, now + i);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 3, now + WINDOW);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void releasingWithoutFeedbackLeavesTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, THRESHOLD, 0.5, WINDOW);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.releaseWithoutFeedback();
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,39 @@
+package com.zennest.payment.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(10_000);
+    private final SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1000, 5, 100, now::get);
+
+    @Test
+    void allowsUpToTheLimitPerKey() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client-a")).isTrue();
+        }
+        assertThat(limiter.tryAcquire("client-a")).isFalse();
+        assertThat(limiter.tryAcquire("client-b")).isTrue();
+    }
+
+    @Test
+    void weighsThePreviousWindowWhileItSlidesOut() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("client-a");
+        }
+        // 20% into the next window, 80% of the previous 5 requests still count
+        now.addAndGet(1200);
+        assertThat(limiter.tryAcquire("client-a")).isTrue();
+        assertThat(limiter.tryAcquire("client-a")).isFalse();
+
+        // two windows later the old requests no longer count
+        now.addAndGet(2000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client-a")).isTrue();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.zennest.payment.routing;
+
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.controller.PaymentGraphqlController;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory databases stand in for the primary and its replica; there is no replication,
+ * so a row only on the replica (or different there) shows which one served a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "payments.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "payments.datasource.replica.read-your-writes-window=1h",
+        // Background jobs would read the replica before the test has created its schema
+        "payments.scheduling.enabled=false"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private PaymentGraphqlController graphqlController;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void copySchemaToReplica() throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet rs = statement.executeQuery("script nodata")) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (sql.startsWith("CREATE") && !sql.startsWith("CREATE USER")) {
+                    ddl.add(sql.replaceFirst("^CREATE (\\w+ )?(TABLE|SEQUENCE|INDEX|UNIQUE INDEX) ", "CREATE $1$2 IF NOT EXISTS "));
+                }
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    void readOnlyQueriesAreServedByTheReplica() throws SQLException {
+        UUID id = UUID.randomUUID();
+        // The replica has not caught up with the settlement yet
+        insert(primaryDataSource.getConnection(), id, "routing-lagging", PaymentStatus.SUCCESS);
+        insert(DriverManager.getConnection(REPLICA_URL, "sa", ""), id, "routing-lagging", PaymentStatus.PENDING);
+
+        graphQl().document("{ getPaymentByReference(reference: \"routing-lagging\") { status } }").execute()
+                .path("getPaymentByReference.status").entity(String.class).isEqualTo("PENDING");
+        graphQl().document("{ getPaymentById(id: \"" + id + "\") { status } }").execute()
+                .path("getPaymentById.status").entity(String.class).isEqualTo("PENDING");
+        assertThat(graphqlController.countPaymentsByStatus(PaymentStatus.PENDING)).isEqualTo(1);
+
+        // Read-write transactions always use the primary
+        Payment fromPrimary = new TransactionTemplate(transactionManager).execute(status ->
+                paymentRepository.findByReference("routing-lagging").orElseThrow());
+        assertThat(fromPrimary.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void readsOfARecentWriteStayOnThePrimary() {
+        Payment pending = new Payment("routing@example.com", 90_000, PaymentStatus.PENDING, PaymentType.RENT);
+        pending.setReference("routing-just-written");
+        Payment saved = paymentRepository.save(pending);
+
+        // Not on the replica at all, so these can only have come from the primary
+        graphQl().document("{ getPaymentByReference(reference: \"routing-just-written\") { id } }").execute()
+                .path("getPaymentByReference.id").entity(UUID.class).isEqualTo(saved.getId());
+        graphQl().document("{ getPaymentById(id: \"" + saved.getId() + "\") { reference } }").execute()
+                .path("getPaymentById.reference").entity(String.class).isEqualTo("routing-just-written");
+    }
+
+    private ExecutionGraphQlServiceTester graphQl() {
+        return ExecutionGraphQlServiceTester.create(graphQlService);
+    }
+
+    private static void insert(Connection connection, UUID id, String reference, PaymentStatus status) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (connection; PreparedStatement insert = connection.prepareStatement("insert into payments "
+                + "(id, email, amount, payment_status_code, payment_type_code, paystack_confirmation_code, reference, created_at, updated_at, version) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            insert.setObject(1, id);
+            insert.setString(2, "routing@example.com");
+            insert.setInt(3, 120_000);
+            insert.setShort(4, status.getCode());
+            insert.setShort(5, PaymentType.RENT.getCode());
+            insert.setShort(6, (short) 0);
+            insert.setString(7, reference);
+            insert.setTimestamp(8, now);
+            insert.setTimestamp(9, now);
+            insert.executeUpdate();
+        }
+    }
+}
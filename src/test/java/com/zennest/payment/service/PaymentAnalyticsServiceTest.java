@@ -0,0 +1,93 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.RevenueBucket;
+import com.zennest.payment.DTO.RevenueDimension;
+import com.zennest.payment.DTO.RollupBackfillResult;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.PaymentRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentAnalyticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 14);
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentAnalyticsService analyticsService;
+
+    @Autowired
+    private PaymentRollupBackfillService backfillService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentRollupRepository rollupRepository;
+
+    @BeforeEach
+    void cleanRollups() {
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    void successTransitionsAreRolledUpAndReversible() {
+        Payment rent = settle(new Payment("tenant@example.com", 5000, PaymentStatus.PENDING, PaymentType.RENT), "card", 75);
+        Payment booking = settle(new Payment("guest@example.com", 2000, PaymentStatus.PENDING, PaymentType.BOOKING), null, 30);
+
+        analyticsService.recordTransition(rent, PaymentStatus.PENDING);
+        analyticsService.recordTransition(booking, PaymentStatus.PENDING);
+
+        List<RevenueBucket> byType = analyticsService.getRevenue(DAY, DAY, RevenueDimension.PAYMENT_TYPE);
+        assertThat(byType).containsExactly(
+                new RevenueBucket("BOOKING", 1, 2000, 30),
+                new RevenueBucket("RENT", 1, 5000, 75));
+        assertThat(analyticsService.getRevenue(DAY, DAY, RevenueDimension.CHANNEL))
+                .extracting(RevenueBucket::key).containsExactly("card", "unknown");
+
+        rent.setPaymentStatus(PaymentStatus.FAILED);
+        analyticsService.recordTransition(rent, PaymentStatus.SUCCESS);
+
+        assertThat(analyticsService.getRevenue(DAY, DAY, RevenueDimension.DAY))
+                .containsExactly(new RevenueBucket(DAY.toString(), 1, 2000, 30));
+    }
+
+    @Test
+    void backfillRebuildsRollupsFromPayments() {
+        paymentRepository.save(settle(new Payment("a@example.com", 1000, PaymentStatus.PENDING, PaymentType.SALES), "bank", 10));
+        paymentRepository.save(settle(new Payment("b@example.com", 3000, PaymentStatus.PENDING, PaymentType.SALES), "bank", 20));
+
+        RollupBackfillResult result = backfillService.backfill(DAY.minusDays(1), DAY.plusDays(1));
+
+        assertThat(result.days()).isEqualTo(3);
+        assertThat(analyticsService.getRevenue(DAY, DAY, RevenueDimension.PAYMENT_TYPE))
+                .contains(new RevenueBucket("SALES", 2, 4000, 30));
+    }
+
+    private static Payment settle(Payment payment, String channel, int fees) {
+        payment.setPaymentStatus(PaymentStatus.SUCCESS);
+        payment.setChannel(channel);
+        payment.setCurrency("NGN");
+        payment.setFees(fees);
+        payment.setPaidAt(LocalDateTime.of(DAY, java.time.LocalTime.NOON));
+        return payment;
+    }
+}
@@ -0,0 +1,144 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.RevenueBucket;
+import com.zennest.payment.DTO.RevenueDimension;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.id.PaymentReferences;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.Payout;
+import com.zennest.payment.model.PayoutStatus;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.PayoutRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentArchiveServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentArchiveService archiveService;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PayoutRepository payoutRepository;
+
+    @Autowired
+    private PaymentRollupBackfillService backfillService;
+
+    @Autowired
+    private PaymentAnalyticsService analyticsService;
+
+    @Test
+    void movesSettledPaymentsAndStillFindsThem() {
+        UUID settledId = newPayment("archive-settled");
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate("archive-settled", "success", "4099260516",
+                "Approved", "card", "NGN", 2_250, LocalDateTime.of(2024, 3, 14, 10, 0)));
+        UUID pendingId = newPayment("archive-pending");
+
+        long archived = archiveService.archiveSettledBefore(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(archived).isGreaterThanOrEqualTo(1);
+        assertThat(settledId.version()).isEqualTo(7);
+        assertThat(paymentRepository.findById(settledId)).isEmpty();
+        assertThat(paymentRepository.findByReference("archive-settled")).isEmpty();
+        assertThat(paymentRepository.findByIdIncludingArchive(settledId)).get()
+                .satisfies(payment -> {
+                    assertThat(payment.getReference()).isEqualTo("archive-settled");
+                    assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+                    assertThat(payment.getGatewayResponse()).isEqualTo("Approved");
+                    assertThat(payment.getAmount()).isEqualTo(150_000);
+                });
+        assertThat(paymentRepository.findByReferenceIncludingArchive("archive-settled")).get()
+                .extracting(Payment::getId).isEqualTo(settledId);
+        assertThat(paymentRepository.findById(pendingId)).isPresent();
+        assertThat(paymentRepository.findByReferenceIncludingArchive("archive-pending")).get()
+                .extracting(Payment::getPaymentStatus).isEqualTo(PaymentStatus.PENDING);
+    }
+
+    @Test
+    void keepsFailedPaymentsLiveAndArchivedOnesInRebuiltRollups() {
+        LocalDate day = LocalDate.of(2019, 6, 3);
+        newPayment("archive-failed");
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate("archive-failed", "failed", null,
+                "Declined", "card", "NGN", null, null));
+        newPayment("archive-rollup");
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate("archive-rollup", "success", "4099260517",
+                "Approved", "card", "NGN", 500, day.atTime(12, 0)));
+
+        archiveService.archiveSettledBefore(LocalDateTime.now().plusSeconds(1));
+        assertThat(paymentRepository.findByReference("archive-rollup")).isEmpty();
+
+        // A late success still reaches the failed payment through the live table
+        assertThat(paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate("archive-failed", "success",
+                "4099260518", "Approved", "card", "NGN", 500, LocalDateTime.now()))).get()
+                .extracting(Payment::getPaymentStatus).isEqualTo(PaymentStatus.SUCCESS);
+
+        backfillService.backfill(day, day);
+        assertThat(analyticsService.getRevenue(day, day, RevenueDimension.DAY))
+                .containsExactly(new RevenueBucket(day.toString(), 1, 150_000, 500));
+    }
+
+    @Test
+    void keepsRentLiveUntilItsPayoutSucceeded() {
+        UUID unpaid = newPayment("archive-unpaid-rent", PaymentType.RENT);
+        settle("archive-unpaid-rent");
+        UUID submitted = newPayment("archive-submitted-rent", PaymentType.RENT);
+        settle("archive-submitted-rent");
+        UUID paid = newPayment("archive-paid-rent", PaymentType.BOOKING);
+        settle("archive-paid-rent");
+        linkPayout(submitted, PayoutStatus.SUBMITTED);
+        linkPayout(paid, PayoutStatus.SUCCESS);
+
+        archiveService.archiveSettledBefore(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(paymentRepository.findById(unpaid)).isPresent();
+        assertThat(paymentRepository.findById(submitted)).isPresent();
+        assertThat(paymentRepository.findById(paid)).isEmpty();
+        assertThat(paymentRepository.findByIdIncludingArchive(paid)).isPresent();
+    }
+
+    private void settle(String reference) {
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate(reference, "success", "1",
+                "Approved", "card", "NGN", 100, LocalDateTime.now()));
+    }
+
+    private void linkPayout(UUID paymentId, PayoutStatus status) {
+        Payout payout = new Payout(PaymentReferences.nextPayout(), "RCP_archive", "NGN");
+        payout.setStatus(status);
+        UUID payoutId = payoutRepository.save(payout).getId();
+        Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+        payment.setPayoutId(payoutId);
+        paymentRepository.save(payment);
+    }
+
+    private UUID newPayment(String reference) {
+        return newPayment(reference, PaymentType.SALES);
+    }
+
+    private UUID newPayment(String reference, PaymentType type) {
+        Payment payment = new Payment(reference + "@example.com", 150_000, PaymentStatus.PENDING, type);
+        payment.setReference(reference);
+        return paymentRepository.save(payment).getId();
+    }
+}
@@ -0,0 +1,75 @@
+package com.zennest.payment.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.ExportFormat;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentExportServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentExportService exportService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void streamsFilteredPaymentsAsCsvAndNdjson() throws Exception {
+        Payment payment = new Payment("export, \"quoted\"@example.com", 4200, PaymentStatus.SUCCESS, PaymentType.SALES);
+        payment.setReference("exp-ref-1");
+        payment.setGatewayResponse("Approved ✓");
+        payment.setFees(63);
+        paymentRepository.save(payment);
+
+        LocalDate today = LocalDate.now();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long rows = exportService.export(today.atStartOfDay(), today.plusDays(1).atStartOfDay(),
+                PaymentStatus.SUCCESS, PaymentType.SALES, ExportFormat.CSV, csv);
+
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(lines.length - 1).isPositive();
+        assertThat(lines[0]).startsWith("id,reference,email,amount");
+        assertThat(csv.toString(StandardCharsets.UTF_8))
+                .contains("exp-ref-1,\"export, \"\"quoted\"\"@example.com\",4200,,63,")
+                .contains("Approved ✓");
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.export(today.atStartOfDay(), today.plusDays(1).atStartOfDay(),
+                PaymentStatus.SUCCESS, PaymentType.SALES, ExportFormat.NDJSON, ndjson);
+        JsonNode exported = null;
+        for (String line : ndjson.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            if ("exp-ref-1".equals(node.get("reference").asText())) {
+                exported = node;
+            }
+        }
+        assertThat(exported).isNotNull();
+        assertThat(exported.get("email").asText()).isEqualTo("export, \"quoted\"@example.com");
+        assertThat(exported.get("amount").asLong()).isEqualTo(4200);
+        assertThat(exported.get("currency").isNull()).isTrue();
+        assertThat(exported.get("payment_status").asText()).isEqualTo("SUCCESS");
+    }
+}
@@ -0,0 +1,89 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaymentPage;
+import com.zennest.payment.DTO.PropertyPayments;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentHistoryServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentHistoryService historyService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void pagesThroughAUsersPaymentsNewestFirst() {
+        UUID userId = UUID.randomUUID();
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(newPayment(userId, UUID.randomUUID()).getId());
+        }
+        newPayment(UUID.randomUUID(), UUID.randomUUID());
+
+        List<UUID> seen = new ArrayList<>();
+        PaymentPage page = historyService.byUser(userId, 2, null);
+        seen.addAll(ids(page));
+        while (page.nextCursor() != null) {
+            page = historyService.byUser(userId, 2, page.nextCursor());
+            seen.addAll(ids(page));
+        }
+
+        // Same-millisecond payments are ordered by their time-ordered ids
+        assertThat(seen).containsExactlyElementsOf(created.reversed());
+        assertThatThrownBy(() -> historyService.byUser(userId, 2, "not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historyService.byUser(userId, 101, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void loadsTheLatestPaymentsOfManyProperties() {
+        UUID busy = UUID.randomUUID();
+        UUID quiet = UUID.randomUUID();
+        UUID empty = UUID.randomUUID();
+        for (int i = 0; i < 4; i++) {
+            newPayment(UUID.randomUUID(), busy);
+        }
+        Payment only = newPayment(UUID.randomUUID(), quiet);
+
+        List<PropertyPayments> result = historyService.latestByProperties(List.of(quiet, empty, busy, quiet), 3);
+
+        assertThat(result).extracting(PropertyPayments::propertyId).containsExactly(quiet, empty, busy);
+        assertThat(result.get(0).payments()).extracting(Payment::getId).containsExactly(only.getId());
+        assertThat(result.get(1).payments()).isEmpty();
+        assertThat(result.get(2).payments()).hasSize(3)
+                .allSatisfy(payment -> assertThat(payment.getPropertyId()).isEqualTo(busy));
+        assertThat(historyService.byProperty(busy, 10, null).payments()).hasSize(4);
+    }
+
+    private Payment newPayment(UUID userId, UUID propertyId) {
+        return paymentRepository.save(new Payment("history@example.com", 80_000, PaymentStatus.PENDING,
+                userId, PaymentType.RENT, propertyId));
+    }
+
+    private static List<UUID> ids(PaymentPage page) {
+        return page.payments().stream().map(Payment::getId).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.ReconciliationResult;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.PaystackConfirmationStatus;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import com.zennest.payment.repo.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentReconciliationServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Test
+    void settlesFinalOutcomesAndLeavesTheRestPending() throws Exception {
+        String paid = newPendingPayment("recon-paid");
+        String abandoned = newPendingPayment("recon-abandoned");
+        String ongoing = newPendingPayment("recon-ongoing");
+        String unknown = newPendingPayment("recon-unknown");
+        when(paystackService.verifyCharge(anyString())).thenAnswer(invocation -> {
+            String reference = invocation.getArgument(0);
+            if (reference.equals(unknown)) {
+                throw new IllegalStateException("Transaction reference not found");
+            }
+            String status = reference.equals(paid) ? "success"
+                    : reference.equals(abandoned) ? "abandoned" : "ongoing";
+            return new PaystackChargeUpdate(reference, status, "4099260516", "Approved", "card", "NGN", 2_250,
+                    "success".equals(status) ? LocalDateTime.of(2024, 3, 14, 10, 0) : null);
+        });
+
+        ReconciliationResult result = reconciliationService.reconcileCreatedBefore(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(result.checked()).isGreaterThanOrEqualTo(4);
+        assertThat(result.errors()).isGreaterThanOrEqualTo(1);
+        assertThat(statusOf(paid)).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(paymentRepository.findByReference(paid)).get()
+                .extracting(Payment::getPaystackConfirmation).isEqualTo(PaystackConfirmationStatus.CONFIRMED);
+        assertThat(statusOf(abandoned)).isEqualTo(PaymentStatus.FAILED);
+        assertThat(statusOf(ongoing)).isEqualTo(PaymentStatus.PENDING);
+        assertThat(statusOf(unknown)).isEqualTo(PaymentStatus.PENDING);
+        assertThat(outboxRepository.findByReferenceOrderById(paid)).hasSize(1);
+        assertThat(outboxRepository.findByReferenceOrderById(ongoing)).isEmpty();
+    }
+
+    @Test
+    void skipsPaymentsYoungerThanTheCutoff() throws Exception {
+        String reference = newPendingPayment("recon-fresh");
+
+        reconciliationService.reconcileCreatedBefore(LocalDateTime.now().minusMinutes(15));
+
+        verify(paystackService, never()).verifyCharge(reference);
+        assertThat(statusOf(reference)).isEqualTo(PaymentStatus.PENDING);
+    }
+
+    private String newPendingPayment(String reference) {
+        Payment payment = new Payment(reference + "@example.com", 150_000, PaymentStatus.PENDING, PaymentType.RENT);
+        payment.setReference(reference);
+        paymentRepository.save(payment);
+        return reference;
+    }
+
+    private PaymentStatus statusOf(String reference) {
+        return paymentRepository.findByReference(reference).orElseThrow().getPaymentStatus();
+    }
+}
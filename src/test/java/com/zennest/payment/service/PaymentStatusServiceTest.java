@@ -0,0 +1,109 @@
+package com.zennest.payment.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentOutboxEvent;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import com.zennest.payment.repo.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentStatusServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void lateFailureDoesNotUndoSuccess() {
+        String reference = newPayment("status-late-failure");
+
+        paymentStatusService.applyChargeUpdate(charge(reference, "success", "Approved"));
+        paymentStatusService.applyChargeUpdate(charge(reference, "failed", "Declined"));
+
+        Payment payment = paymentRepository.findByReference(reference).orElseThrow();
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(payment.getGatewayResponse()).isEqualTo("Approved");
+        assertThat(outboxRepository.findByReferenceOrderById(reference)).hasSize(1);
+    }
+
+    @Test
+    void concurrentOutcomesFollowTheTransitionTable() throws Exception {
+        String reference = newPayment("status-race");
+        int writers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                String status = i % 2 == 0 ? "failed" : "success";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return paymentStatusService.applyChargeUpdate(charge(reference, status, status));
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Every event starts from the status the previous one ended on, and SUCCESS is final
+        assertThat(paymentRepository.findByReference(reference)).get()
+                .extracting(Payment::getPaymentStatus).isEqualTo(PaymentStatus.SUCCESS);
+        String expectedPrevious = "PENDING";
+        for (PaymentOutboxEvent event : outboxRepository.findByReferenceOrderById(reference)) {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            assertThat(payload.path("previousStatus").asText()).isEqualTo(expectedPrevious);
+            assertThat(PaymentStatus.valueOf(expectedPrevious)
+                    .canTransitionTo(PaymentStatus.valueOf(payload.path("status").asText()))).isTrue();
+            expectedPrevious = payload.path("status").asText();
+        }
+        assertThat(expectedPrevious).isEqualTo("SUCCESS");
+    }
+
+    private String newPayment(String reference) {
+        Payment payment = new Payment(reference + "@example.com", 150_000, PaymentStatus.PENDING, PaymentType.RENT);
+        payment.setReference(reference);
+        paymentRepository.save(payment);
+        return reference;
+    }
+
+    private static PaystackChargeUpdate charge(String reference, String status, String gatewayResponse) {
+        return new PaystackChargeUpdate(reference, status, "4099260516", gatewayResponse, "card", "NGN", 2_250,
+                "success".equals(status) ? LocalDateTime.of(2024, 3, 14, 10, 0) : null);
+    }
+}
@@ -0,0 +1,230 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackTransferUpdate;
+import com.zennest.payment.DTO.PayoutRunResult;
+import com.zennest.payment.Exception.PaystackUnavailableException;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.Payout;
+import com.zennest.payment.model.PayoutStatus;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.PayoutRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = "payments.payouts.chunk-size=2")
+@ActiveProfiles("test")
+class PayoutServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    @Autowired
+    private PayoutService payoutService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PayoutRepository payoutRepository;
+
+    private final List<List<String>> bulkCalls = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void acceptTransfers() throws Exception {
+        doAnswer(invocation -> {
+            List<Payout> payouts = invocation.getArgument(1);
+            bulkCalls.add(payouts.stream().map(Payout::getRecipientCode).toList());
+            return payouts.stream()
+                    .map(payout -> new PaystackTransferUpdate(payout.getReference(), "pending", "TRF_" + payout.getReference(), null))
+                    .toList();
+        }).when(paystackService).bulkTransfer(anyString(), anyList());
+    }
+
+    @Test
+    void paysEachRecipientOnceInChunkedBulkCalls() {
+        String shared = recipient("shared");
+        String single = recipient("single");
+        String other = recipient("other");
+        UUID first = property(shared);
+        UUID second = property(shared);
+        UUID third = property(single);
+        UUID fourth = property(other);
+        Payment rent = payment(first, PaymentType.RENT, PaymentStatus.SUCCESS, 100_000);
+        payment(first, PaymentType.BOOKING, PaymentStatus.SUCCESS, 50_000);
+        payment(second, PaymentType.RENT, PaymentStatus.SUCCESS, 30_000);
+        payment(third, PaymentType.RENT, PaymentStatus.SUCCESS, 70_000);
+        Payment pending = payment(third, PaymentType.RENT, PaymentStatus.PENDING, 70_000);
+        Payment membership = payment(third, PaymentType.MEMBERSHIP, PaymentStatus.SUCCESS, 5_000);
+        payment(fourth, PaymentType.BOOKING, PaymentStatus.SUCCESS, 20_000);
+
+        PayoutRunResult result = payoutService.runPayouts();
+
+        assertThat(result.payouts()).isGreaterThanOrEqualTo(3);
+        assertThat(result.errors()).isZero();
+        assertThat(payout(shared)).satisfies(payout -> {
+            assertThat(payout.getAmount()).isEqualTo(180_000);
+            assertThat(payout.getPaymentCount()).isEqualTo(3);
+            assertThat(payout.getStatus()).isEqualTo(PayoutStatus.SUBMITTED);
+            assertThat(payout.getTransferCode()).isEqualTo("TRF_" + payout.getReference());
+        });
+        assertThat(payout(single).getAmount()).isEqualTo(70_000);
+        assertThat(payout(other).getAmount()).isEqualTo(20_000);
+        assertThat(paymentRepository.findById(rent.getId()).orElseThrow().getPayoutId()).isEqualTo(payout(shared).getId());
+        assertThat(paymentRepository.findById(pending.getId()).orElseThrow().getPayoutId()).isNull();
+        assertThat(paymentRepository.findById(membership.getId()).orElseThrow().getPayoutId()).isNull();
+        assertThat(bulkCalls).allSatisfy(call -> assertThat(call).hasSizeLessThanOrEqualTo(2));
+        assertThat(bulkCalls.stream().flatMap(List::stream).filter(Set.of(shared, single, other)::contains))
+                .containsExactlyInAnyOrder(shared, single, other);
+
+        // Nothing left to pay out
+        bulkCalls.clear();
+        payoutService.runPayouts();
+        assertThat(bulkCalls.stream().flatMap(List::stream)).doesNotContain(shared, single, other);
+    }
+
+    @Test
+    void appliesTransferOutcomesOnceAndPaysFailedPayoutsAgain() {
+        String paid = recipient("paid");
+        String failed = recipient("failed");
+        payment(property(paid), PaymentType.RENT, PaymentStatus.SUCCESS, 90_000);
+        Payment retried = payment(property(failed), PaymentType.RENT, PaymentStatus.SUCCESS, 60_000);
+        payoutService.runPayouts();
+        Payout paidPayout = payout(paid);
+        Payout failedPayout = payout(failed);
+
+        payoutService.applyTransferUpdate(transfer(paidPayout, "success"));
+        payoutService.applyTransferUpdate(transfer(paidPayout, "success"));
+        payoutService.applyTransferUpdate(transfer(paidPayout, "failed"));
+        assertThat(payoutRepository.findById(paidPayout.getId()).orElseThrow().getStatus()).isEqualTo(PayoutStatus.SUCCESS);
+
+        payoutService.applyTransferUpdate(transfer(failedPayout, "failed"));
+        assertThat(payoutRepository.findById(failedPayout.getId()).orElseThrow().getStatus()).isEqualTo(PayoutStatus.FAILED);
+        assertThat(paymentRepository.findById(retried.getId()).orElseThrow().getPayoutId()).isNull();
+
+        payoutService.runPayouts();
+        Payout repayment = payoutRepository.findAll().stream()
+                .filter(payout -> payout.getRecipientCode().equals(failed) && payout.getStatus() == PayoutStatus.SUBMITTED)
+                .findFirst().orElseThrow();
+        assertThat(repayment.getReference()).isNotEqualTo(failedPayout.getReference());
+        assertThat(repayment.getAmount()).isEqualTo(60_000);
+        assertThat(paymentRepository.findById(retried.getId()).orElseThrow().getPayoutId()).isEqualTo(repayment.getId());
+    }
+
+    @Test
+    void keepsPayoutsPendingWhenTheBulkCallFails() throws Exception {
+        String recipient = recipient("unreachable");
+        payment(property(recipient), PaymentType.RENT, PaymentStatus.SUCCESS, 40_000);
+        doThrow(new PaystackUnavailableException("Paystack is unavailable")).when(paystackService).bulkTransfer(anyString(), anyList());
+
+        PayoutRunResult failedRun = payoutService.runPayouts();
+        assertThat(failedRun.errors()).isPositive();
+        assertThat(payout(recipient).getStatus()).isEqualTo(PayoutStatus.PENDING);
+
+        // Resubmitted by the verification run once Paystack is back, not at the next monthly run
+        acceptTransfers();
+        payoutService.resubmitPending(LocalDateTime.now());
+        assertThat(payout(recipient).getStatus()).isEqualTo(PayoutStatus.PENDING);
+        PayoutRunResult retry = payoutService.resubmitPending(LocalDateTime.now().plusMinutes(15));
+        assertThat(retry.submitted()).isPositive();
+        assertThat(payout(recipient).getStatus()).isEqualTo(PayoutStatus.SUBMITTED);
+    }
+
+    @Test
+    void looksUpPayoutsWithAnUnknownOutcomeBeforeSendingThemAgain() throws Exception {
+        String lost = recipient("lost");
+        String accepted = recipient("accepted");
+        payment(property(lost), PaymentType.RENT, PaymentStatus.SUCCESS, 40_000);
+        payment(property(accepted), PaymentType.RENT, PaymentStatus.SUCCESS, 50_000);
+        doThrow(new IOException("Read timed out")).when(paystackService).bulkTransfer(anyString(), anyList());
+
+        payoutService.runPayouts();
+        assertThat(payout(lost).getStatus()).isEqualTo(PayoutStatus.UNCONFIRMED);
+        assertThat(payout(accepted).getStatus()).isEqualTo(PayoutStatus.UNCONFIRMED);
+
+        // Not sent again while unconfirmed
+        acceptTransfers();
+        bulkCalls.clear();
+        payoutService.runPayouts();
+        assertThat(bulkCalls.stream().flatMap(List::stream)).doesNotContain(lost, accepted);
+
+        String acceptedReference = payout(accepted).getReference();
+        doAnswer(invocation -> acceptedReference.equals(invocation.getArgument(0))
+                ? Optional.of(new PaystackTransferUpdate(acceptedReference, "success", "TRF_accepted", null))
+                : Optional.empty()).when(paystackService).verifyTransfer(anyString());
+        payoutService.verifyOutstanding(LocalDateTime.now().plusHours(2));
+
+        assertThat(payout(accepted).getStatus()).isEqualTo(PayoutStatus.SUCCESS);
+        assertThat(payout(lost).getStatus()).isEqualTo(PayoutStatus.PENDING);
+        payoutService.runPayouts();
+        assertThat(payout(lost).getStatus()).isEqualTo(PayoutStatus.SUBMITTED);
+        assertThat(bulkCalls.stream().flatMap(List::stream)).contains(lost).doesNotContain(accepted);
+    }
+
+    @Test
+    void settlesSubmittedPayoutsWithoutAWebhook() throws Exception {
+        String recipient = recipient("quiet");
+        payment(property(recipient), PaymentType.RENT, PaymentStatus.SUCCESS, 30_000);
+        payoutService.runPayouts();
+        Payout submitted = payout(recipient);
+        doAnswer(invocation -> submitted.getReference().equals(invocation.getArgument(0))
+                ? Optional.of(new PaystackTransferUpdate(submitted.getReference(), "failed", submitted.getTransferCode(), "Account closed"))
+                : Optional.empty()).when(paystackService).verifyTransfer(anyString());
+
+        payoutService.verifyOutstanding(LocalDateTime.now());
+        assertThat(payout(recipient).getStatus()).isEqualTo(PayoutStatus.SUBMITTED);
+
+        payoutService.verifyOutstanding(LocalDateTime.now().plusHours(2));
+        assertThat(payout(recipient).getStatus()).isEqualTo(PayoutStatus.FAILED);
+        assertThat(payout(recipient).getFailureReason()).isEqualTo("Account closed");
+    }
+
+    private String recipient(String name) {
+        return "RCP_" + name + "_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private UUID property(String recipientCode) {
+        UUID propertyId = UUID.randomUUID();
+        payoutService.registerRecipient(propertyId, recipientCode);
+        return propertyId;
+    }
+
+    private Payment payment(UUID propertyId, PaymentType type, PaymentStatus status, int amount) {
+        Payment payment = new Payment("tenant@example.com", amount, status, null, type, propertyId);
+        payment.setCurrency("NGN");
+        return paymentRepository.save(payment);
+    }
+
+    private Payout payout(String recipientCode) {
+        return payoutRepository.findAll().stream()
+                .filter(payout -> payout.getRecipientCode().equals(recipientCode))
+                .findFirst().orElseThrow();
+    }
+
+    private static PaystackTransferUpdate transfer(Payout payout, String status) {
+        return new PaystackTransferUpdate(payout.getReference(), status, payout.getTransferCode(), "Declined by bank");
+    }
+}
@@ -0,0 +1,137 @@
+package com.zennest.payment.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zennest.payment.Config.PaystackConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaystackServiceTest {
+
+    private final AtomicInteger verifyCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile String chargeStatus = "success";
+    private HttpServer paystack;
+    private PaystackCircuitBreaker circuitBreaker;
+    private PaystackService paystackService;
+
+    @BeforeEach
+    void startPaystack() throws IOException {
+        paystack = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        paystack.setExecutor(Executors.newCachedThreadPool());
+        paystack.createContext("/transaction/verify/", exchange -> {
+            verifyCalls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String reference = exchange.getRequestURI().getPath().substring("/transaction/verify/".length());
+            byte[] body = ("{\"status\":true,\"message\":\"Verification successful\",\"data\":{\"reference\":\""
+                    + reference + "\",\"status\":\"" + chargeStatus + "\"}}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        paystack.start();
+
+        PaystackConfig config = new PaystackConfig();
+        ReflectionTestUtils.setField(config, "secretKey", "sk_test");
+        ReflectionTestUtils.setField(config, "baseUrl", "http://127.0.0.1:" + paystack.getAddress().getPort());
+        circuitBreaker = new PaystackCircuitBreaker(new SimpleMeterRegistry(), 1, Duration.ofSeconds(30));
+        paystackService = new PaystackService(config, circuitBreaker, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(3));
+    }
+
+    @AfterEach
+    void stopPaystack() {
+        release.countDown();
+        paystack.stop(0);
+    }
+
+    @Test
+    void concurrentVerificationsOfOneReferenceShareOneCall() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> paystackService.verifyPayment("ZN-COALESCED")));
+            }
+            // Let every caller reach the in-flight call before Paystack answers
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<Map<String, Object>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).containsEntry("status", true);
+            }
+            assertThat(verifyCalls).hasValue(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void timesOutAHungPaystackAndOpensTheBreaker() {
+        // Paystack accepts the connection but never answers
+        assertThatThrownBy(() -> paystackService.verifyPayment("ZN-HUNG")).isInstanceOf(HttpTimeoutException.class);
+        assertThat(circuitBreaker.state()).isEqualTo(PaystackCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void stopsWaitingForAVerificationInFlightAfterTheCoalesceWait() throws Exception {
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Object>> first = callers.submit(() -> paystackService.verifyPayment("ZN-STUCK"));
+            while (verifyCalls.get() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertThatThrownBy(() -> paystackService.verifyPayment("ZN-STUCK"))
+                    .isInstanceOf(HttpTimeoutException.class)
+                    .hasMessageContaining("in flight");
+            assertThat(first).isNotDone();
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void reusesSettledResultsButNotPendingOnes() throws Exception {
+        release.countDown();
+
+        chargeStatus = "ongoing";
+        paystackService.verifyCharge("ZN-PENDING");
+        paystackService.verifyCharge("ZN-PENDING");
+        assertThat(verifyCalls).hasValue(2);
+
+        chargeStatus = "success";
+        Map<String, Object> verified = paystackService.verifyPayment("ZN-PENDING");
+        assertThat(verified).containsEntry("status", true);
+        assertThat(paystackService.verifyCharge("ZN-PENDING").gatewayStatus()).isEqualTo("success");
+        // The cached response is not parsed or interpreted again
+        assertThat(paystackService.verifyPayment("ZN-PENDING")).isSameAs(verified);
+        assertThat(verifyCalls).hasValue(3);
+    }
+}
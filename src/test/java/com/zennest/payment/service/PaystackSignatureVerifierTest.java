@@ -0,0 +1,33 @@
+package com.zennest.payment.service;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaystackSignatureVerifierTest {
+
+    private final PaystackSignatureVerifier verifier = new PaystackSignatureVerifier("sk_test_secret");
+
+    @Test
+    void acceptsSignatureOfRawBodyInEitherCase() {
+        byte[] body = "{\"event\":\"charge.success\",\"data\":{\"reference\":\"ref-1\"}}".getBytes(StandardCharsets.UTF_8);
+        String signature = Hex.encodeHexString(verifier.sign(body));
+
+        assertTrue(verifier.isValid(body, signature));
+        assertTrue(verifier.isValid(body, signature.toUpperCase()));
+    }
+
+    @Test
+    void rejectsTamperedBodyAndMalformedSignature() {
+        byte[] body = "{\"data\":{\"status\":\"failed\"}}".getBytes(StandardCharsets.UTF_8);
+        String signature = Hex.encodeHexString(verifier.sign(body));
+
+        assertFalse(verifier.isValid("{\"data\":{\"status\":\"success\"}}".getBytes(StandardCharsets.UTF_8), signature));
+        assertFalse(verifier.isValid(body, signature.substring(2)));
+        assertFalse(verifier.isValid(body, null));
+    }
+}
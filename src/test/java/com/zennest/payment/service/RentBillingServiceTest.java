@@ -0,0 +1,235 @@
+package com.zennest.payment.service;
+
+import com.zennest.payment.DTO.PaystackChargeUpdate;
+import com.zennest.payment.DTO.RentScheduleRequest;
+import com.zennest.payment.Exception.PaystackUnavailableException;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.model.Payment;
+import com.zennest.payment.model.PaymentStatus;
+import com.zennest.payment.model.PaymentType;
+import com.zennest.payment.model.RentSchedule;
+import com.zennest.payment.model.RentScheduleStatus;
+import com.zennest.payment.repo.PaymentRepository;
+import com.zennest.payment.repo.RentScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "payments.rent.max-attempts=3")
+@ActiveProfiles("test")
+class RentBillingServiceTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    @Autowired
+    private RentBillingService rentBillingService;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private RentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Schedules of all tests share the database, so Paystack answers by the tenant's email
+    @BeforeEach
+    void stubPaystack() throws Exception {
+        doAnswer(invocation -> {
+            String email = invocation.getArgument(1);
+            String reference = invocation.getArgument(4);
+            if (email.startsWith("declined")) {
+                return new PaystackChargeUpdate(reference, "failed", "1", "Insufficient Funds", "card", "NGN", null, null);
+            }
+            if (email.startsWith("timeout")) {
+                throw new IOException("Read timed out");
+            }
+            if (email.startsWith("outage")) {
+                throw new PaystackUnavailableException("Paystack is unavailable (circuit breaker open)");
+            }
+            return new PaystackChargeUpdate(reference, "success", "1", "Approved", "card", "NGN", 150,
+                    LocalDateTime.now());
+        }).when(paystackService).chargeAuthorization(anyString(), anyString(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void storesTheAuthorizationOfASuccessfulRentPayment() {
+        String email = tenant("paying");
+        UUID propertyId = UUID.randomUUID();
+        RentSchedule schedule = enroll(email, propertyId, LocalDate.now().plusMonths(1));
+        assertThat(schedule.getStatus()).isEqualTo(RentScheduleStatus.AWAITING_AUTHORIZATION);
+
+        Payment first = new Payment(email, 250_000, PaymentStatus.PENDING, null, PaymentType.RENT, propertyId);
+        first.setReference("ZN-FIRST-" + UUID.randomUUID());
+        first.setCurrency("NGN");
+        paymentRepository.save(first);
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate(first.getReference(), "success", "1",
+                "Approved", "card", "NGN", 150, LocalDateTime.now(), "AUTH_first"));
+
+        RentSchedule active = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(active.getStatus()).isEqualTo(RentScheduleStatus.ACTIVE);
+        assertThat(active.getAuthorizationCode()).isEqualTo("AUTH_first");
+    }
+
+    @Test
+    void keepsAMonthEndScheduleOnTheLastDayOfEachMonth() {
+        RentSchedule schedule = activeSchedule(tenant("month-end"), LocalDate.of(2026, 1, 31));
+
+        List<LocalDate> dueDates = new ArrayList<>();
+        for (int period = 0; period < 4; period++) {
+            LocalDateTime dueAt = scheduleRepository.findById(schedule.getId()).orElseThrow().getDueAt();
+            rentBillingService.chargeDueAt(dueAt.plusHours(9));
+            dueDates.add(scheduleRepository.findById(schedule.getId()).orElseThrow().getDueAt().toLocalDate());
+        }
+
+        assertThat(dueDates).containsExactly(LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31),
+                LocalDate.of(2026, 4, 30), LocalDate.of(2026, 5, 31));
+        assertThat(scheduleRepository.findById(schedule.getId()).orElseThrow().getPeriodsPaid()).isEqualTo(4);
+    }
+
+    @Test
+    void chargesDueSchedulesAndMovesToTheNextPeriod() throws Exception {
+        LocalDate dueOn = LocalDate.now();
+        RentSchedule due = activeSchedule(tenant("ok"), dueOn);
+        RentSchedule later = activeSchedule(tenant("ok-later"), dueOn.plusDays(10));
+
+        rentBillingService.chargeDueAt(dueOn.atTime(9, 0));
+
+        RentSchedule paid = scheduleRepository.findById(due.getId()).orElseThrow();
+        assertThat(paid.getDueAt()).isEqualTo(dueOn.plusMonths(1).atStartOfDay());
+        assertThat(paid.getNextAttemptAt()).isEqualTo(paid.getDueAt());
+        assertThat(paid.getPendingReference()).isNull();
+        assertThat(paymentRepository.findAll()).filteredOn(payment -> payment.getEmail().equals(due.getEmail()))
+                .singleElement()
+                .satisfies(payment -> {
+                    assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+                    assertThat(payment.getPaymentType()).isEqualTo(PaymentType.RENT);
+                    assertThat(payment.getAmount()).isEqualTo(250_000);
+                });
+        verify(paystackService, never()).chargeAuthorization(anyString(), eq(later.getEmail()), anyInt(), anyString(), anyString());
+        assertThat(scheduleRepository.findById(later.getId()).orElseThrow().getDueAt()).isEqualTo(later.getDueAt());
+
+        // The next period is not due yet
+        rentBillingService.chargeDueAt(dueOn.atTime(10, 0));
+        verify(paystackService, times(1)).chargeAuthorization(anyString(), eq(due.getEmail()), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void retriesFailedChargesWithBackoffAndSuspendsAfterMaxAttempts() throws Exception {
+        LocalDateTime now = LocalDate.now().atTime(9, 0);
+        RentSchedule schedule = activeSchedule(tenant("declined"), now.toLocalDate());
+
+        rentBillingService.chargeDueAt(now);
+        RentSchedule failed = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("Insufficient Funds");
+        assertThat(failed.getNextAttemptAt()).isEqualTo(now.plusHours(1));
+
+        // Not retried before the backoff has passed
+        rentBillingService.chargeDueAt(now.plusMinutes(30));
+        assertThat(scheduleRepository.findById(schedule.getId()).orElseThrow().getAttempts()).isEqualTo(1);
+
+        rentBillingService.chargeDueAt(now.plusHours(1));
+        assertThat(scheduleRepository.findById(schedule.getId()).orElseThrow().getNextAttemptAt())
+                .isEqualTo(now.plusHours(3));
+
+        rentBillingService.chargeDueAt(now.plusHours(3));
+        RentSchedule suspended = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(suspended.getAttempts()).isEqualTo(3);
+        assertThat(suspended.getStatus()).isEqualTo(RentScheduleStatus.SUSPENDED);
+        assertThat(suspended.getDueAt()).isEqualTo(now.toLocalDate().atStartOfDay());
+
+        rentBillingService.chargeDueAt(now.plusDays(1));
+        verify(paystackService, times(3)).chargeAuthorization(anyString(), eq(schedule.getEmail()), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void settlesAChargeWithAnUnknownOutcomeWithoutChargingAgain() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        RentSchedule schedule = activeSchedule(tenant("timeout"), now.toLocalDate());
+
+        rentBillingService.chargeDueAt(now);
+        RentSchedule pending = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(pending.getPendingReference()).isNotNull();
+        assertThat(pending.getNextAttemptAt()).isEqualTo(now.plusMinutes(15));
+        assertThat(paymentRepository.findByReference(pending.getPendingReference()).orElseThrow().getPaymentStatus())
+                .isEqualTo(PaymentStatus.PENDING);
+
+        // Still unsettled at the check: look again later
+        rentBillingService.chargeDueAt(now.plusMinutes(15));
+        assertThat(scheduleRepository.findById(schedule.getId()).orElseThrow().getNextAttemptAt())
+                .isEqualTo(now.plusMinutes(30));
+
+        // The webhook reports the charge went through
+        paymentStatusService.applyChargeUpdate(new PaystackChargeUpdate(pending.getPendingReference(), "success",
+                "1", "Approved", "card", "NGN", 150, LocalDateTime.now()));
+        rentBillingService.chargeDueAt(now.plusMinutes(30));
+
+        RentSchedule paid = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(paid.getPendingReference()).isNull();
+        assertThat(paid.getDueAt()).isEqualTo(now.toLocalDate().plusMonths(1).atStartOfDay());
+        verify(paystackService, times(1)).chargeAuthorization(anyString(), eq(schedule.getEmail()), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void defersChargesNotSentWithoutCountingAnAttempt() throws Exception {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        RentSchedule schedule = activeSchedule(tenant("outage"), now.toLocalDate());
+
+        rentBillingService.chargeDueAt(now);
+
+        RentSchedule deferred = scheduleRepository.findById(schedule.getId()).orElseThrow();
+        assertThat(deferred.getStatus()).isEqualTo(RentScheduleStatus.ACTIVE);
+        assertThat(deferred.getAttempts()).isZero();
+        assertThat(deferred.getPendingReference()).isNull();
+        assertThat(deferred.getNextAttemptAt()).isEqualTo(now.plusMinutes(15));
+        assertThat(paymentRepository.findAll()).noneMatch(payment -> payment.getEmail().equals(schedule.getEmail()));
+    }
+
+    private static String tenant(String name) {
+        return name + "-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+    }
+
+    private RentSchedule enroll(String email, UUID propertyId, LocalDate firstDueOn) {
+        return rentBillingService.enroll(new RentScheduleRequest(email, null, propertyId, 250_000, "NGN", firstDueOn));
+    }
+
+    private RentSchedule activeSchedule(String email, LocalDate firstDueOn) {
+        UUID propertyId = UUID.randomUUID();
+        RentSchedule schedule = enroll(email, propertyId, firstDueOn);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                scheduleRepository.storeAuthorization(email, propertyId, "AUTH_" + email,
+                        List.of(RentScheduleStatus.AWAITING_AUTHORIZATION), RentScheduleStatus.ACTIVE));
+        return scheduleRepository.findById(schedule.getId()).orElseThrow();
+    }
+}
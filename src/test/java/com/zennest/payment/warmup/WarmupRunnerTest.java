@@ -0,0 +1,61 @@
+package com.zennest.payment.warmup;
+
+import com.zennest.payment.DTO.WarmupResult;
+import com.zennest.payment.client.UserGraphQLClient;
+import com.zennest.payment.repo.PaymentOutboxRepository;
+import com.zennest.payment.repo.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WarmupRunnerTest {
+
+    @MockBean
+    private UserGraphQLClient userGraphQLClient;
+
+    @Autowired
+    private WarmupRunner warmupRunner;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void runsEveryPhaseWithoutLeavingDataBehind() {
+        long payments = paymentRepository.count();
+        long outboxEvents = outboxRepository.count();
+
+        WarmupResult result = warmupRunner.warmUp(Duration.ofSeconds(30), 5);
+
+        assertThat(result.iterations()).isEqualTo(5);
+        assertThat(result.errors()).isZero();
+        assertThat(paymentRepository.count()).isEqualTo(payments);
+        assertThat(outboxRepository.count()).isEqualTo(outboxEvents);
+        for (String phase : new String[] {"webhook", "persistence", "graphql"}) {
+            assertThat(meterRegistry.get("payments.warmup.phase").tag("phase", phase).timer().count())
+                    .isGreaterThanOrEqualTo(5);
+        }
+        assertThat(meterRegistry.get("payments.warmup.iterations").gauge().value()).isEqualTo(5);
+    }
+
+    @Test
+    void stopsWhenTheBudgetIsSpent() {
+        WarmupResult result = warmupRunner.warmUp(Duration.ZERO, 1000);
+
+        assertThat(result.iterations()).isZero();
+    }
+}
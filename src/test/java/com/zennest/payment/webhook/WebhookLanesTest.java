@@ -0,0 +1,127 @@
+package com.zennest.payment.webhook;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebhookLanes lanes = new WebhookLanes(4, 2, Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void shutDown() throws InterruptedException {
+        lanes.destroy();
+    }
+
+    @Test
+    void sizesLanesFromTheRequestThreadBudget() throws InterruptedException {
+        WebhookLanes sized = new WebhookLanes(8, 0, 200, Duration.ofSeconds(5), meterRegistry);
+        WebhookLanes explicit = new WebhookLanes(8, 10, 200, Duration.ofSeconds(5), meterRegistry);
+
+        assertThat(sized.capacity()).isEqualTo(25);
+        assertThat(explicit.capacity()).isEqualTo(10);
+        sized.destroy();
+        explicit.destroy();
+    }
+
+    @Test
+    void appliesEventsOfOneReferenceInOrder() throws InterruptedException {
+        WebhookLanes roomy = new WebhookLanes(4, 1000, Duration.ofSeconds(5), meterRegistry);
+        List<Integer> applied = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int event = i;
+            assertThat(roomy.submit("ref-1", () -> applied.add(event))).isNotCompletedExceptionally();
+        }
+        roomy.destroy();
+
+        assertThat(applied).containsExactlyElementsOf(IntStream.range(0, 500).boxed().toList());
+    }
+
+    @Test
+    void runsReferencesOnDifferentLanesInParallel() throws InterruptedException {
+        String first = "ref-a";
+        String second = IntStream.range(0, 100).mapToObj(i -> "ref-" + i)
+                .filter(reference -> lanes.laneOf(reference) != lanes.laneOf(first))
+                .findFirst().orElseThrow();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable meet = () -> {
+            bothRunning.countDown();
+            try {
+                if (bothRunning.await(5, TimeUnit.SECONDS)) {
+                    done.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        lanes.submit(first, meet);
+        lanes.submit(second, meet);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void refusesWebhooksWhenTheLaneIsFull() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        lanes.submit("ref-1", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+
+        // Capacity 2: two more queue behind the running one, the next is refused
+        assertThat(lanes.submit("ref-1", () -> { })).isNotDone();
+        assertThat(lanes.submit("ref-1", () -> { })).isNotDone();
+        assertThat(lanes.submit("ref-1", () -> { })).failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("payments.webhook.lane.depth")
+                .tag("lane", String.valueOf(lanes.laneOf("ref-1"))).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("payments.webhook.lane.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void reportsWhenAnUpdateFailedOrWasNeverApplied() throws InterruptedException {
+        assertThat(lanes.submit("ref-1", () -> { throw new IllegalStateException("database down"); }))
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+
+        WebhookLanes stuck = new WebhookLanes(1, 10, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        stuck.submit("ref-1", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Void> queued = stuck.submit("ref-1", () -> { });
+        stuck.destroy();
+
+        // Dropped on shutdown: never reported as applied
+        assertThat(queued).isCancelled();
+    }
+}